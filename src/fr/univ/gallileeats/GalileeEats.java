@@ -3,13 +3,18 @@ package fr.univ.gallileeats;
 
 import fr.univ.gallileeats.controleur.ControleurPrincipal;
 import fr.univ.gallileeats.model.*;
-import java.util.ArrayList;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class GalileeEats {
     private static ControleurPrincipal controleurPrincipal;
-    private static List<Menu> menusDisponibles;
-    private static List<MenuBuffet> menusBuffet;
+    private static final ListeInstantanee<Menu> menusDisponibles = new ListeInstantanee<>();
+    private static final ListeInstantanee<MenuBuffet> menusBuffet = new ListeInstantanee<>();
 
     public static void main(String[] args) {
         System.out.println("=== Démarrage de GALILEE EATS ===");
@@ -28,10 +33,6 @@ public class GalileeEats {
     private static void initialiserDonnees() {
         System.out.println("Chargement des données initiales...");
 
-        // Initialisation des listes
-        menusDisponibles = new ArrayList<>();
-        menusBuffet = new ArrayList<>();
-
         // Création des menus standards
         creerMenusStandards();
 
@@ -47,21 +48,21 @@ public class GalileeEats {
         menuEtudiant.ajouter(new Plat("Salade Verte", "Salade fraîche de saison", 3.0, "ENTREE"));
         menuEtudiant.ajouter(new Plat("Pâtes Bolognaise", "Pâtes avec sauce bolognaise maison", 6.0, "PLAT"));
         menuEtudiant.ajouter(new Plat("Yaourt", "Yaourt nature ou aux fruits", 1.0, "DESSERT"));
-        menusDisponibles.add(menuEtudiant);
+        menusDisponibles.ajouter(menuEtudiant);
 
         // Menu du Jour
         Menu menuJour = new Menu("Menu du Jour", "Menu complet équilibré", "STANDARD");
         menuJour.ajouter(new Plat("Soupe du Jour", "Soupe fraîche selon le marché", 4.0, "ENTREE"));
         menuJour.ajouter(new Plat("Plat du Chef", "Suggestion du chef", 9.0, "PLAT"));
         menuJour.ajouter(new Plat("Dessert du Jour", "Dessert maison", 3.0, "DESSERT"));
-        menusDisponibles.add(menuJour);
+        menusDisponibles.ajouter(menuJour);
 
         // Menu Végétarien
         Menu menuVege = new Menu("Menu Végétarien", "Menu 100% végétarien", "VEGETARIEN");
         menuVege.ajouter(new Plat("Salade Composée", "Mélange de crudités de saison", 5.0, "ENTREE"));
         menuVege.ajouter(new Plat("Curry de Légumes", "Curry de légumes avec riz", 8.0, "PLAT"));
         menuVege.ajouter(new Plat("Salade de Fruits", "Fruits frais de saison", 3.0, "DESSERT"));
-        menusDisponibles.add(menuVege);
+        menusDisponibles.ajouter(menuVege);
     }
 
     private static void creerMenusBuffet() {
@@ -70,14 +71,14 @@ public class GalileeEats {
         buffetStandard.ajouter(new Plat("Assortiment d'Entrées", "Sélection d'entrées variées", 8.0, "BUFFET"));
         buffetStandard.ajouter(new Plat("Plats Chauds", "Sélection de plats chauds", 15.0, "BUFFET"));
         buffetStandard.ajouter(new Plat("Desserts Variés", "Assortiment de desserts", 6.0, "BUFFET"));
-        menusBuffet.add(buffetStandard);
+        menusBuffet.ajouter(buffetStandard);
 
         // Buffet Gala
         MenuBuffet buffetGala = new MenuBuffet("Buffet Gala", "Buffet premium pour événements spéciaux", 20);
         buffetGala.ajouter(new Plat("Plateau Prestige", "Sélection d'entrées premium", 12.0, "BUFFET"));
         buffetGala.ajouter(new Plat("Plats Signatures", "Spécialités du chef", 20.0, "BUFFET"));
         buffetGala.ajouter(new Plat("Desserts de Luxe", "Pâtisseries fines", 10.0, "BUFFET"));
-        menusBuffet.add(buffetGala);
+        menusBuffet.ajouter(buffetGala);
     }
 
     private static void demarrerApplication() {
@@ -129,7 +130,8 @@ public class GalileeEats {
         );
         controleurPrincipal.setUtilisateurConnecte("CUISINIER", cuisinier);
 
-
+        // Reprise des commandes journalisées avant un redémarrage
+        demarrerJournal(client, livreur, responsable);
 
         controleurPrincipal.initialiserSousControleurs();
 
@@ -137,12 +139,68 @@ public class GalileeEats {
         controleurPrincipal.afficherVuePrincipale();
     }
 
+    /**
+     * Rejoue le journal des commandes puis l'ouvre en écriture, si la propriété
+     * système galileeats.journal désigne un répertoire.
+     * La synchronisation disque se règle avec galileeats.journal.fsync
+     * (JAMAIS, PAR_LOT ou INTERVALLE) et galileeats.journal.fsyncMs.
+     */
+    private static void demarrerJournal(Client client, Livreur livreur,
+                                        ResponsableCampus responsable) {
+        String repertoire = System.getProperty("galileeats.journal");
+        if (repertoire == null || repertoire.trim().isEmpty()) {
+            return;
+        }
+
+        Map<String, Utilisateur> utilisateurs = new HashMap<>();
+        utilisateurs.put(client.getId(), client);
+        utilisateurs.put(livreur.getId(), livreur);
+        utilisateurs.put(responsable.getId(), responsable);
+
+        Path chemin = Paths.get(repertoire);
+        try {
+            List<Commande> commandes = JournalCommandes.rejouer(chemin, utilisateurs::get, GalileeEats::trouverMenu);
+            for (Commande commande : commandes) {
+                // Les transitions à venir arrivent par abonnement ; seul l'état courant est rattrapé ici
+                if (commande.getEtat() == EtatCommande.NOUVELLE || commande.getEtat() == EtatCommande.EN_PREPARATION) {
+                    OrdonnanceurCuisine.getInstance().soumettre(commande);
+                }
+                if (commande.getEtat() == EtatCommande.PRETE) {
+                    RepartiteurLivraisons.getInstance().soumettre(commande);
+                }
+            }
+            System.out.println(commandes.size() + " commande(s) restaurée(s) depuis le journal");
+
+            JournalCommandes.PolitiqueSynchronisation politique = JournalCommandes.PolitiqueSynchronisation.valueOf(
+                    System.getProperty("galileeats.journal.fsync", "INTERVALLE").toUpperCase());
+            long intervalle = Long.parseLong(System.getProperty("galileeats.journal.fsyncMs", "200"));
+            JournalCommandes.ouvrir(chemin, 4 * 1024 * 1024, politique, intervalle);
+        } catch (IOException e) {
+            System.err.println("Journal des commandes indisponible: " + e.getMessage());
+        }
+    }
+
+    private static MenuComponent trouverMenu(String nom) {
+        for (Menu menu : menusDisponibles) {
+            if (menu.getNom().equals(nom)) {
+                return menu;
+            }
+        }
+        for (MenuBuffet menu : menusBuffet) {
+            if (menu.getNom().equals(nom)) {
+                return menu;
+            }
+        }
+        // Menus composés à la volée (buffets d'événements) : reconstruits depuis le journal
+        return null;
+    }
+
     // Getters pour accéder aux données depuis d'autres classes
     public static List<Menu> getMenusDisponibles() {
-        return new ArrayList<>(menusDisponibles);
+        return menusDisponibles.instantane();
     }
 
     public static List<MenuBuffet> getMenusBuffet() {
-        return new ArrayList<>(menusBuffet);
+        return menusBuffet.instantane();
     }
 }
\ No newline at end of file
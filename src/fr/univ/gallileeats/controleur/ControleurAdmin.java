@@ -142,6 +142,11 @@ public class ControleurAdmin extends AbstractControleur {
                 System.out.println("- " + type + " : " + liste.size() + " plats")
         );
 
+        GenerateurNumeroCommande generateur = GenerateurNumeroCommande.getInstance();
+        System.out.println("\nNuméros de commande :");
+        System.out.println("- Nœud : " + generateur.getNoeud()
+                + (generateur.estNoeudDerive() ? " (dérivé de la machine et du processus)" : ""));
+
         attendreTouche();
         vue.afficher();
     }
@@ -272,7 +277,11 @@ public class ControleurAdmin extends AbstractControleur {
                 case "1":
                     System.out.print("Nouveau prix : ");
                     double nouveauPrix = Double.parseDouble(scanner.nextLine());
+                    plat.setPrix(Montant.depuisEuros(nouveauPrix)); // Invalide le prix des menus qui le contiennent
                     System.out.println("✅ Prix mis à jour !");
+                    RecalculTarifs.Bilan bilan = RecalculTarifs.recalculer(plat);
+                    System.out.printf("🔄 %d commande(s) en cours de composition recalculée(s), %d total(aux) modifié(s)%n",
+                            bilan.getNombreRecalculees(), bilan.getNombreModifiees());
                     break;
                 case "2":
                     System.out.print("Nouvelle description : ");
@@ -481,25 +490,17 @@ public class ControleurAdmin extends AbstractControleur {
     }
 
     /**
-     * Affiche la liste des commandes en cours.
+     * Affiche la liste des commandes en cours, regroupées par état.
      */
     private void afficherCommandesEnCours() {
         System.out.println("\n=== Commandes en cours ===");
-        for (List<Utilisateur> userList : utilisateurs.values()) {
-            for (Utilisateur user : userList) {
-                if (user instanceof Client) {
-                    Client client = (Client) user;
-                    List<Commande> commandes = client.getCommandes();
-                    if (!commandes.isEmpty()) {
-                        System.out.println("\nCommandes de " + client.getNom() + ":");
-                        commandes.stream()
-                               
-                                .forEach(this::afficherDetailsCommande);
-                    }
-                    // System.out.println("\nCommandes de " + client.getNom() + ".");
-                    // System.out.println(client.getCommandesEnCours());
-                }
+        OrderRepository repository = OrderRepository.getInstance();
+        for (EtatCommande etat : EtatCommande.values()) {
+            if (repository.estEtatFinal(etat) || repository.getNombreCommandes(etat) == 0) {
+                continue;
             }
+            System.out.println("\nCommandes " + etat.getLibelle().toLowerCase() + " :");
+            repository.getCommandesParEtat(etat).forEach(this::afficherDetailsCommande);
         }
 
         attendreTouche();
@@ -511,13 +512,13 @@ public class ControleurAdmin extends AbstractControleur {
      */
     private void afficherHistoriqueCommandes() {
         System.out.println("\n=== Historique complet des commandes ===");
+        OrderRepository repository = OrderRepository.getInstance();
         for (List<Utilisateur> userList : utilisateurs.values()) {
             for (Utilisateur user : userList) {
                 if (user instanceof Client) {
-                    Client client = (Client) user;
-                    List<Commande> commandes = client.getCommandes();
+                    Set<Commande> commandes = repository.getCommandesParClient(user.getId());
                     if (!commandes.isEmpty()) {
-                        System.out.println("\nCommandes de " + client.getNom() + ":");
+                        System.out.println("\nCommandes de " + user.getNom() + ":");
                         commandes.forEach(this::afficherDetailsCommande);
                     }
                 }
@@ -533,16 +534,8 @@ public class ControleurAdmin extends AbstractControleur {
      */
     private void afficherCommandesAnnulees() {
         System.out.println("\n=== Commandes Annulées ===");
-        for (List<Utilisateur> userList : utilisateurs.values()) {
-            for (Utilisateur user : userList) {
-                if (user instanceof Client) {
-                    Client client = (Client) user;
-                    client.getCommandes().stream()
-                            .filter(c -> c.getEtat() == EtatCommande.ANNULEE)
-                            .forEach(this::afficherDetailsCommande);
-                }
-            }
-        }
+        OrderRepository.getInstance().getCommandesParEtat(EtatCommande.ANNULEE)
+                .forEach(this::afficherDetailsCommande);
 
         attendreTouche();
         vue.afficher();
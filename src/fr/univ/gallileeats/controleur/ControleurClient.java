@@ -6,7 +6,6 @@ import fr.univ.gallileeats.vue.*;
 import fr.univ.gallileeats.strategie.*;
 import fr.univ.gallileeats.GalileeEats;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.Scanner;
@@ -18,7 +17,6 @@ import java.util.Scanner;
 public class ControleurClient extends AbstractControleur {
     private ControleurPrincipal controleurPrincipal;
     private Scanner scanner;
-    private Commande commandeEnCours;
 
     /**
      * Constructeur du contrôleur client.
@@ -88,7 +86,10 @@ public class ControleurClient extends AbstractControleur {
      * Permet au client de créer une nouvelle commande en sélectionnant un menu et un mode de livraison.
      */
     private void creerNouvelleCommande() {
-        Client client = (Client) controleurPrincipal.getUtilisateurConnecte("CLIENT");
+        Session session = controleurPrincipal.getSessionConnectee("CLIENT");
+        verifierUtilisateurConnecte(session == null ? null : session.getUtilisateur(), "CLIENT");
+        Client client = (Client) session.getUtilisateur();
+        Commande commandeEnCours = null;
 
         try {
             List<Menu> menus = GalileeEats.getMenusDisponibles();
@@ -114,14 +115,11 @@ public class ControleurClient extends AbstractControleur {
             int choixLivraison = lireEntier("Votre choix", 1, 3);
             Commande.ModeLivraison modeLivraison = Commande.ModeLivraison.values()[choixLivraison - 1];
 
-            // Création unique de la commande
+            // Création unique de la commande, propre à la session du client
             commandeEnCours = new Commande(client, menuChoisi, 1, modeLivraison);
-
-            // Gestion des observateurs (Pattern Observer)
-            List<Cuisinier> cuisiniers = controleurPrincipal.getObservateursCuisiniers();
-            for (Cuisinier cuisinier : cuisiniers) {
-                commandeEnCours.ajouterObservateur(cuisinier);
-            }
+            session.setCommandeEnCours(commandeEnCours);
+            // Enregistrée dès sa composition : un changement de prix du catalogue la recalcule
+            OrderRepository.getInstance().enregistrer(commandeEnCours);
 
             if (modeLivraison == Commande.ModeLivraison.LIVRAISON) {
                 System.out.println("\nAdresse de livraison actuelle : " + client.getAdresseLivraison());
@@ -130,14 +128,6 @@ public class ControleurClient extends AbstractControleur {
                     String nouvelleAdresse = scanner.nextLine();
                     commandeEnCours.setAdresseLivraison(nouvelleAdresse);
                 }
-
-                // Ajout des observateurs livreurs (Pattern Observer)
-                List<Livreur> livreurs = controleurPrincipal.getObservateursLivreurs();
-                for (Livreur livreur : livreurs) {
-                    if (livreur.isDisponible()) {
-                        commandeEnCours.ajouterObservateur(livreur);
-                    }
-                }
             }
 
             // Gestion des options supplémentaires (Pattern Decorator)
@@ -150,6 +140,7 @@ public class ControleurClient extends AbstractControleur {
                 afficherFormulairePaiement();
 
                 if (commandeEnCours.estPayee()) {
+                    // Cuisiniers et livreurs sont abonnés aux transitions ; seul le client suit sa commande
                     commandeEnCours.ajouterObservateur(client);
                     commandeEnCours.changerEtat(EtatCommande.NOUVELLE);  // Start as NOUVELLE instead of EN_PREPARATION
                     client.ajouterCommande(commandeEnCours);
@@ -162,12 +153,29 @@ public class ControleurClient extends AbstractControleur {
 
         } catch (Exception e) {
             System.out.println("\n⚠️ Erreur : " + e.getMessage());
+        } finally {
+            session.setCommandeEnCours(null);
+            if (commandeEnCours != null && !commandeEnCours.estPayee()) {
+                OrderRepository.getInstance().supprimer(commandeEnCours);
+            }
         }
 
         attendreTouche();
         vue.afficher();
     }
 
+    /**
+     * Commande en cours de saisie dans la session du client connecté.
+     */
+    private Commande getCommandeEnCours() {
+        Session session = controleurPrincipal.getSessionConnectee("CLIENT");
+        Commande commande = session == null ? null : session.getCommandeEnCours();
+        if (commande == null) {
+            throw new IllegalStateException("Aucune commande en cours");
+        }
+        return commande;
+    }
+
     /**
      * Ajoute une sauce supplémentaire au menu sélectionné.
      * @param menu Le menu auquel ajouter une sauce.
@@ -240,6 +248,7 @@ public class ControleurClient extends AbstractControleur {
      * Ajoute des options supplémentaires à une commande (ingrédients, sauces, portions).
      * @param menu Le menu auquel ajouter les options.
      */    private void ajouterOptionsSupplementaires(Menu menu) {
+        Commande commandeEnCours = getCommandeEnCours();
         MenuComponent menuModifie = commandeEnCours.getMenu();
 
         while (confirmerAction("\nVoulez-vous ajouter des options supplémentaires ?")) {
@@ -377,6 +386,7 @@ public class ControleurClient extends AbstractControleur {
         String cvv = scanner.nextLine();
 
         StrategyPaiement strategie = new PaiementCarteBancaire(numeroCarte, dateExpiration, cvv);
+        Commande commandeEnCours = getCommandeEnCours();
         commandeEnCours.setStrategyPaiement(strategie);
         commandeEnCours.payer();
     }
@@ -386,8 +396,9 @@ public class ControleurClient extends AbstractControleur {
      */
     private void traiterPaiementIzly() {
         Client client = (Client) controleurPrincipal.getUtilisateurConnecte("CLIENT");
+        Commande commandeEnCours = getCommandeEnCours();
 
-        if (client.getSoldeIzly() < commandeEnCours.getTotal()) {
+        if (client.getSoldeIzlyCentimes() < commandeEnCours.getTotalCentimes()) {
             throw new IllegalStateException("Solde IZLY insuffisant");
         }
 
@@ -397,17 +408,18 @@ public class ControleurClient extends AbstractControleur {
         StrategyPaiement strategie = new PaiementIzly(client.getNumeroEtudiant(), pin);
         commandeEnCours.setStrategyPaiement(strategie);
         commandeEnCours.payer();
-        client.debiterSoldeIzly(commandeEnCours.getTotal());
+        client.debiterSoldeIzly(commandeEnCours.getTotalCentimes());
     }
 
     /**
      * Traite le paiement en espèces.
      */
     private void traiterPaiementEspeces() {
+        Commande commandeEnCours = getCommandeEnCours();
         System.out.printf("Montant à payer : %.2f€%n", commandeEnCours.getTotal());
         double montant = lireDouble("Montant fourni", commandeEnCours.getTotal());
 
-        StrategyPaiement strategie = new PaiementEspeces(montant);
+        StrategyPaiement strategie = new PaiementEspeces(Montant.depuisEuros(montant));
         commandeEnCours.setStrategyPaiement(strategie);
         commandeEnCours.payer();
     }
@@ -417,72 +429,43 @@ public class ControleurClient extends AbstractControleur {
      */
     private void afficherRecapitulatifCommande() {
         System.out.println("\n=== Récapitulatif de la commande ===");
-        MenuComponent menu = commandeEnCours.getMenu();
+        // Ligne compilée : menu de base et suppléments sous forme plate (Pattern Decorator)
+        Commande commandeEnCours = getCommandeEnCours();
+        LigneCommande ligne = commandeEnCours.getLigne();
 
         // Afficher le menu de base
-        System.out.println("Menu : " + menu.getNom());
+        System.out.println("Menu : " + ligne.getBase().getNom());
 
-        // Calculer le prix de base du menu (Pattern Composite)
-        double prixBase = 0.0;
+        // Afficher les éléments du menu de base (Pattern Composite)
         System.out.println("Éléments de base :");
-        for (MenuComponent element : menu.getElements()) {
-            if (!(element instanceof PlatDecore)) {
-                System.out.printf("- %s (%.2f€)%n", element.getNom(), element.getPrix());
-                prixBase += element.getPrix();
-            }
+        for (MenuComponent element : ligne.getBase().getElements()) {
+            System.out.printf("- %s (%.2f€)%n", element.getNom(), element.getPrix());
         }
 
-        // Calculer et afficher les suppléments (Pattern Decorator)
-        double prixSupplements = 0.0;
-        if (menu instanceof PlatDecore) {
+        // Afficher les suppléments
+        if (ligne.aDesSupplements()) {
             System.out.println("Supplements ajoutés :");
-            PlatDecore platDecore = (PlatDecore) menu;
-            List<OptionSupplement> supplements = new ArrayList<>();
-            MenuComponent current = menu;
-
-            while (current instanceof PlatDecore) {
-                if (current instanceof OptionSupplement) {
-                    supplements.add((OptionSupplement) current);
-                }
-                current = ((PlatDecore) current).getPlatDeBase();
-            }
-
-            for (OptionSupplement supplement : supplements) {
+            for (int i = 0; i < ligne.getNombreSupplements(); i++) {
                 System.out.printf("- %s (%s) (+%.2f€)%n",
-                        supplement.getNomSupplement(),
-                        supplement.getTypeSupplement().getLibelle(),
-                        supplement.getPrixSupplementaire());
-                prixSupplements += supplement.getPrixSupplementaire();
+                        ligne.getNomSupplement(i),
+                        ligne.getTypeSupplement(i).getLibelle(),
+                        Montant.enEuros(ligne.getPrixSupplementCentimes(i)));
             }
         }
 
-        // Calculer le prix total avant réductions
-        double totalAvantReductions = prixBase + prixSupplements;
-
-        // Afficher les réductions appliquées
+        // Réductions et frais : déjà calculés par le moteur de tarification de la commande
         System.out.println("Réductions appliquées :");
-        System.out.printf("Prix initial : %.2f€%n", totalAvantReductions);
-
-        // Calculer les réductions
-        double reductionPourcentage = 0.0;
-        if (commandeEnCours.getClient() instanceof Client &&
-                ((Client) commandeEnCours.getClient()).estEtudiant()) {
-            reductionPourcentage = 0.15; // 15% de réduction étudiant
-            System.out.println("- Réduction étudiant (-15%)");
+        System.out.printf("Prix initial : %.2f€%n", commandeEnCours.getTotalAvantReductions());
+        for (String reduction : commandeEnCours.getReductionsAppliquees()) {
+            System.out.println("- " + reduction);
         }
 
-        // Calculer le total final
-        double totalFinal = totalAvantReductions * (1 - reductionPourcentage);
-
         // Afficher le mode de livraison si applicable
         if (commandeEnCours.getModeLivraison() == Commande.ModeLivraison.LIVRAISON) {
             System.out.println("\n📍 Livraison à : " + commandeEnCours.getAdresseLivraison());
         }
 
-        System.out.printf("💰 Total final à payer : %.2f€%n", totalFinal);
-
-        // Mettre à jour le total de la commande
-        commandeEnCours.setTotal(totalFinal);
+        System.out.printf("💰 Total final à payer : %.2f€%n", commandeEnCours.getTotal());
     }
 
     /**
@@ -684,7 +667,7 @@ public class ControleurClient extends AbstractControleur {
         System.out.println("\n=== Recharger Solde IZLY ===");
 
         System.out.print("Montant à recharger : ");
-        double montant = lireDouble("Montant", 0.0);
+        long montant = Montant.depuisEuros(lireDouble("Montant", 0.0));
 
         try {
             // Simuler un paiement par carte
@@ -737,7 +720,10 @@ public class ControleurClient extends AbstractControleur {
         }
 
         System.out.println("\nStatistiques :");
+        System.out.printf("Commandes passées : %d (dernière le %s)%n",
+                client.getNombreCommandes(), client.getDateDerniereCommande());
         System.out.printf("Total dépensé : %.2f€%n", client.getTotalDepense());
+        System.out.printf("Points gagnés : %.2f points%n", client.getPointsGagnes());
         System.out.printf("Points fidélité : %.2f points%n", client.getSoldePoints());
 
         attendreTouche();
@@ -861,6 +847,15 @@ public class ControleurClient extends AbstractControleur {
             System.out.println("Nom : " + commande.getLivreur().getNom());
             System.out.println("Téléphone : " + commande.getLivreur().getTelephone());
         }
+        if (commande.getEtat() == EtatCommande.PRETE || commande.getEtat() == EtatCommande.EN_LIVRAISON
+                || commande.getEtat() == EtatCommande.EN_PREPARATION) {
+            int minutes = EstimateurDelais.getInstance().estimerMinutes(commande);
+            if (minutes >= 0) {
+                System.out.println(commande.getLivreur() != null
+                        ? "Livraison estimée dans " + minutes + " min"
+                        : "Livraison estimée " + minutes + " min après la prise en charge par un livreur");
+            }
+        }
 
         attendreTouche();
         vue.afficher();
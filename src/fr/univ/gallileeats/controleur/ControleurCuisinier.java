@@ -3,11 +3,9 @@ package fr.univ.gallileeats.controleur;
 import fr.univ.gallileeats.model.*;
 import fr.univ.gallileeats.vue.*;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 /**
  * Contrôleur gérant les interactions entre le cuisinier et l'application.
@@ -98,7 +96,7 @@ public class ControleurCuisinier extends AbstractControleur {
     private void voirCommandesEnPreparation() {
         ((VueCuisinier) vue).afficherCommandesEnPreparation();
 
-        if (confirmerAction("\nVoulez-vous marquer une commande comme prête ?")) {
+        if (confirmerAction("\nVoulez-vous marquer un lot comme prêt ?")) {
             terminerPreparation();
         }
 
@@ -107,95 +105,75 @@ public class ControleurCuisinier extends AbstractControleur {
     }
 
     /**
-     * Permet au cuisinier de commencer la préparation d'une commande.
+     * Attribue au cuisinier le prochain lot de sa file, ou un lot repris
+     * à un collègue plus chargé si sa file est vide.
      */
     private void commencerPreparation() {
-        System.out.print("Numéro de la commande à préparer : ");
-        String numeroCommande = scanner.nextLine();
-
-        List<Commande> commandesEnAttente = trouverCommandesParEtat(EtatCommande.NOUVELLE);  // Changed from EN_PREPARATION
-        Commande commande = trouverCommandeParNumero(commandesEnAttente, numeroCommande);
-
-        if (commande != null) {
-            try {
-                commande.changerEtat(EtatCommande.EN_PREPARATION);
-                System.out.println("✅ Préparation commencée");
-            } catch (IllegalStateException e) {
-                System.out.println("⚠️ " + e.getMessage());
+        Cuisinier cuisinier = (Cuisinier) controleurPrincipal.getUtilisateurConnecte("CUISINIER");
+        OrdonnanceurCuisine ordonnanceur = OrdonnanceurCuisine.getInstance();
+
+        try {
+            OrdonnanceurCuisine.Ticket ticket = ordonnanceur.prendreTicket(cuisinier);
+            if (ticket == null) {
+                // Cuisine inoccupée : inutile d'attendre la fin de la fenêtre de regroupement
+                ordonnanceur.viderRegroupement();
+                ticket = ordonnanceur.prendreTicket(cuisinier);
             }
-        } else {
-            System.out.println("⚠️ Commande non trouvée");
+            if (ticket != null) {
+                System.out.println("✅ Préparation commencée : " + ticket.getLot());
+            } else {
+                System.out.println("⚠️ Aucune commande en attente");
+            }
+        } catch (IllegalStateException e) {
+            System.out.println("⚠️ " + e.getMessage());
         }
     }
 
     /**
-     * Permet au cuisinier de terminer la préparation d'une commande et de la marquer comme prête.
+     * Termine un lot en préparation ; les commandes dont c'était le dernier lot passent à l'état prête.
      */
     private void terminerPreparation() {
-        System.out.print("Numéro de la commande terminée : ");
-        String numeroCommande = scanner.nextLine();
+        Cuisinier cuisinier = (Cuisinier) controleurPrincipal.getUtilisateurConnecte("CUISINIER");
+        List<OrdonnanceurCuisine.Ticket> lotsEnCours = cuisinier.getLotsEnCours();
+        if (lotsEnCours.isEmpty()) {
+            System.out.println("⚠️ Aucun lot en préparation");
+            return;
+        }
 
-        List<Commande> commandesEnPreparation = trouverCommandesParEtat(EtatCommande.EN_PREPARATION);
-        Commande commande = trouverCommandeParNumero(commandesEnPreparation, numeroCommande);
+        OrdonnanceurCuisine.Ticket ticket = lotsEnCours.get(0);
+        if (lotsEnCours.size() > 1) {
+            System.out.print("Numéro du lot terminé : ");
+            ticket = trouverLotParNumero(lotsEnCours, scanner.nextLine().trim());
+        }
 
-        if (commande != null) {
+        if (ticket != null) {
             try {
-                commande.changerEtat(EtatCommande.PRETE);
-                System.out.println("✅ Commande prête");
+                OrdonnanceurCuisine.getInstance().terminer(cuisinier, ticket);
+                System.out.println("✅ Lot " + ticket.getLot().getNumero() + " prêt");
             } catch (IllegalStateException e) {
                 System.out.println("⚠️ " + e.getMessage());
             }
         } else {
-            System.out.println("⚠️ Commande non trouvée");
+            System.out.println("⚠️ Lot non trouvé");
         }
     }
 
     /**
-     * Recherche les commandes en fonction de leur état.
+     * Recherche un lot par son numéro parmi ceux en préparation.
      *
-     * @param etat L'état des commandes à rechercher.
-     * @return Liste des commandes correspondant à l'état spécifié.
+     * @param lots   Les lots en préparation.
+     * @param numero Numéro du lot recherché.
+     * @return Le lot correspondant ou null s'il n'est pas trouvé.
      */
-    private List<Commande> trouverCommandesParEtat(EtatCommande etat) {
-        return getAllCommandes().stream()
-                .filter(c -> c.getEtat() == etat)
-                .collect(Collectors.toList());
-    }
-
-    /**
-     * Récupère toutes les commandes existantes dans le système.
-     *
-     * @return Liste de toutes les commandes enregistrées.
-     */
-    private List<Commande> getAllCommandes() {
-        List<Commande> toutesCommandes = new ArrayList<>();
-        List<Utilisateur> clients = controleurPrincipal.getUtilisateurs("CLIENT");
-
-        for (Utilisateur user : clients) {
-            if (user instanceof Client) {
-                Client client = (Client) user;
-                toutesCommandes.addAll(client.getCommandes());
+    private OrdonnanceurCuisine.Ticket trouverLotParNumero(List<OrdonnanceurCuisine.Ticket> lots, String numero) {
+        for (OrdonnanceurCuisine.Ticket ticket : lots) {
+            if (ticket.getLot().getNumero().equalsIgnoreCase(numero)) {
+                return ticket;
             }
         }
-
-        return toutesCommandes;
+        return null;
     }
 
-    /**
-     * Recherche une commande par son numéro.
-     *
-     * @param commandes Liste des commandes disponibles.
-     * @param numero    Numéro de la commande recherchée.
-     * @return La commande correspondante ou null si elle n'est pas trouvée.
-     */
-    private Commande trouverCommandeParNumero(List<Commande> commandes, String numero) {
-        return commandes.stream()
-                .filter(c -> c.getNumeroCommande().equalsIgnoreCase(numero.trim())) // 🔥 Vérification améliorée
-                .findFirst()
-                .orElse(null);
-    }
-
-
     /**
      * Demande une confirmation utilisateur sous forme de oui/non.
      *
@@ -4,26 +4,34 @@ import fr.univ.gallileeats.interfaces.IControleur;
 import fr.univ.gallileeats.model.*;
 import fr.univ.gallileeats.vue.*;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 
 /**
  * Contrôleur principal de l'application gérant la navigation entre les différents rôles et fonctionnalités.
+ * Les utilisateurs connectés sont tenus par le {@link RegistreSessions} ; la console agit au nom
+ * d'un compte par rôle, dont elle garde le jeton de session.
  */
 public class ControleurPrincipal extends AbstractControleur {
     private Map<String, IControleur> sousControleurs;
-    private Map<String, Utilisateur> utilisateursConnectes;
+    private final RegistreSessions sessions;
+    // Par rôle de la console : compte utilisé et jeton de sa session
+    private final Map<String, Utilisateur> comptesConsole;
+    private final Map<String, String> jetonsConsole;
+    private volatile String roleActif;
     private static final String DEMO_PASSWORD = "password123";
 
     public ControleurPrincipal() {
         super();
         this.sousControleurs = new HashMap<>();
-        this.utilisateursConnectes = new HashMap<>();
+        this.sessions = RegistreSessions.getInstance();
+        this.comptesConsole = new ConcurrentHashMap<>();
+        this.jetonsConsole = new ConcurrentHashMap<>();
         initialiserSousControleurs();
     }
 
@@ -75,9 +83,9 @@ public class ControleurPrincipal extends AbstractControleur {
 
     @Override
     public void gererCommandes() {
-        Utilisateur utilisateur = getUtilisateurConnecteActuel();
-        if (utilisateur != null) {
-            IControleur controleur = sousControleurs.get(utilisateur.getRole());
+        String role = roleActif;
+        if (role != null && getUtilisateurConnecte(role) != null) {
+            IControleur controleur = sousControleurs.get(role);
             if (controleur != null) {
                 controleur.gererCommandes();
             }
@@ -86,9 +94,9 @@ public class ControleurPrincipal extends AbstractControleur {
 
     @Override
     public void afficherStatistiques() {
-        Utilisateur utilisateur = getUtilisateurConnecteActuel();
-        if (utilisateur != null) {
-            IControleur controleur = sousControleurs.get(utilisateur.getRole());
+        String role = roleActif;
+        if (role != null && getUtilisateurConnecte(role) != null) {
+            IControleur controleur = sousControleurs.get(role);
             if (controleur != null) {
                 controleur.afficherStatistiques();
             }
@@ -97,9 +105,9 @@ public class ControleurPrincipal extends AbstractControleur {
 
     @Override
     public void afficherEtatProfil() {
-        Utilisateur utilisateur = getUtilisateurConnecteActuel();
-        if (utilisateur != null) {
-            IControleur controleur = sousControleurs.get(utilisateur.getRole());
+        String role = roleActif;
+        if (role != null && getUtilisateurConnecte(role) != null) {
+            IControleur controleur = sousControleurs.get(role);
             if (controleur != null) {
                 controleur.afficherEtatProfil();
             }
@@ -122,26 +130,26 @@ public class ControleurPrincipal extends AbstractControleur {
     // Méthodes de connexion
     private void connecterClient() {
         // Création et affichage de la vue
-        VueClient vueClient = new VueClient(sousControleurs.get("CLIENT"), (Client) utilisateursConnectes.get("CLIENT"));
+        VueClient vueClient = new VueClient(sousControleurs.get("CLIENT"), (Client) reprendreSession("CLIENT"));
         sousControleurs.get("CLIENT").setVue(vueClient);
         vueClient.afficher();
     }
 
     private void connecterLivreur() {
-        VueLivreur vueLivreur = new VueLivreur(sousControleurs.get("LIVREUR"), (Livreur) utilisateursConnectes.get("LIVREUR"));
+        VueLivreur vueLivreur = new VueLivreur(sousControleurs.get("LIVREUR"), (Livreur) reprendreSession("LIVREUR"));
         sousControleurs.get("LIVREUR").setVue(vueLivreur);
         vueLivreur.afficher();
     }
 
     private void connecterResponsable() {
-        VueResponsableCampus vueResponsable = new VueResponsableCampus(sousControleurs.get("RESPONSABLE"), (ResponsableCampus) utilisateursConnectes.get("RESPONSABLE"));
+        VueResponsableCampus vueResponsable = new VueResponsableCampus(sousControleurs.get("RESPONSABLE"), (ResponsableCampus) reprendreSession("RESPONSABLE"));
         sousControleurs.get("RESPONSABLE").setVue(vueResponsable);
         vueResponsable.afficher();
     }
 
     private void connecterAdmin() {
-        Administrateur admin = Administrateur.getInstance();
-        utilisateursConnectes.put("ADMIN", admin);
+        setUtilisateurConnecte("ADMIN", Administrateur.getInstance());
+        reprendreSession("ADMIN");
 
         VueAdmin vueAdmin = new VueAdmin(sousControleurs.get("ADMIN"));
         sousControleurs.get("ADMIN").setVue(vueAdmin);
@@ -151,7 +159,7 @@ public class ControleurPrincipal extends AbstractControleur {
     private void connecterCuisinier() {
         VueCuisinier vueCuisinier = new VueCuisinier(
                 sousControleurs.get("CUISINIER"),
-                (Cuisinier) utilisateursConnectes.get("CUISINIER")
+                (Cuisinier) reprendreSession("CUISINIER")
         );
         sousControleurs.get("CUISINIER").setVue(vueCuisinier);
         vueCuisinier.afficher();
@@ -159,7 +167,11 @@ public class ControleurPrincipal extends AbstractControleur {
 
     // Méthodes de gestion de la session
     public void deconnecter() {
-        utilisateursConnectes.clear();
+        for (String jeton : jetonsConsole.values()) {
+            sessions.fermer(jeton);
+        }
+        jetonsConsole.clear();
+        roleActif = null;
         afficherVuePrincipale();
     }
 
@@ -169,27 +181,49 @@ public class ControleurPrincipal extends AbstractControleur {
     }
 
     // Méthodes utilitaires
+    /**
+     * Session de la console pour ce rôle, ou null si elle est fermée ou a expiré.
+     */
+    public Session getSessionConnectee(String type) {
+        String jeton = jetonsConsole.get(type);
+        return jeton == null ? null : sessions.trouver(jeton);
+    }
+
     public Utilisateur getUtilisateurConnecte(String type) {
-        return utilisateursConnectes.get(type);
+        Session session = getSessionConnectee(type);
+        return session == null ? null : session.getUtilisateur();
     }
 
+    /**
+     * Désigne le compte au nom duquel la console agit pour ce rôle et lui ouvre une session.
+     */
     public void setUtilisateurConnecte(String type, Utilisateur utilisateur) {
-        utilisateursConnectes.put(type, utilisateur);
+        comptesConsole.put(type, utilisateur);
+        Session session = sessions.ouvrir(utilisateur);
+        String precedent = jetonsConsole.put(type, session.getJeton());
+        if (precedent != null && !precedent.equals(session.getJeton())) {
+            sessions.fermer(precedent);
+        }
     }
 
-    private Utilisateur getUtilisateurConnecteActuel() {
-        for (Utilisateur utilisateur : utilisateursConnectes.values()) {
-            if (utilisateur != null) {
-                return utilisateur;
-            }
+    // Rôle choisi au menu principal : sa session, rouverte si elle a expiré, devient la session active
+    private Utilisateur reprendreSession(String type) {
+        Utilisateur compte = comptesConsole.get(type);
+        if (compte == null) {
+            return null;
+        }
+        if (getSessionConnectee(type) == null) {
+            setUtilisateurConnecte(type, compte);
         }
-        return null;
+        roleActif = type;
+        return compte;
     }
 
+    /**
+     * Utilisateurs de ce rôle connectés, toutes sessions confondues.
+     */
     public List<Utilisateur> getUtilisateurs(String type) {
-        return new ArrayList<>(utilisateursConnectes.values()).stream()
-                .filter(u -> u.getRole().equals(type))
-                .collect(Collectors.toList());
+        return sessions.getUtilisateurs(type);
     }
 
     public List<Cuisinier> getObservateursCuisiniers() {
@@ -11,7 +11,7 @@ import java.util.function.Consumer;
  */
 public class ControleurResponsable extends AbstractControleur {
     private ControleurPrincipal controleurPrincipal;
-    private Map<String, Double> budgetParEvenement;
+    private Map<String, Long> budgetParEvenement; // En centimes
 
     /**
      * Constructeur du contrôleur responsable.
@@ -151,10 +151,10 @@ public class ControleurResponsable extends AbstractControleur {
             nombrePersonnes = Integer.parseInt(params[1]);
             MenuBuffet menuBuffet = creerMenuBuffet(evenement, nombrePersonnes);
 
-            double coutTotal = menuBuffet.getPrix() * nombrePersonnes;
-            if (coutTotal > responsable.getBudgetDisponible()) {
-                System.out.printf("⚠️ Budget insuffisant (Requis: %.2f€, Disponible: %.2f€)%n",
-                        coutTotal, responsable.getBudgetDisponible());
+            long coutTotal = Montant.multiplier(menuBuffet.getPrixCentimes(), nombrePersonnes);
+            if (coutTotal > responsable.getBudgetDisponibleCentimes()) {
+                System.out.printf("⚠️ Budget insuffisant (Requis: %s, Disponible: %s)%n",
+                        Montant.formater(coutTotal), Montant.formater(responsable.getBudgetDisponibleCentimes()));
         
                 attendreTouche();
                 vue.afficher();
@@ -165,7 +165,7 @@ public class ControleurResponsable extends AbstractControleur {
             budgetParEvenement.put(evenement, coutTotal);
 
             System.out.println("\n✅ Commande créée avec succès!");
-            System.out.printf("Total: %.2f€%n", coutTotal);
+            System.out.printf("Total: %s%n", Montant.formater(coutTotal));
 
         } catch (IllegalStateException | IllegalArgumentException e) {
             System.out.println("⚠️ Erreur: " + e.getMessage());
@@ -300,7 +300,7 @@ public class ControleurResponsable extends AbstractControleur {
         ResponsableCampus responsable = (ResponsableCampus) controleurPrincipal.getUtilisateurConnecte("RESPONSABLE");
 
         if ("AUGMENTATION".equals(params[0]) && params.length >= 3) {
-            double montant = Double.parseDouble(params[1]);
+            long montant = Montant.depuisTexte(params[1]);
             String justification = params[2].replace("_", " ");
             responsable.demanderAugmentationBudget(montant, justification);
             System.out.println("✅ Demande d'augmentation envoyée");
@@ -320,7 +320,7 @@ public class ControleurResponsable extends AbstractControleur {
 
         System.out.println("\n=== Dépenses par Événement ===");
         budgetParEvenement.forEach((evenement, montant) ->
-                System.out.printf("%s : %.2f€%n", evenement, montant));
+                System.out.printf("%s : %s%n", evenement, Montant.formater(montant)));
     }
 
     /**
@@ -329,9 +329,13 @@ public class ControleurResponsable extends AbstractControleur {
     private void afficherStatistiquesEvenements() {
         if (!budgetParEvenement.isEmpty()) {
             System.out.println("\n📊 Statistiques des événements:");
-            double totalDepenses = budgetParEvenement.values().stream().mapToDouble(Double::doubleValue).sum();
+            long totalDepenses = Montant.ZERO;
+            for (long montant : budgetParEvenement.values()) {
+                totalDepenses = Montant.ajouter(totalDepenses, montant);
+            }
             System.out.printf("Nombre d'événements: %d%n", budgetParEvenement.size());
-            System.out.printf("Dépense moyenne par événement: %.2f€%n", totalDepenses / budgetParEvenement.size());
+            System.out.printf("Dépense moyenne par événement: %s%n",
+                    Montant.formater(Montant.diviser(totalDepenses, budgetParEvenement.size())));
         }
     }
 
@@ -345,7 +349,7 @@ public class ControleurResponsable extends AbstractControleur {
 
         try {
             System.out.print("Montant souhaité (€) : ");
-            double montant = Double.parseDouble(scanner.nextLine());
+            long montant = Montant.depuisTexte(scanner.nextLine());
 
             System.out.print("Motif de la demande : ");
             String motif = scanner.nextLine();
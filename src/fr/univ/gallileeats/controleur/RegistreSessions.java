@@ -0,0 +1,233 @@
+package fr.univ.gallileeats.controleur;
+
+import fr.univ.gallileeats.model.Cuisinier;
+import fr.univ.gallileeats.model.Livreur;
+import fr.univ.gallileeats.model.Utilisateur;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registre des sessions ouvertes, indexées par jeton, par identifiant d'utilisateur (une
+ * session par utilisateur) et par rôle ; chaque recherche est en temps constant.
+ * Toutes les modifications concernant un même utilisateur passent par son entrée de l'index
+ * par identifiant, ce qui garde les trois index cohérents sans verrou global.
+ * Une session inactive depuis plus de {@code galileeats.sessions.inactiviteMaxMs}
+ * millisecondes (30 minutes par défaut) est fermée : à la première recherche par jeton qui
+ * la trouve expirée, ou par la purge périodique d'un thread dédié.
+ * Cuisiniers et livreurs prennent leur service à l'ouverture de leur session et le quittent
+ * à sa fermeture.
+ */
+public class RegistreSessions {
+    private static final String PROPRIETE_INACTIVITE_MAX = "galileeats.sessions.inactiviteMaxMs";
+    private static final long INACTIVITE_MAX_PAR_DEFAUT_MS = 30 * 60 * 1000L;
+    private static final long PERIODE_PURGE_MAX_MS = 60 * 1000L;
+
+    private static volatile RegistreSessions instance;
+    private static final Object verrou = new Object();
+
+    private final long inactiviteMaxMs;
+    private final Map<String, Session> parJeton;
+    private final Map<String, Session> parUtilisateur;
+    private final Map<String, Set<Session>> parRole;
+
+    RegistreSessions(long inactiviteMaxMs) {
+        if (inactiviteMaxMs <= 0) {
+            throw new IllegalArgumentException("Durée d'inactivité maximale invalide: " + inactiviteMaxMs);
+        }
+        this.inactiviteMaxMs = inactiviteMaxMs;
+        this.parJeton = new ConcurrentHashMap<>();
+        this.parUtilisateur = new ConcurrentHashMap<>();
+        this.parRole = new ConcurrentHashMap<>();
+
+        long periode = Math.max(1, Math.min(inactiviteMaxMs / 4, PERIODE_PURGE_MAX_MS));
+        ScheduledExecutorService purge = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "purge-sessions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purge.scheduleWithFixedDelay(this::purger, periode, periode, TimeUnit.MILLISECONDS);
+    }
+
+    public static RegistreSessions getInstance() {
+        if (instance == null) {
+            synchronized (verrou) {
+                if (instance == null) {
+                    instance = new RegistreSessions(
+                            Long.getLong(PROPRIETE_INACTIVITE_MAX, INACTIVITE_MAX_PAR_DEFAUT_MS));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Ouvre une session pour l'utilisateur, ou reprend la sienne si elle est encore active.
+     */
+    public Session ouvrir(Utilisateur utilisateur) {
+        if (utilisateur == null) {
+            throw new IllegalArgumentException("L'utilisateur est requis pour ouvrir une session");
+        }
+        long maintenant = System.currentTimeMillis();
+        Session[] fermee = new Session[1];
+        Session[] creee = new Session[1];
+        Session session = parUtilisateur.compute(utilisateur.getId(), (id, existante) -> {
+            if (existante != null) {
+                if (existante.getUtilisateur() == utilisateur && !existante.estInactive(maintenant, inactiviteMaxMs)) {
+                    existante.toucher(maintenant);
+                    return existante;
+                }
+                desindexer(existante);
+                fermee[0] = existante;
+            }
+            Session nouvelle = new Session(UUID.randomUUID().toString(), utilisateur, maintenant);
+            parJeton.put(nouvelle.getJeton(), nouvelle);
+            parRole.computeIfAbsent(nouvelle.getRole(), r -> ConcurrentHashMap.newKeySet()).add(nouvelle);
+            creee[0] = nouvelle;
+            return nouvelle;
+        });
+        if (fermee[0] != null && fermee[0].getUtilisateur() != utilisateur) {
+            quitterService(fermee[0].getUtilisateur());
+        }
+        if (creee[0] != null && (fermee[0] == null || fermee[0].getUtilisateur() != utilisateur)) {
+            prendreService(utilisateur);
+        }
+        return session;
+    }
+
+    /**
+     * Session active correspondant au jeton, ou null si elle n'existe pas ou a expiré.
+     * Chaque recherche réussie compte comme une activité de la session.
+     */
+    public Session trouver(String jeton) {
+        if (jeton == null) {
+            return null;
+        }
+        Session session = parJeton.get(jeton);
+        if (session == null) {
+            return null;
+        }
+        long maintenant = System.currentTimeMillis();
+        if (session.estInactive(maintenant, inactiviteMaxMs)) {
+            fermer(session);
+            return null;
+        }
+        session.toucher(maintenant);
+        return session;
+    }
+
+    /**
+     * Session active de l'utilisateur, sans la compter comme une activité.
+     */
+    public Session getSessionUtilisateur(String idUtilisateur) {
+        Session session = idUtilisateur == null ? null : parUtilisateur.get(idUtilisateur);
+        if (session == null || session.estInactive(System.currentTimeMillis(), inactiviteMaxMs)) {
+            return null;
+        }
+        return session;
+    }
+
+    public boolean estConnecte(String idUtilisateur) {
+        return getSessionUtilisateur(idUtilisateur) != null;
+    }
+
+    /**
+     * Sessions ouvertes pour le rôle ({@link Utilisateur#getRole()}) ; vue non modifiable qui
+     * suit les ouvertures et fermetures.
+     */
+    public Set<Session> getSessions(String role) {
+        Set<Session> sessions = role == null ? null : parRole.get(role);
+        return sessions == null ? Collections.emptySet() : Collections.unmodifiableSet(sessions);
+    }
+
+    public List<Utilisateur> getUtilisateurs(String role) {
+        List<Utilisateur> utilisateurs = new ArrayList<>();
+        for (Session session : getSessions(role)) {
+            utilisateurs.add(session.getUtilisateur());
+        }
+        return utilisateurs;
+    }
+
+    public boolean fermer(String jeton) {
+        Session session = jeton == null ? null : parJeton.get(jeton);
+        return session != null && fermer(session);
+    }
+
+    /**
+     * @return true si la session était ouverte.
+     */
+    public boolean fermer(Session session) {
+        boolean[] retiree = new boolean[1];
+        parUtilisateur.computeIfPresent(session.getUtilisateur().getId(), (id, courante) -> {
+            if (courante != session) {
+                return courante;
+            }
+            desindexer(session);
+            retiree[0] = true;
+            return null;
+        });
+        if (retiree[0]) {
+            quitterService(session.getUtilisateur());
+        }
+        return retiree[0];
+    }
+
+    /**
+     * Ferme les sessions inactives depuis plus que la durée maximale.
+     *
+     * @return le nombre de sessions fermées.
+     */
+    public int purger() {
+        long maintenant = System.currentTimeMillis();
+        int fermees = 0;
+        for (Session session : parJeton.values()) {
+            if (session.estInactive(maintenant, inactiviteMaxMs) && fermer(session)) {
+                fermees++;
+            }
+        }
+        return fermees;
+    }
+
+    public int getNombreSessions() {
+        return parJeton.size();
+    }
+
+    public long getInactiviteMaxMs() {
+        return inactiviteMaxMs;
+    }
+
+    // Appelé sous le verrou de l'entrée de l'utilisateur dans parUtilisateur
+    private void desindexer(Session session) {
+        parJeton.remove(session.getJeton());
+        Set<Session> memeRole = parRole.get(session.getRole());
+        if (memeRole != null) {
+            memeRole.remove(session);
+        }
+        session.setCommandeEnCours(null);
+    }
+
+    // Cuisiniers et livreurs reçoivent les transitions qui les concernent pendant leur session
+    private static void prendreService(Utilisateur utilisateur) {
+        if (utilisateur instanceof Cuisinier) {
+            ((Cuisinier) utilisateur).prendreService();
+        } else if (utilisateur instanceof Livreur) {
+            ((Livreur) utilisateur).prendreService();
+        }
+    }
+
+    private static void quitterService(Utilisateur utilisateur) {
+        if (utilisateur instanceof Cuisinier) {
+            ((Cuisinier) utilisateur).quitterService();
+        } else if (utilisateur instanceof Livreur) {
+            ((Livreur) utilisateur).quitterService();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package fr.univ.gallileeats.controleur;
+
+import fr.univ.gallileeats.model.Commande;
+import fr.univ.gallileeats.model.Utilisateur;
+
+/**
+ * Session d'un utilisateur connecté, identifiée par un jeton. Elle porte l'état propre à
+ * cet utilisateur dans les contrôleurs (la commande en cours de saisie, par exemple), que
+ * les contrôleurs eux-mêmes partagent entre toutes les sessions.
+ */
+public final class Session {
+    private final String jeton;
+    private final Utilisateur utilisateur;
+    private final long ouverture;
+    private volatile long derniereActivite;
+    private volatile Commande commandeEnCours;
+
+    Session(String jeton, Utilisateur utilisateur, long maintenant) {
+        this.jeton = jeton;
+        this.utilisateur = utilisateur;
+        this.ouverture = maintenant;
+        this.derniereActivite = maintenant;
+    }
+
+    public String getJeton() {
+        return jeton;
+    }
+
+    public Utilisateur getUtilisateur() {
+        return utilisateur;
+    }
+
+    public String getRole() {
+        return utilisateur.getRole();
+    }
+
+    public long getOuverture() {
+        return ouverture;
+    }
+
+    public long getDerniereActivite() {
+        return derniereActivite;
+    }
+
+    void toucher(long maintenant) {
+        // Évite d'écrire le champ partagé à chaque accès d'une même milliseconde
+        if (maintenant > derniereActivite) {
+            derniereActivite = maintenant;
+        }
+    }
+
+    boolean estInactive(long maintenant, long inactiviteMaxMs) {
+        return maintenant - derniereActivite > inactiviteMaxMs;
+    }
+
+    public Commande getCommandeEnCours() {
+        return commandeEnCours;
+    }
+
+    public void setCommandeEnCours(Commande commandeEnCours) {
+        this.commandeEnCours = commandeEnCours;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Session[%s, %s]", utilisateur.getId(), getRole());
+    }
+}
@@ -10,7 +10,7 @@ public interface StrategyPaiement {
     /**
      * Effectue un paiement du montant spécifié.
      *
-     * @param montant le montant à payer.
+     * @param montant le montant à payer, en centimes.
      */
-    void payer(double montant);
+    void payer(long montant);
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+package fr.univ.gallileeats.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Boîte de réception des notifications d'un utilisateur : tampon circulaire de capacité
+ * fixe, alimenté par plusieurs producteurs (les observateurs des commandes) et vidé par
+ * un seul lecteur à la fois.
+ * Un producteur réserve une case par une seule opération atomique et ne bloque jamais :
+ * si la boîte est pleine, la notification est perdue et comptée. Le lecteur avance son
+ * curseur case par case ; une notification déposée pendant la lecture est lue maintenant
+ * ou à la lecture suivante, jamais perdue.
+ * Le texte d'une {@link Notification} n'est construit qu'à la lecture, dans la langue du
+ * lecteur. La capacité se règle avec la propriété système
+ * {@code galileeats.notifications.capacite} (arrondie à la puissance de deux supérieure).
+ */
+public class BoiteNotifications {
+    private static final String PROPRIETE_CAPACITE = "galileeats.notifications.capacite";
+    private static final int CAPACITE_PAR_DEFAUT = 64;
+
+    private final int masque;
+    private final AtomicReferenceArray<Object> messages;
+    // Numéro de la prochaine écriture attendue dans chaque case (prête à lire si tete + 1)
+    private final AtomicLongArray sequences;
+    private final AtomicLong queue;
+    private volatile long tete;
+    private final LongAdder perdues;
+    private long perduesSignalees;
+
+    public BoiteNotifications() {
+        this(Integer.getInteger(PROPRIETE_CAPACITE, CAPACITE_PAR_DEFAUT));
+    }
+
+    public BoiteNotifications(int capacite) {
+        if (capacite < 1 || capacite > 1 << 20) {
+            throw new IllegalArgumentException("Capacité de la boîte de notifications invalide: " + capacite);
+        }
+        int taille = Integer.highestOneBit(capacite);
+        if (taille < capacite) {
+            taille <<= 1;
+        }
+        this.masque = taille - 1;
+        this.messages = new AtomicReferenceArray<>(taille);
+        this.sequences = new AtomicLongArray(taille);
+        for (int i = 0; i < taille; i++) {
+            sequences.set(i, i);
+        }
+        this.queue = new AtomicLong();
+        this.perdues = new LongAdder();
+    }
+
+    public boolean deposer(String message) {
+        return deposerMessage(message);
+    }
+
+    /**
+     * Dépose une notification dont le texte ne sera construit qu'à la lecture.
+     */
+    public boolean deposer(Notification message) {
+        return deposerMessage(message);
+    }
+
+    private boolean deposerMessage(Object message) {
+        if (message == null) {
+            throw new IllegalArgumentException("La notification ne peut pas être null");
+        }
+        while (true) {
+            long position = queue.get();
+            int indice = (int) position & masque;
+            long ecart = sequences.get(indice) - position;
+            if (ecart == 0) {
+                if (queue.compareAndSet(position, position + 1)) {
+                    messages.set(indice, message);
+                    sequences.set(indice, position + 1);
+                    return true;
+                }
+            } else if (ecart < 0) {
+                // Case pas encore lue depuis le tour précédent : la boîte est pleine
+                perdues.increment();
+                return false;
+            }
+            // Sinon, un autre producteur vient de prendre cette position
+        }
+    }
+
+    /**
+     * Retire et met en forme dans la langue donnée les notifications déposées, de la plus
+     * ancienne à la plus récente, précédées d'un avertissement si des notifications ont été perdues depuis
+     * la lecture précédente.
+     */
+    public synchronized List<String> lire(String langue) {
+        List<String> lues = new ArrayList<>();
+        long nouvellementPerdues = perdues.sum() - perduesSignalees;
+        if (nouvellementPerdues > 0) {
+            perduesSignalees += nouvellementPerdues;
+            lues.add(ModeleNotification.NOTIFICATIONS_PERDUES.rendre(langue, nouvellementPerdues, null, null, null));
+        }
+        long position = tete;
+        while (true) {
+            int indice = (int) position & masque;
+            if (sequences.get(indice) != position + 1) {
+                break; // Vide, ou case réservée dont le message n'est pas encore écrit
+            }
+            Object message = messages.get(indice);
+            messages.set(indice, null);
+            sequences.set(indice, position + masque + 1);
+            position++;
+            lues.add(rendre(message, langue));
+        }
+        tete = position;
+        return lues;
+    }
+
+    private static String rendre(Object message, String langue) {
+        if (!(message instanceof Notification)) {
+            return (String) message;
+        }
+        try {
+            return ((Notification) message).rendre(langue);
+        } catch (RuntimeException e) {
+            // Une notification mal formée ne doit pas empêcher la lecture des suivantes
+            return "Notification illisible: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Nombre de notifications en attente de lecture (approximatif en présence d'écritures).
+     */
+    public int getNombreNonLues() {
+        return (int) Math.max(0, queue.get() - tete);
+    }
+
+    public boolean estVide() {
+        return getNombreNonLues() == 0;
+    }
+
+    public int getCapacite() {
+        return masque + 1;
+    }
+
+    public long getNombrePerdues() {
+        return perdues.sum();
+    }
+}
@@ -0,0 +1,330 @@
+package fr.univ.gallileeats.model;
+
+import fr.univ.gallileeats.interfaces.Observateur;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bus d'événements asynchrone remplaçant les listes d'observateurs des sujets.
+ * Chaque abonné dispose d'une file bornée, vidée par un seul thread à la fois :
+ * l'ordre des notifications d'une même source est donc préservé pour cet abonné,
+ * et un abonné lent ne bloque plus le thread qui publie.
+ * Une commande est diffusée sous forme d'{@link EvenementCommande}, qui fige son état
+ * au moment de la publication.
+ * En plus des abonnements à une source, un observateur peut s'abonner à une transition
+ * (« vers tel état », éventuellement restreinte à un mode de livraison) : il est alors
+ * notifié de toutes les commandes qui l'effectuent, et seulement de celles-ci.
+ * Les abonnements à une commande sont oubliés lorsqu'elle atteint un état final
+ * ({@link EtatCommande#estFinal()} : livrée, servie ou annulée).
+ */
+public class BusEvenements {
+    public enum PolitiqueSaturation {
+        ABANDONNER, // File pleine : la nouvelle notification est perdue
+        FUSIONNER,  // Seule la dernière notification en attente pour une même source est délivrée
+        BLOQUER     // File pleine : l'émetteur attend qu'une place se libère
+    }
+
+    private static final int CAPACITE_PAR_DEFAUT = 256;
+    private static final int LOT_MAX = 64;
+
+    private static volatile BusEvenements instance;
+    private static final Object verrou = new Object();
+
+    private final ExecutorService executeur;
+    private final Map<Object, Set<Abonne>> abonnesParSource;
+    private final Map<Observateur, Abonne> abonnes;
+    // Abonnés par état d'arrivée, tous modes confondus puis par mode de livraison
+    private final Map<EtatCommande, Set<Abonne>> abonnesParTransition;
+    private final Map<EtatCommande, Map<Commande.ModeLivraison, Set<Abonne>>> abonnesParTransitionEtMode;
+    private final ThreadLocal<Abonne> abonneEnCours;
+
+    private class Abonne implements Runnable {
+        private final Observateur observateur;
+        private final PolitiqueSaturation politique;
+        private final int capacite;
+        // Événements en attente ; en fusion, sources dont le dernier événement attend dans derniers
+        private final Queue<Object> file;
+        private final AtomicInteger taille;
+        private final Map<Object, Object> derniers;
+        private final AtomicBoolean planifie;
+        private final AtomicLong notificationsPerdues;
+        // Émetteurs en attente d'une place (politique BLOQUER), modifié sous le moniteur de l'abonné
+        private volatile int attentes;
+
+        Abonne(Observateur observateur, PolitiqueSaturation politique, int capacite) {
+            this.observateur = observateur;
+            this.politique = politique;
+            this.capacite = capacite;
+            this.file = new ConcurrentLinkedQueue<>();
+            this.taille = new AtomicInteger();
+            this.derniers = new ConcurrentHashMap<>();
+            this.planifie = new AtomicBoolean(false);
+            this.notificationsPerdues = new AtomicLong();
+        }
+
+        void deposer(Object source, Object evenement) {
+            if (politique == PolitiqueSaturation.FUSIONNER) {
+                if (derniers.put(source, evenement) != null) {
+                    return; // La notification déjà en attente délivrera cet événement
+                }
+                if (!reserver()) {
+                    derniers.remove(source);
+                    notificationsPerdues.incrementAndGet();
+                    return;
+                }
+                file.offer(source);
+            } else {
+                if (!reserver() && !attendrePlace()) {
+                    notificationsPerdues.incrementAndGet();
+                    return;
+                }
+                file.offer(evenement);
+            }
+            planifier();
+        }
+
+        private boolean reserver() {
+            while (true) {
+                int courante = taille.get();
+                if (courante >= capacite) {
+                    return false;
+                }
+                if (taille.compareAndSet(courante, courante + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private boolean attendrePlace() {
+            if (politique != PolitiqueSaturation.BLOQUER) {
+                return false;
+            }
+            if (abonneEnCours.get() != null) {
+                // Émetteur lui-même abonné : l'attendre pourrait former un cycle entre abonnés,
+                // la file dépasse donc sa capacité plutôt que de bloquer un thread du bus
+                taille.incrementAndGet();
+                return true;
+            }
+            synchronized (this) {
+                attentes++;
+                try {
+                    while (!reserver()) {
+                        wait();
+                    }
+                    return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                } finally {
+                    attentes--;
+                }
+            }
+        }
+
+        private void liberer() {
+            taille.decrementAndGet();
+            if (attentes > 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
+        private void planifier() {
+            if (planifie.compareAndSet(false, true)) {
+                executeur.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            abonneEnCours.set(this);
+            try {
+                for (int i = 0; i < LOT_MAX; i++) {
+                    Object element = file.poll();
+                    if (element == null) {
+                        break;
+                    }
+                    liberer();
+                    Object evenement = politique == PolitiqueSaturation.FUSIONNER ? derniers.remove(element) : element;
+                    if (evenement == null) {
+                        continue;
+                    }
+                    try {
+                        observateur.actualiser(evenement);
+                    } catch (RuntimeException e) {
+                        System.err.println("Erreur lors de la notification de " + observateur + ": " + e.getMessage());
+                    }
+                }
+            } finally {
+                abonneEnCours.remove();
+                planifie.set(false);
+            }
+            // Des notifications ont pu arriver pendant le traitement du lot
+            if (!file.isEmpty()) {
+                planifier();
+            }
+        }
+    }
+
+    private BusEvenements() {
+        // Point unique de choix des threads de diffusion (threads virtuels à partir de Java 21)
+        this.executeur = Executors.newCachedThreadPool(tache -> {
+            Thread thread = new Thread(tache, "bus-evenements");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.abonnesParSource = new ConcurrentHashMap<>();
+        this.abonnes = new ConcurrentHashMap<>();
+        this.abonnesParTransition = new EnumMap<>(EtatCommande.class);
+        this.abonnesParTransitionEtMode = new EnumMap<>(EtatCommande.class);
+        for (EtatCommande etat : EtatCommande.values()) {
+            abonnesParTransition.put(etat, ConcurrentHashMap.newKeySet());
+            Map<Commande.ModeLivraison, Set<Abonne>> parMode = new EnumMap<>(Commande.ModeLivraison.class);
+            for (Commande.ModeLivraison mode : Commande.ModeLivraison.values()) {
+                parMode.put(mode, ConcurrentHashMap.newKeySet());
+            }
+            abonnesParTransitionEtMode.put(etat, parMode);
+        }
+        this.abonneEnCours = new ThreadLocal<>();
+    }
+
+    public static BusEvenements getInstance() {
+        if (instance == null) {
+            synchronized (verrou) {
+                if (instance == null) {
+                    instance = new BusEvenements();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Définit la politique de saturation et la capacité de la file d'un observateur.
+     * Doit être appelé avant son premier abonnement pour être pris en compte.
+     */
+    public void configurer(Observateur observateur, PolitiqueSaturation politique, int capacite) {
+        if (capacite <= 0) {
+            throw new IllegalArgumentException("La capacité doit être positive");
+        }
+        abonnes.computeIfAbsent(observateur, o -> new Abonne(o, politique, capacite));
+    }
+
+    public void abonner(Object source, Observateur observateur) {
+        Abonne abonne = abonne(observateur);
+        abonnesParSource.compute(source, (s, abonnesSource) -> {
+            Set<Abonne> ensemble = abonnesSource != null ? abonnesSource : ConcurrentHashMap.newKeySet();
+            ensemble.add(abonne);
+            return ensemble;
+        });
+    }
+
+    public void desabonner(Object source, Observateur observateur) {
+        Abonne abonne = abonnes.get(observateur);
+        if (abonne == null) {
+            return;
+        }
+        // La source n'est plus retenue par le bus une fois son dernier abonné parti
+        abonnesParSource.computeIfPresent(source, (s, abonnesSource) -> {
+            abonnesSource.remove(abonne);
+            return abonnesSource.isEmpty() ? null : abonnesSource;
+        });
+    }
+
+    public boolean estAbonne(Object source, Observateur observateur) {
+        Set<Abonne> abonnesSource = abonnesParSource.get(source);
+        Abonne abonne = abonnes.get(observateur);
+        return abonnesSource != null && abonne != null && abonnesSource.contains(abonne);
+    }
+
+    /**
+     * Abonne un observateur aux commandes qui passent à l'état donné.
+     *
+     * @param etat        État d'arrivée de la transition.
+     * @param mode        Mode de livraison requis, ou null pour tous les modes.
+     * @param observateur L'observateur à notifier.
+     */
+    public void abonnerTransition(EtatCommande etat, Commande.ModeLivraison mode, Observateur observateur) {
+        abonnesTransition(etat, mode).add(abonne(observateur));
+    }
+
+    public void desabonnerTransition(EtatCommande etat, Commande.ModeLivraison mode, Observateur observateur) {
+        Abonne abonne = abonnes.get(observateur);
+        if (abonne != null) {
+            abonnesTransition(etat, mode).remove(abonne);
+        }
+    }
+
+    /**
+     * Notifie les abonnés de la commande puis ceux de la transition vers le nouvel état.
+     * Un observateur abonné des deux façons n'est notifié qu'une fois.
+     */
+    public void publierTransition(Commande commande, EtatCommande ancienEtat, EtatCommande nouvelEtat) {
+        EvenementCommande evenement = new EvenementCommande(commande, ancienEtat, nouvelEtat, true);
+        Set<Abonne> abonnesSource = nouvelEtat.estFinal()
+                ? abonnesParSource.remove(commande)
+                : abonnesParSource.get(commande);
+        if (abonnesSource == null) {
+            abonnesSource = Collections.emptySet();
+        }
+        for (Abonne abonne : abonnesSource) {
+            abonne.deposer(commande, evenement);
+        }
+        for (Abonne abonne : abonnesTransition(nouvelEtat, null)) {
+            if (!abonnesSource.contains(abonne)) {
+                abonne.deposer(commande, evenement);
+            }
+        }
+        for (Abonne abonne : abonnesTransition(nouvelEtat, commande.getModeLivraison())) {
+            if (!abonnesSource.contains(abonne)) {
+                abonne.deposer(commande, evenement);
+            }
+        }
+    }
+
+    private Set<Abonne> abonnesTransition(EtatCommande etat, Commande.ModeLivraison mode) {
+        return mode == null ? abonnesParTransition.get(etat) : abonnesParTransitionEtMode.get(etat).get(mode);
+    }
+
+    private Abonne abonne(Observateur observateur) {
+        return abonnes.computeIfAbsent(observateur,
+                o -> new Abonne(o, PolitiqueSaturation.BLOQUER, CAPACITE_PAR_DEFAUT));
+    }
+
+    public void publier(Object source) {
+        Set<Abonne> abonnesSource = abonnesParSource.getOrDefault(source, Collections.emptySet());
+        if (abonnesSource.isEmpty()) {
+            return;
+        }
+        Object evenement = source;
+        if (source instanceof Commande) {
+            Commande commande = (Commande) source;
+            evenement = new EvenementCommande(commande, null, commande.getEtat(), false);
+        }
+        for (Abonne abonne : abonnesSource) {
+            abonne.deposer(source, evenement);
+        }
+    }
+
+    // Nombre de sources dont au moins un observateur est abonné
+    public int getNombreSourcesSuivies() {
+        return abonnesParSource.size();
+    }
+
+    public long getNotificationsPerdues(Observateur observateur) {
+        Abonne abonne = abonnes.get(observateur);
+        return abonne == null ? 0 : abonne.notificationsPerdues.get();
+    }
+}
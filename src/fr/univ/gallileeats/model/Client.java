@@ -6,12 +6,13 @@ import java.util.List;
 import java.util.Date;
 
 public class Client extends Utilisateur implements Observateur {
-    private List<Commande> commandes;
+    private final ListeInstantanee<Commande> commandes;
+    private final SyntheseClient synthese;
     private String adresseLivraison;
     private boolean estEtudiant;
     private String numeroEtudiant;
-    private double soldeIzly;
-    private double soldePoints;
+    private long soldeIzly; // En centimes
+    private long soldePoints; // En centièmes de point
     private List<String> allergies;
     private List<String> preferencesAlimentaires;
     private boolean notificationsActivees;
@@ -40,10 +41,11 @@ public class Client extends Utilisateur implements Observateur {
             throw new IllegalArgumentException("L'adresse de livraison est requise");
         }
 
-        this.commandes = new ArrayList<>();
+        this.commandes = new ListeInstantanee<>();
+        this.synthese = new SyntheseClient();
         this.adresseLivraison = adresseLivraison;
-        this.soldeIzly = 0.0;
-        this.soldePoints = 0.0;
+        this.soldeIzly = Montant.ZERO;
+        this.soldePoints = 0;
         this.allergies = new ArrayList<>();
         this.preferencesAlimentaires = new ArrayList<>();
         this.notificationsActivees = true;
@@ -55,27 +57,43 @@ public class Client extends Utilisateur implements Observateur {
         if (commande == null) {
             throw new IllegalArgumentException("La commande ne peut pas être nulle");
         }
-        commandes.add(commande);
+        commandes.ajouter(commande);
+        synthese.ajouter(commande);
         commande.ajouterObservateur(this);
+        OrderRepository.getInstance().enregistrer(commande);
     }
 
     public void supprimerCommande(Commande commande) {
-        commandes.remove(commande);
+        commandes.retirer(commande);
+        if (synthese.retirer(commande)) {
+            // Cas rare : seule la suppression de la plus récente oblige à parcourir l'historique
+            Date derniere = null;
+            for (Commande autre : commandes) {
+                if (derniere == null || autre.getDateCommande().after(derniere)) {
+                    derniere = autre.getDateCommande();
+                }
+            }
+            synthese.setDerniereCommande(derniere);
+        }
         commande.supprimerObservateur(this);
+        OrderRepository.getInstance().supprimer(commande);
     }
 
     public List<Commande> getCommandes() {
-        return new ArrayList<>(commandes);
+        return commandes.instantane();
     }
 
+    // Commandes ni livrées, ni servies, ni annulées, dans l'ordre où elles ont été passées
     public List<Commande> getCommandesEnCours() {
-        List<Commande> commandesEnCours = new ArrayList<>();
-        for (Commande commande : commandes) {
-            
-                commandesEnCours.add(commande);
-            
-        }
-        return commandesEnCours;
+        return synthese.getCommandesEnCours();
+    }
+
+    public int getNombreCommandes() {
+        return synthese.getNombreCommandes();
+    }
+
+    public Date getDateDerniereCommande() {
+        return synthese.getDerniereCommande();
     }
 
     // Gestion du statut étudiant
@@ -93,36 +111,32 @@ public class Client extends Utilisateur implements Observateur {
     }
 
     // Gestion du compte Izly
-    public void rechargerSoldeIzly(double montant) {
+    public void rechargerSoldeIzly(long montant) {
         if (montant <= 0) {
             throw new IllegalArgumentException("Le montant doit être positif");
         }
-        this.soldeIzly += montant;
+        this.soldeIzly = Montant.ajouter(soldeIzly, montant);
     }
 
-    public boolean debiterSoldeIzly(double montant) {
+    public boolean debiterSoldeIzly(long montant) {
         if (montant <= 0) {
             throw new IllegalArgumentException("Le montant doit être positif");
         }
         if (soldeIzly >= montant) {
-            soldeIzly -= montant;
+            soldeIzly = Montant.soustraire(soldeIzly, montant);
             return true;
         }
         return false;
     }
 
     // Gestion des points de fidélité
-    private double calculerPointsCommande(Commande commande) {
-        return commande.getTotal() * 0.1; // 10% du montant en points
-    }
-
-    public void ajouterPoints(double points) {
+    public void ajouterPoints(long points) {
         if (points > 0) {
             this.soldePoints += points;
         }
     }
 
-    public boolean utiliserPoints(double points) {
+    public boolean utiliserPoints(long points) {
         if (points > 0 && soldePoints >= points) {
             soldePoints -= points;
             return true;
@@ -154,15 +168,13 @@ public class Client extends Utilisateur implements Observateur {
     // Implémentation de l'Observer
     @Override
     public void actualiser(Object source) {
-        if (source instanceof Commande && notificationsActivees) {
-            Commande commande = (Commande) source;
-            if (commandes.contains(commande)) {
-                String message = String.format(
-                        "Votre commande %s est maintenant %s",
-                        commande.getNumeroCommande(),
-                        commande.getEtat().getLibelle()
-                );
-                ajouterNotification(message);
+        if (source instanceof EvenementCommande) {
+            EvenementCommande evenement = (EvenementCommande) source;
+            Commande commande = evenement.getCommande();
+            synthese.actualiser(commande);
+            if (notificationsActivees && synthese.suit(commande)) {
+                ajouterNotification(Notification.de(ModeleNotification.COMMANDE_ETAT,
+                        commande.getNumeroCommande(), evenement.getEtat()));
             }
         }
     }
@@ -188,10 +200,18 @@ public class Client extends Utilisateur implements Observateur {
     }
 
     public double getSoldeIzly() {
+        return Montant.enEuros(soldeIzly);
+    }
+
+    public long getSoldeIzlyCentimes() {
         return soldeIzly;
     }
 
     public double getSoldePoints() {
+        return soldePoints / 100.0;
+    }
+
+    public long getSoldePointsCentiemes() {
         return soldePoints;
     }
 
@@ -226,18 +246,29 @@ public class Client extends Utilisateur implements Observateur {
 
     // Méthodes utilitaires
     public double getTotalDepense() {
-        return commandes.stream()
-                .filter(c -> !c.getEtat().equals(EtatCommande.ANNULEE))
-                .mapToDouble(Commande::getTotal)
-                .sum();
+        return Montant.enEuros(getTotalDepenseCentimes());
+    }
+
+    // Hors commandes annulées
+    public long getTotalDepenseCentimes() {
+        return synthese.getTotalDepense();
+    }
+
+    // 10 % du total dépensé, commande par commande
+    public double getPointsGagnes() {
+        return synthese.getPointsGagnes() / 100.0;
+    }
+
+    public long getPointsGagnesCentiemes() {
+        return synthese.getPointsGagnes();
     }
 
     public boolean peutBeneficierReduction() {
-        return soldePoints >= 100.0;
+        return soldePoints >= 10_000; // 100 points
     }
 
     public boolean aCommandeEnCours() {
-        return !getCommandesEnCours().isEmpty();
+        return synthese.aCommandeEnCours();
     }
 
     @Override
@@ -248,7 +279,7 @@ public class Client extends Utilisateur implements Observateur {
                 ", email='" + getEmail() + '\'' +
                 ", adresse='" + adresseLivraison + '\'' +
                 ", estEtudiant=" + estEtudiant +
-                ", soldePoints=" + soldePoints +
+                ", soldePoints=" + getSoldePoints() +
                 '}';
     }
 }
\ No newline at end of file
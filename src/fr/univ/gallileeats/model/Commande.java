@@ -4,35 +4,44 @@ import fr.univ.gallileeats.interfaces.Sujet;
 import fr.univ.gallileeats.interfaces.Observateur;
 import fr.univ.gallileeats.interfaces.StrategyPaiement;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Date;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Commande implements Sujet {
-    // Compteur statique pour générer les numéros de commande
+    private final Devis devis; // Réutilisé à chaque recalcul du total
+    private long reglesAppliquees;
+    private long totalAvantReductions; // En centimes
 
-    private List<String> reductionsAppliquees;
-    private double totalAvantReductions;
-    private static int compteur = 0;
+    // Notifications en attente, par observateur d'une commande (une par commande suivie)
+    private static final int CAPACITE_SUIVI = 1024;
 
     // Attributs de base
     private String numeroCommande;
     private Utilisateur client;
     private MenuComponent menu;
-    private EtatCommande etat;
-    private List<Observateur> observateurs;
+    private volatile LigneCommande ligne;
+    private final AtomicReference<EtatCommande> etat;
+    // Horodatage de la dernière entrée dans chaque état (indexé par rang de l'état), 0 si jamais atteint
+    private final AtomicLongArray horodatagesEtats;
     private Date dateCommande;
     private Date dateLivraison;
     private String adresseLivraison;
+    // Coordonnées du point de livraison, si l'adresse est un point connu du campus
+    private volatile Livreur.Position positionLivraison;
     private ModeLivraison modeLivraison;
     private StrategyPaiement strategyPaiement;
-    private double total;
+    private volatile long total; // En centimes
     private String evenement;
-    private Livreur livreur;
+    private final AtomicReference<Livreur> livreur;
     private int nombrePersonnes;
     private String commentaires;
-    private boolean estPaye;
-    private List<String> historique;
+    private volatile boolean estPaye;
+    private HistoriqueCommande historique;
 
     public enum ModeLivraison {
         LIVRAISON("Livraison à domicile"),
@@ -50,6 +59,29 @@ public class Commande implements Sujet {
         }
     }
 
+    /**
+     * Preuve qu'un acteur a remporté une transition d'état.
+     * Un seul jeton est émis pour chaque transition effectuée.
+     */
+    public static final class JetonTransition {
+        private final Commande commande;
+        private final EtatCommande ancienEtat;
+        private final EtatCommande nouvelEtat;
+        private final long horodatage;
+
+        private JetonTransition(Commande commande, EtatCommande ancienEtat, EtatCommande nouvelEtat) {
+            this.commande = commande;
+            this.ancienEtat = ancienEtat;
+            this.nouvelEtat = nouvelEtat;
+            this.horodatage = System.currentTimeMillis();
+        }
+
+        public Commande getCommande() { return commande; }
+        public EtatCommande getAncienEtat() { return ancienEtat; }
+        public EtatCommande getNouvelEtat() { return nouvelEtat; }
+        public long getHorodatage() { return horodatage; }
+    }
+
     // Constructeur complet
     public Commande(Utilisateur client, MenuComponent menu, int nombrePersonnes, ModeLivraison modeLivraison) {
         if (client == null || menu == null) {
@@ -62,23 +94,28 @@ public class Commande implements Sujet {
         this.numeroCommande = genererNumeroCommande();
         this.client = client;
         this.menu = menu;
+        this.ligne = LigneCommande.compiler(menu);
         this.nombrePersonnes = nombrePersonnes;
         this.modeLivraison = modeLivraison;
-        this.etat = null;
-        this.observateurs = new ArrayList<>();
+        this.etat = new AtomicReference<>();
+        this.horodatagesEtats = new AtomicLongArray(EtatCommande.values().length);
+        this.livreur = new AtomicReference<>();
         this.dateCommande = new Date();
-        this.historique = new ArrayList<>();
+        this.historique = new HistoriqueCommande();
         this.estPaye = false;
-        this.reductionsAppliquees = new ArrayList<>();
-        this.totalAvantReductions = 0.0;
+        this.devis = new Devis(MoteurTarification.Cible.COMMANDE);
+        this.devis.setMinuteDuJour(minuteDuJour(dateCommande));
+        this.totalAvantReductions = Montant.ZERO;
 
         // Gestion de l'adresse selon le mode de livraison
         if (modeLivraison == ModeLivraison.LIVRAISON && client instanceof Client) {
             this.adresseLivraison = ((Client) client).getAdresseLivraison();
+            this.positionLivraison = MatriceDistancesCampus.getInstance().localiser(adresseLivraison);
         }
 
-        ajouterEvenementHistorique("Commande créée");
+        historique.ajouter(HistoriqueCommande.TypeEvenement.CREATION);
         calculerTotal();
+        JournalCommandes.journaliserCreation(this);
     }
 
     // Constructeur simplifié pour commande standard
@@ -86,8 +123,52 @@ public class Commande implements Sujet {
         this(client, menu, 1, ModeLivraison.LIVRAISON);
     }
 
+    // Reconstruction d'une commande à partir du journal (sans notification ni journalisation)
+    static Commande restaurer(String numeroCommande, Utilisateur client, MenuComponent menu,
+                              int nombrePersonnes, ModeLivraison modeLivraison, long total, Date dateCommande) {
+        Commande commande = new Commande(client, menu, nombrePersonnes, modeLivraison);
+        commande.numeroCommande = numeroCommande;
+        commande.total = total;
+        commande.dateCommande = dateCommande;
+        commande.devis.setMinuteDuJour(minuteDuJour(dateCommande));
+        return commande;
+    }
+
+    void restaurerEtat(EtatCommande etat, Date date) {
+        this.etat.set(etat);
+        horodatagesEtats.set(etat.ordinal(), date.getTime());
+        if (etat == EtatCommande.LIVREE || etat == EtatCommande.SERVIE) {
+            this.dateLivraison = date;
+        }
+        historique.ajouter(HistoriqueCommande.TypeEvenement.ETAT_RESTAURE, etat);
+    }
+
+    void restaurerPaiement(long total) {
+        this.total = total;
+        this.estPaye = true;
+    }
+
+    void restaurerLivreur(Livreur livreur) {
+        this.livreur.set(livreur);
+    }
+
+    void restaurerAdresse(String adresseLivraison) {
+        this.adresseLivraison = adresseLivraison;
+        this.positionLivraison = MatriceDistancesCampus.getInstance().localiser(adresseLivraison);
+    }
+
+    void restaurerEvenement(String evenement) {
+        this.evenement = evenement;
+    }
+
+    synchronized void restaurerMenu(MenuComponent menu) {
+        this.menu = menu;
+        this.ligne = LigneCommande.compiler(menu);
+        tarifer();
+    }
+
     private String genererNumeroCommande() {
-        return "CMD" + String.format("%04d", ++compteur);
+        return GenerateurNumeroCommande.getInstance().prochainNumero();
     }
 
     // Gestion du paiement
@@ -96,118 +177,178 @@ public class Commande implements Sujet {
             throw new IllegalArgumentException("La stratégie de paiement ne peut pas être nulle");
         }
         this.strategyPaiement = strategy;
-        ajouterEvenementHistorique("Méthode de paiement définie: " + strategy.getClass().getSimpleName());
+        historique.ajouter(HistoriqueCommande.TypeEvenement.METHODE_PAIEMENT, strategy.getClass().getSimpleName());
     }
 
     public void payer() {
-        if (strategyPaiement == null) {
-            throw new IllegalStateException("Aucune méthode de paiement définie");
-        }
-        if (estPaye) {
-            throw new IllegalStateException("La commande est déjà payée");
-        }
-
-        try {
-            strategyPaiement.payer(total);
-            this.estPaye = true;
-
-            // Changement d'état et notification des cuisiniers
-            if (this.etat == EtatCommande.NOUVELLE) {
-                changerEtat(EtatCommande.EN_PREPARATION);
-                // Les cuisiniers seront notifiés via le changement d'état
-                notifierObservateurs();
+        synchronized (this) {
+            if (strategyPaiement == null) {
+                throw new IllegalStateException("Aucune méthode de paiement définie");
+            }
+            if (estPaye) {
+                throw new IllegalStateException("La commande est déjà payée");
             }
 
-            ajouterEvenementHistorique("Paiement effectué avec succès");
-        } catch (Exception e) {
-            ajouterEvenementHistorique("Échec du paiement: " + e.getMessage());
-            throw new IllegalStateException("Échec du paiement: " + e.getMessage());
+            try {
+                strategyPaiement.payer(total);
+                this.estPaye = true;
+                JournalCommandes.journaliserPaiement(this);
+                historique.ajouter(HistoriqueCommande.TypeEvenement.PAIEMENT_EFFECTUE);
+            } catch (Exception e) {
+                historique.ajouter(HistoriqueCommande.TypeEvenement.PAIEMENT_ECHOUE, e.getMessage());
+                throw new IllegalStateException("Échec du paiement: " + e.getMessage());
+            }
+        }
+        // Une commande payée après son passage à l'état nouvelle n'a pas été confiée à la cuisine
+        // par la transition : elle l'est maintenant. La cuisine la fait passer en préparation.
+        if (getEtat() == EtatCommande.NOUVELLE) {
+            OrdonnanceurCuisine.getInstance().soumettre(this);
         }
     }
 
-    // Calcul du total
+    // Calcul du total ; menu, ligne, devis et total ne changent que sous le verrou de la commande
     public void calculerTotal() {
-        // Prix de base selon le menu et le nombre de personnes
-        this.total = 0.0;
-
-        // Ajouter le prix de chaque élément du menu
-        for (MenuComponent element : menu.getElements()) {
-            this.total += element.getPrix();
+        synchronized (this) {
+            tarifer();
         }
+        notifierObservateurs();
+    }
 
-        // Multiplier par le nombre de personnes
-        this.total *= nombrePersonnes;
-
-        // Réductions selon le type de client et la taille de la commande
-        appliquerReductions();
-
-        // Frais supplémentaires selon le mode de livraison
-        appliquerFraisLivraison();
+    /**
+     * Recalcule le total après une modification du catalogue, sans notification :
+     * c'est {@link RecalculTarifs} qui publie un seul événement par commande modifiée.
+     *
+     * @return true si le total a changé.
+     */
+    synchronized boolean recalculerApresModificationCatalogue() {
+        if (!estTarifRevisable()) {
+            return false;
+        }
+        long ancienTotal = total;
+        this.ligne = LigneCommande.compiler(menu);
+        tarifer();
+        if (total == ancienTotal) {
+            return false;
+        }
+        historique.ajouter(HistoriqueCommande.TypeEvenement.TOTAL_RECALCULE);
+        return true;
+    }
 
-        notifierObservateurs();
+    // Seule une commande non payée dont le montant n'est engagé nulle part suit le catalogue :
+    // le coût d'une commande groupée est imputé au budget de l'événement dès sa création
+    synchronized boolean estTarifRevisable() {
+        return !estPaye && evenement == null;
     }
 
-    private void appliquerReductions() {
-        this.totalAvantReductions = this.total;
+    private void tarifer() {
+        // Prix de base selon le menu et le nombre de personnes
+        long montant = Montant.ZERO;
 
-        // Réduction pour les grandes commandes
-        if (nombrePersonnes >= 20) {
-            total *= 0.9; // 10% de réduction
-            reductionsAppliquees.add("Réduction groupe (-10%)");
+        // Ajouter le prix de chaque élément du menu, puis celui des suppléments
+        for (MenuComponent element : ligne.getBase().getElements()) {
+            montant = Montant.ajouter(montant, element.getPrixCentimes());
         }
+        montant = Montant.ajouter(montant, ligne.getPrixSupplementsCentimes());
 
-        // Réduction étudiant
-        if (client instanceof Client && ((Client) client).estEtudiant()) {
-            total *= 0.85; // 15% de réduction
-            reductionsAppliquees.add("Réduction étudiant (-15%)");
+        // Multiplier par le nombre de personnes
+        montant = Montant.multiplier(montant, nombrePersonnes);
+        this.totalAvantReductions = montant;
+
+        // Réductions et frais selon les règles du moteur de tarification
+        devis.setMontant(montant);
+        devis.setNombrePersonnes(nombrePersonnes);
+        devis.setModeLivraison(modeLivraison);
+        devis.setClient(client);
+        devis.setMenu(ligne.getBase().getNom());
+        MoteurTarification moteur = MoteurTarification.getInstance();
+        moteur.tarifer(devis);
+        this.total = devis.getTotal();
+        enregistrerNouveauxFrais(moteur, devis.getReglesAppliquees());
+    }
+
+    // Les frais ne sont inscrits dans l'historique qu'à leur apparition, pas à chaque recalcul
+    private void enregistrerNouveauxFrais(MoteurTarification moteur, long regles) {
+        long nouvelles = regles & ~reglesAppliquees;
+        while (nouvelles != 0) {
+            int regle = Long.numberOfTrailingZeros(nouvelles);
+            if (moteur.getEffet(regle) == MoteurTarification.Effet.FRAIS) {
+                historique.ajouter(HistoriqueCommande.TypeEvenement.FRAIS_AJOUTES, moteur.getLibelle(regle));
+            }
+            nouvelles &= nouvelles - 1;
         }
+        reglesAppliquees = regles;
     }
 
-    private void appliquerFraisLivraison() {
-        if (modeLivraison == ModeLivraison.LIVRAISON) {
-            if (total < 20) {
-                total += 2.5; // Frais de livraison pour petites commandes
-                ajouterEvenementHistorique("Frais de livraison ajoutés: 2.50€");
-            }
-        }
+    private static int minuteDuJour(Date date) {
+        LocalTime heure = LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()).toLocalTime();
+        return heure.getHour() * 60 + heure.getMinute();
     }
 
     // Gestion des états
+    /**
+     * Fait passer la commande au nouvel état depuis son état courant, quel qu'il soit.
+     * Si un autre thread change l'état entre-temps, la transition est revalidée
+     * à partir du nouvel état courant.
+     */
     public void changerEtat(EtatCommande nouvelEtat) {
         if (nouvelEtat == null) {
             throw new IllegalArgumentException("Le nouvel état ne peut pas être null");
         }
 
-        if (this.etat == null) {
-            this.etat = nouvelEtat;
-            ajouterEvenementHistorique("État initial: " + nouvelEtat.getLibelle());
-            notifierObservateurs();
-            return;
+        while (true) {
+            EtatCommande ancienEtat = this.etat.get();
+            if (!EtatCommande.estTransitionAutorisee(ancienEtat, nouvelEtat)) {
+                throw transitionInvalide(ancienEtat, nouvelEtat);
+            }
+            if (this.etat.compareAndSet(ancienEtat, nouvelEtat)) {
+                appliquerTransition(ancienEtat, nouvelEtat);
+                return;
+            }
         }
+    }
 
-        if (!this.etat.peutPasserA(nouvelEtat)) {
-            throw new IllegalStateException(
-                    String.format("Transition invalide: %s vers %s",
-                            this.etat.getLibelle(), nouvelEtat.getLibelle())
-            );
+    /**
+     * Tente de faire passer la commande de l'état attendu au nouvel état, sans verrou.
+     * Lorsque plusieurs acteurs tentent la même transition, un seul obtient le jeton.
+     *
+     * @return Le jeton de la transition, ou null si la commande n'est plus dans l'état attendu.
+     * @throws IllegalStateException si la transition n'est pas autorisée.
+     */
+    public JetonTransition revendiquer(EtatCommande etatAttendu, EtatCommande nouvelEtat) {
+        if (nouvelEtat == null) {
+            throw new IllegalArgumentException("Le nouvel état ne peut pas être null");
+        }
+        if (!EtatCommande.estTransitionAutorisee(etatAttendu, nouvelEtat)) {
+            throw transitionInvalide(etatAttendu, nouvelEtat);
         }
+        if (!this.etat.compareAndSet(etatAttendu, nouvelEtat)) {
+            return null;
+        }
+        appliquerTransition(etatAttendu, nouvelEtat);
+        return new JetonTransition(this, etatAttendu, nouvelEtat);
+    }
 
-        // Vérifications spécifiques avant le changement d'état
-        if (nouvelEtat == EtatCommande.ANNULEE) {
-            // Permettre l'annulation depuis n'importe quel état non final
-            if (this.etat != EtatCommande.LIVREE &&
-                    this.etat != EtatCommande.SERVIE) {
-                this.etat = nouvelEtat;
-                ajouterEvenementHistorique("Commande annulée: " + nouvelEtat.getLibelle());
-                notifierObservateurs();
-                return;
-            }
+    // Effets d'une transition, exécutés uniquement par l'acteur qui l'a remportée
+    private void appliquerTransition(EtatCommande ancienEtat, EtatCommande nouvelEtat) {
+        horodatagesEtats.set(nouvelEtat.ordinal(), System.currentTimeMillis());
+        OrderRepository.getInstance().mettreAJourEtat(this, ancienEtat, nouvelEtat);
+        JournalCommandes.journaliserEtat(this, nouvelEtat);
+        if (ancienEtat == null) {
+            historique.ajouter(HistoriqueCommande.TypeEvenement.ETAT_INITIAL, nouvelEtat);
+        } else if (nouvelEtat == EtatCommande.ANNULEE &&
+                ancienEtat != EtatCommande.LIVREE && ancienEtat != EtatCommande.SERVIE) {
+            historique.ajouter(HistoriqueCommande.TypeEvenement.ANNULATION, nouvelEtat);
+        } else {
+            historique.ajouter(HistoriqueCommande.TypeEvenement.ETAT_CHANGE, nouvelEtat);
         }
+        notifierTransition(ancienEtat, nouvelEtat);
+    }
 
-        // Reste de la logique de changement d'état
-        this.etat = nouvelEtat;
-        ajouterEvenementHistorique("État changé: " + nouvelEtat.getLibelle());
-        notifierObservateurs();
+    private IllegalStateException transitionInvalide(EtatCommande ancienEtat, EtatCommande nouvelEtat) {
+        return new IllegalStateException(
+                String.format("Transition invalide: %s vers %s",
+                        ancienEtat == null ? "aucun état" : ancienEtat.getLibelle(), nouvelEtat.getLibelle())
+        );
     }
 
     private void validerTransition(EtatCommande nouvelEtat) {
@@ -216,43 +357,11 @@ public class Commande implements Sujet {
         }
         if (nouvelEtat == EtatCommande.EN_LIVRAISON &&
                 modeLivraison == ModeLivraison.LIVRAISON &&
-                livreur == null) {
+                livreur.get() == null) {
             throw new IllegalStateException("Un livreur doit être assigné");
         }
     }
 
-    private void notifierSelonEtat(EtatCommande nouvelEtat) {
-        switch (nouvelEtat) {
-            case NOUVELLE:
-                notifierCuisiniers();
-                break;
-            case PRETE:
-                if (modeLivraison == ModeLivraison.LIVRAISON) {
-                    notifierLivreursDisponibles();
-                }
-                break;
-            default:
-                notifierObservateurs();
-        }
-    }
-
-    private void notifierCuisiniers() {
-        for (Observateur obs : observateurs) {
-            if (obs instanceof Cuisinier) {
-                obs.actualiser(this);
-            }
-        }
-    }
-
-    private void notifierLivreursDisponibles() {
-        for (Observateur obs : observateurs) {
-            if (obs instanceof Livreur && ((Livreur) obs).isDisponible()) {
-                obs.actualiser(this);
-            }
-        }
-    }
-
-
     private void gererChangementEtat(EtatCommande ancienEtat, EtatCommande nouvelEtat) {
         switch (nouvelEtat) {
             case EN_PREPARATION:
@@ -284,64 +393,58 @@ public class Commande implements Sujet {
     }
 
     private void verifierLivreur() {
-        if (modeLivraison == ModeLivraison.LIVRAISON && livreur == null) {
+        if (modeLivraison == ModeLivraison.LIVRAISON && livreur.get() == null) {
             throw new IllegalStateException("Un livreur doit être assigné pour la livraison");
         }
     }
 
     private void gererAnnulation() {
         if (estPaye) {
-            ajouterEvenementHistorique("Remboursement nécessaire");
+            historique.ajouter(HistoriqueCommande.TypeEvenement.REMBOURSEMENT);
         }
     }
 
-    private boolean estTransitionValide(EtatCommande nouvelEtat) {
-        switch (this.etat) {
-            case NOUVELLE:
-                return nouvelEtat == EtatCommande.EN_PREPARATION;
-            case EN_PREPARATION:
-                return nouvelEtat == EtatCommande.PRETE;
-            case PRETE:
-                return nouvelEtat == EtatCommande.EN_LIVRAISON || nouvelEtat == EtatCommande.SERVIE;
-            case EN_LIVRAISON:
-                return nouvelEtat == EtatCommande.LIVREE;
-            default:
-                return nouvelEtat == EtatCommande.ANNULEE;
-        }
-    }
-
-    private void ajouterEvenementHistorique(String evenement) {
-        String timestamp = new Date().toString();
-        historique.add(timestamp + " - " + evenement);
-    }
-
-    // Implémentation du pattern Observer
+    // Implémentation du pattern Observer (diffusion asynchrone via le bus d'événements)
     @Override
     public void ajouterObservateur(Observateur o) {
-        if (!observateurs.contains(o)) {
-            observateurs.add(o);
+        // Le suivi d'une commande ne sert qu'à connaître son dernier état : les notifications
+        // en attente pour une même commande sont fusionnées plutôt que de ralentir l'émetteur
+        BusEvenements bus = BusEvenements.getInstance();
+        bus.configurer(o, BusEvenements.PolitiqueSaturation.FUSIONNER, CAPACITE_SUIVI);
+        bus.abonner(this, o);
+        // Une commande terminée n'est plus suivie : le bus ne doit pas la retenir
+        EtatCommande etatCourant = etat.get();
+        if (etatCourant != null && etatCourant.estFinal()) {
+            bus.desabonner(this, o);
         }
     }
 
     @Override
     public void supprimerObservateur(Observateur o) {
-        observateurs.remove(o);
+        BusEvenements.getInstance().desabonner(this, o);
     }
 
     @Override
     public void notifierObservateurs() {
-        for (Observateur o : observateurs) {
-            o.actualiser(this);
-        }
+        BusEvenements.getInstance().publier(this);
+    }
+
+    // Un changement d'état atteint aussi les abonnés à la transition (cuisines, livreurs)
+    private void notifierTransition(EtatCommande ancienEtat, EtatCommande nouvelEtat) {
+        BusEvenements.getInstance().publierTransition(this, ancienEtat, nouvelEtat);
     }
 
     // Getters
     public double getTotalAvantReductions() {
+        return Montant.enEuros(totalAvantReductions);
+    }
+
+    public long getTotalAvantReductionsCentimes() {
         return totalAvantReductions;
     }
 
     public List<String> getReductionsAppliquees() {
-        return new ArrayList<>(reductionsAppliquees);
+        return MoteurTarification.getInstance().getLibellesReductions(reglesAppliquees);
     }
 
     public String getNumeroCommande() {
@@ -356,14 +459,40 @@ public class Commande implements Sujet {
         return menu;
     }
 
+    public LigneCommande getLigne() {
+        return ligne;
+    }
+
     public EtatCommande getEtat() {
-        return etat;
+        return etat.get();
     }
 
     public double getTotal() {
+        return Montant.enEuros(total);
+    }
+
+    public long getTotalCentimes() {
         return total;
     }
 
+    /**
+     * Horodatage (en millisecondes) de la dernière entrée de la commande dans l'état donné,
+     * ou 0 si elle ne l'a jamais atteint.
+     */
+    public long getHorodatageEtat(EtatCommande etat) {
+        return horodatagesEtats.get(etat.ordinal());
+    }
+
+    /**
+     * Durée entre l'entrée dans le premier état et celle dans le second, en millisecondes,
+     * ou -1 si la commande n'a pas atteint les deux.
+     */
+    public long getDureeEntreEtats(EtatCommande depuis, EtatCommande jusqua) {
+        long debut = getHorodatageEtat(depuis);
+        long fin = getHorodatageEtat(jusqua);
+        return debut == 0 || fin == 0 || fin < debut ? -1 : fin - debut;
+    }
+
     public Date getDateCommande() {
         return dateCommande;
     }
@@ -376,12 +505,16 @@ public class Commande implements Sujet {
         return adresseLivraison;
     }
 
+    public Livreur.Position getPositionLivraison() {
+        return positionLivraison;
+    }
+
     public ModeLivraison getModeLivraison() {
         return modeLivraison;
     }
 
     public Livreur getLivreur() {
-        return livreur;
+        return livreur.get();
     }
 
     public int getNombrePersonnes() {
@@ -401,59 +534,83 @@ public class Commande implements Sujet {
     }
 
     public List<String> getHistorique() {
-        return new ArrayList<>(historique);
-    }
-
-    private double getReductionPourcentage() {
-        if (this.client instanceof Client && ((Client) this.client).estEtudiant()) {
-            return 0.15; // 15% de réduction étudiant
-        }
-        return 0.0;
+        return historique.formater();
     }
 
     // Setters avec validation
-    public void setTotal(double total) {
-        this.total = total;
-        this.totalAvantReductions = total / (1 - getReductionPourcentage());
-    }
-
     public void setAdresseLivraison(String adresseLivraison) {
         if (modeLivraison == ModeLivraison.LIVRAISON &&
                 (adresseLivraison == null || adresseLivraison.trim().isEmpty())) {
             throw new IllegalArgumentException("L'adresse de livraison est requise pour une livraison");
         }
         this.adresseLivraison = adresseLivraison;
-        ajouterEvenementHistorique("Adresse de livraison modifiée: " + adresseLivraison);
+        this.positionLivraison = MatriceDistancesCampus.getInstance().localiser(adresseLivraison);
+        JournalCommandes.journaliserAdresse(this);
+        historique.ajouter(HistoriqueCommande.TypeEvenement.ADRESSE_MODIFIEE, adresseLivraison);
         notifierObservateurs();
     }
 
+    public void setPositionLivraison(Livreur.Position positionLivraison) {
+        this.positionLivraison = positionLivraison;
+    }
+
     public void setMenu(MenuComponent menu) {
-        this.menu = menu;
-        calculerTotal(); // Recalculate total with new menu
+        synchronized (this) {
+            this.menu = menu;
+            this.ligne = LigneCommande.compiler(menu);
+            JournalCommandes.journaliserLigne(this);
+            tarifer();
+        }
+        notifierObservateurs();
     }
 
     public void setLivreur(Livreur livreur) {
         if (modeLivraison == ModeLivraison.LIVRAISON && livreur == null) {
             throw new IllegalArgumentException("Le livreur ne peut pas être null pour une livraison");
         }
-        this.livreur = livreur;
-        ajouterEvenementHistorique("Livreur assigné: " + livreur.getNom());
+        Livreur ancienLivreur = this.livreur.getAndSet(livreur);
+        appliquerAffectation(ancienLivreur, livreur);
+    }
+
+    /**
+     * Attribue la livraison au livreur si aucun autre ne l'a déjà prise.
+     *
+     * @return true si ce livreur a remporté la commande.
+     */
+    public boolean revendiquerLivraison(Livreur livreur) {
+        if (livreur == null) {
+            throw new IllegalArgumentException("Le livreur ne peut pas être null");
+        }
+        if (!this.livreur.compareAndSet(null, livreur)) {
+            return false;
+        }
+        appliquerAffectation(null, livreur);
+        return true;
+    }
+
+    private void appliquerAffectation(Livreur ancienLivreur, Livreur livreur) {
+        OrderRepository.getInstance().mettreAJourLivreur(this, ancienLivreur);
+        JournalCommandes.journaliserLivreur(this);
+        historique.ajouter(HistoriqueCommande.TypeEvenement.LIVREUR_ASSIGNE, livreur.getNom());
         notifierObservateurs();
     }
 
     public void setCommentaires(String commentaires) {
         this.commentaires = commentaires;
-        ajouterEvenementHistorique("Commentaire ajouté: " + commentaires);
+        historique.ajouter(HistoriqueCommande.TypeEvenement.COMMENTAIRE_AJOUTE, commentaires);
     }
 
     public void setEvenement(String evenement) {
+        String ancienEvenement = this.evenement;
         this.evenement = evenement;
-        ajouterEvenementHistorique("Événement défini: " + evenement);
+        OrderRepository.getInstance().mettreAJourEvenement(this, ancienEvenement);
+        JournalCommandes.journaliserEvenement(this);
+        historique.ajouter(HistoriqueCommande.TypeEvenement.EVENEMENT_DEFINI, evenement);
     }
 
     @Override
     public String toString() {
-        return String.format("Commande{numero='%s', client=%s, etat=%s, total=%.2f€, mode=%s}",
-                numeroCommande, client.getNom(), etat.getLibelle(), total, modeLivraison.getLibelle());
+        return String.format("Commande{numero='%s', client=%s, etat=%s, total=%s, mode=%s}",
+                numeroCommande, client.getNom(), etat.get().getLibelle(), Montant.formater(total), modeLivraison.getLibelle());
     }
 }
\ No newline at end of file
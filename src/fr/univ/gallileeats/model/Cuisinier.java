@@ -2,87 +2,97 @@ package fr.univ.gallileeats.model;
 
 import fr.univ.gallileeats.interfaces.Observateur;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Date;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class Cuisinier extends Utilisateur implements Observateur {
-    private List<Commande> commandesEnCours;
-    private List<Commande> historiqueCommandes;
+    private List<OrdonnanceurCuisine.Ticket> lotsEnCours;
+    private final ListeInstantanee<Commande> historiqueCommandes;
     private String specialite;
     private boolean disponible;
-    private int tempsPreparationMoyen;
+    // Durées de préparation (mise en préparation → prête) des commandes terminées par ce cuisinier
+    private final HistogrammeDurees tempsPreparation;
     private double tauxSatisfaction;
     private int commandesPrepareesDuJour;
 
     public Cuisinier(String id, String nom, String email, String motDePasse, String specialite) {
         super(id, nom, email, motDePasse);
-        this.commandesEnCours = new ArrayList<>();
-        this.historiqueCommandes = new ArrayList<>();
+        this.lotsEnCours = new CopyOnWriteArrayList<>();
+        this.historiqueCommandes = new ListeInstantanee<>();
         this.specialite = specialite;
         this.disponible = true;
-        this.tempsPreparationMoyen = 0;
+        this.tempsPreparation = new HistogrammeDurees();
         this.tauxSatisfaction = 100.0;
         this.commandesPrepareesDuJour = 0;
     }
 
     @Override
     public void actualiser(Object source) {
-        if (source instanceof Commande) {
-            Commande commande = (Commande) source;
-
-            // Le cuisinier observe les nouvelles commandes et celles en préparation
-            if (commande.getEtat() == EtatCommande.NOUVELLE ||
-                    commande.getEtat() == EtatCommande.EN_PREPARATION) {
-                if (!commandesEnCours.contains(commande)) {
-                    commandesEnCours.add(commande);
-                    String message = String.format(
-                            "Nouvelle commande à préparer : %s\nClient : %s",
-                            commande.getNumeroCommande(),
-                            commande.getClient().getNom()
-                    );
-                    this.ajouterNotification(message);
-                }
-            } else if (commande.getEtat() == EtatCommande.PRETE) {
-                commandesEnCours.remove(commande);
-                historiqueCommandes.add(commande);
-                commandesPrepareesDuJour++;
-            }
-        }
+        // Les commandes arrivent regroupées en lots par l'ordonnanceur de la cuisine
+        OrdonnanceurCuisine.getInstance().actualiser(source);
     }
 
-    public List<Commande> getCommandesEnAttente() {
-        return commandesEnCours.stream()
-                .filter(c -> c.getEtat() == EtatCommande.NOUVELLE)
-                .collect(Collectors.toList());
+    /**
+     * Inscrit le cuisinier auprès de l'ordonnanceur de la cuisine, qui lui attribue des tickets.
+     */
+    public void prendreService() {
+        OrdonnanceurCuisine.getInstance().inscrire(this);
     }
 
-    public List<Commande> getCommandesEnPreparation() {
-        return commandesEnCours.stream()
-                .filter(c -> c.getEtat() == EtatCommande.EN_PREPARATION)
-                .collect(Collectors.toList());
+    public void quitterService() {
+        OrdonnanceurCuisine.getInstance().retirer(this);
     }
 
-    private void calculerTempsPreparationMoyen(Commande commande) {
-        if (historiqueCommandes.isEmpty()) {
-            tempsPreparationMoyen = 0;
-            return;
-        }
+    // Appelées par l'ordonnanceur
+    void commencerPreparation(OrdonnanceurCuisine.Ticket ticket) {
+        lotsEnCours.add(ticket);
+    }
 
-        long tempsTotal = 0;
-        int nombreCommandes = 0;
+    boolean terminerPreparation(OrdonnanceurCuisine.Ticket ticket) {
+        return lotsEnCours.remove(ticket);
+    }
 
-        for (Commande cmd : historiqueCommandes) {
-            if (cmd.getDateCommande() != null) {
-                long duree = new Date().getTime() - cmd.getDateCommande().getTime();
-                tempsTotal += duree / (1000 * 60); // Conversion en minutes
-                nombreCommandes++;
-            }
+    void enregistrerCommandePrete(Commande commande) {
+        historiqueCommandes.ajouter(commande);
+        commandesPrepareesDuJour++;
+        long duree = commande.getDureeEntreEtats(EtatCommande.EN_PREPARATION, EtatCommande.PRETE);
+        if (duree >= 0) {
+            tempsPreparation.enregistrer(duree);
         }
+    }
+
+    // Lots de la file de ce cuisinier, par priorité décroissante
+    public List<OrdonnanceurCuisine.Ticket> getLotsEnAttente() {
+        return OrdonnanceurCuisine.getInstance().getTicketsEnAttente(this);
+    }
 
-        if (nombreCommandes > 0) {
-            tempsPreparationMoyen = (int) (tempsTotal / nombreCommandes);
+    public List<OrdonnanceurCuisine.Ticket> getLotsEnCours() {
+        return new ArrayList<>(lotsEnCours);
+    }
+
+    // Commandes concernées par les lots de la file de ce cuisinier
+    public List<Commande> getCommandesEnAttente() {
+        return commandesDesLots(getLotsEnAttente());
+    }
+
+    public List<Commande> getCommandesEnPreparation() {
+        return commandesDesLots(lotsEnCours);
+    }
+
+    private static List<Commande> commandesDesLots(List<OrdonnanceurCuisine.Ticket> tickets) {
+        Set<Commande> commandes = new LinkedHashSet<>();
+        for (OrdonnanceurCuisine.Ticket ticket : tickets) {
+            LotProduction lot = ticket.getLot();
+            for (int i = 0; i < lot.getNombreCommandes(); i++) {
+                EtatCommande etat = lot.getCommande(i).getEtat();
+                if (etat == EtatCommande.NOUVELLE || etat == EtatCommande.EN_PREPARATION) {
+                    commandes.add(lot.getCommande(i));
+                }
+            }
         }
+        return new ArrayList<>(commandes);
     }
 
     public void ajouterEvaluation(int note) {
@@ -90,8 +100,8 @@ public class Cuisinier extends Utilisateur implements Observateur {
             throw new IllegalArgumentException("La note doit être entre 1 et 5");
         }
         // Mise à jour du taux de satisfaction (moyenne pondérée)
-        tauxSatisfaction = (tauxSatisfaction * historiqueCommandes.size() + note * 20) /
-                (historiqueCommandes.size() + 1);
+        tauxSatisfaction = (tauxSatisfaction * historiqueCommandes.taille() + note * 20) /
+                (historiqueCommandes.taille() + 1);
     }
 
     // Getters
@@ -103,8 +113,13 @@ public class Cuisinier extends Utilisateur implements Observateur {
         return disponible;
     }
 
+    // En minutes
     public int getTempsPreparationMoyen() {
-        return tempsPreparationMoyen;
+        return (int) Math.round(tempsPreparation.getMoyenneMs() / 60_000);
+    }
+
+    public HistogrammeDurees getTempsPreparation() {
+        return tempsPreparation;
     }
 
     public double getTauxSatisfaction() {
@@ -116,7 +131,7 @@ public class Cuisinier extends Utilisateur implements Observateur {
     }
 
     public List<Commande> getHistoriqueCommandes() {
-        return new ArrayList<>(historiqueCommandes);
+        return historiqueCommandes.instantane();
     }
 
     public void setDisponible(boolean disponible) {
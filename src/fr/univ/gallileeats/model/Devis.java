@@ -0,0 +1,81 @@
+package fr.univ.gallileeats.model;
+
+/**
+ * Paramètres et résultat d'une tarification par le {@link MoteurTarification}.
+ * Un devis est réutilisable : son propriétaire (une commande, un buffet) le remplit
+ * à chaque recalcul, ce qui évite toute allocation lors de l'évaluation des règles.
+ */
+public final class Devis {
+    // Paramètres
+    private MoteurTarification.Cible cible;
+    private long montant; // En centimes
+    private int nombrePersonnes;
+    private Commande.ModeLivraison modeLivraison;
+    private boolean etudiant;
+    private String role;
+    private boolean buffetComplet;
+    private String menu;
+    private int minuteDuJour;
+
+    // Résultat
+    private long total; // En centimes
+    private long reglesAppliquees;
+
+    public Devis(MoteurTarification.Cible cible) {
+        if (cible == null) {
+            throw new IllegalArgumentException("La cible du devis est requise");
+        }
+        this.cible = cible;
+        this.nombrePersonnes = 1;
+    }
+
+    public void setMontant(long montant) {
+        this.montant = montant;
+    }
+
+    public void setNombrePersonnes(int nombrePersonnes) {
+        this.nombrePersonnes = nombrePersonnes;
+    }
+
+    public void setModeLivraison(Commande.ModeLivraison modeLivraison) {
+        this.modeLivraison = modeLivraison;
+    }
+
+    public void setClient(Utilisateur client) {
+        this.etudiant = client instanceof Client && ((Client) client).estEtudiant();
+        this.role = client == null ? null : client.getRole();
+    }
+
+    public void setBuffetComplet(boolean buffetComplet) {
+        this.buffetComplet = buffetComplet;
+    }
+
+    // Nom du menu ou du buffet tarifé
+    public void setMenu(String menu) {
+        this.menu = menu;
+    }
+
+    public void setMinuteDuJour(int minuteDuJour) {
+        this.minuteDuJour = minuteDuJour;
+    }
+
+    void setResultat(long total, long reglesAppliquees) {
+        this.total = total;
+        this.reglesAppliquees = reglesAppliquees;
+    }
+
+    public MoteurTarification.Cible getCible() { return cible; }
+    public long getMontant() { return montant; }
+    public int getNombrePersonnes() { return nombrePersonnes; }
+    public Commande.ModeLivraison getModeLivraison() { return modeLivraison; }
+    public boolean estEtudiant() { return etudiant; }
+    public String getRole() { return role; }
+    public boolean estBuffetComplet() { return buffetComplet; }
+    public String getMenu() { return menu; }
+    public int getMinuteDuJour() { return minuteDuJour; }
+
+    public long getTotal() { return total; }
+
+    // Une règle d'index i du moteur est appliquée si le bit i est positionné
+    public long getReglesAppliquees() { return reglesAppliquees; }
+}
@@ -0,0 +1,178 @@
+package fr.univ.gallileeats.model;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+/**
+ * Estimation en ligne de la durée d'une livraison, de l'affectation au livreur jusqu'à la
+ * remise au client, apprise à partir des livraisons terminées.
+ * Le modèle est une régression linéaire mise à jour à chaque livraison par moindres carrés
+ * récursifs (avec oubli progressif des plus anciennes) : aucune livraison passée n'est relue
+ * et une prédiction se réduit à un produit scalaire. Tant qu'il n'a rien appris, il renvoie
+ * la durée de trajet de la tournée planifiée.
+ * Les caractéristiques d'une livraison sont la durée de trajet planifiée, la distance, le
+ * nombre d'arrêts qui la précèdent, l'heure de la journée et le véhicule.
+ * Les prédictions servent à l'affichage des délais et au répartiteur, qui classe les
+ * livreurs candidats selon la durée prédite de la livraison.
+ */
+public class EstimateurDelais {
+    // Constante, trajet planifié, distance, arrêts avant, heure (sinus, cosinus), vélo, scooter, voiture
+    static final int NOMBRE_CARACTERISTIQUES = 9;
+    private static final double OUBLI = 0.999;
+    private static final double INCERTITUDE_INITIALE = 10.0;
+    // Écart maximal retenu entre durée observée et prédite : une livraison validée très
+    // tardivement ne doit pas fausser le modèle
+    private static final double ECART_MAX_MINUTES = 60.0;
+
+    private static volatile EstimateurDelais instance;
+    private static final Object verrou = new Object();
+
+    // Coefficients publiés, remplacés à chaque apprentissage : les lectures se font sans verrou
+    private volatile double[] coefficients;
+    // État de l'apprentissage, protégé par le verrou de l'instance
+    private final double[] theta;
+    private final double[][] covariance;
+    private long nombreObservations;
+    private double erreurAbsolueMoyenne;
+
+    EstimateurDelais() {
+        theta = new double[NOMBRE_CARACTERISTIQUES];
+        theta[1] = 1.0;
+        covariance = new double[NOMBRE_CARACTERISTIQUES][NOMBRE_CARACTERISTIQUES];
+        for (int i = 0; i < NOMBRE_CARACTERISTIQUES; i++) {
+            covariance[i][i] = INCERTITUDE_INITIALE;
+        }
+        coefficients = theta.clone();
+    }
+
+    public static EstimateurDelais getInstance() {
+        if (instance == null) {
+            synchronized (verrou) {
+                if (instance == null) {
+                    instance = new EstimateurDelais();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Caractéristiques d'une livraison au moment de son affectation.
+     *
+     * @param trajetMinutes Durée de trajet planifiée jusqu'à l'arrêt.
+     * @param distanceKm Distance parcourue depuis le point de retrait jusqu'à l'arrêt.
+     * @param arretsAvant Nombre d'arrêts de la tournée qui précèdent celui-ci.
+     * @param minuteDuJour Minute de la journée, de 0 à 1439.
+     */
+    public static double[] caracteristiques(double trajetMinutes, double distanceKm, int arretsAvant,
+                                            int minuteDuJour, String vehicule) {
+        double angle = 2 * Math.PI * minuteDuJour / (24 * 60);
+        String type = vehicule == null ? "" : vehicule.toLowerCase();
+        return new double[] {
+                1.0,
+                trajetMinutes,
+                distanceKm,
+                arretsAvant,
+                Math.sin(angle),
+                Math.cos(angle),
+                type.equals("velo") || type.equals("vélo") ? 1.0 : 0.0,
+                type.equals("scooter") ? 1.0 : 0.0,
+                type.equals("voiture") ? 1.0 : 0.0
+        };
+    }
+
+    static int minuteDuJour(long horodatage) {
+        LocalTime heure = Instant.ofEpochMilli(horodatage).atZone(ZoneId.systemDefault()).toLocalTime();
+        return heure.getHour() * 60 + heure.getMinute();
+    }
+
+    /**
+     * Minutes restantes avant la livraison estimée d'une commande à livrer : celle de son
+     * livreur, ou, sans livreur, celle d'un trajet direct depuis le point de retrait.
+     *
+     * @return -1 si la commande n'est pas à livrer.
+     */
+    public int estimerMinutes(Commande commande) {
+        if (commande.getModeLivraison() != Commande.ModeLivraison.LIVRAISON) {
+            return -1;
+        }
+        Livreur livreur = commande.getLivreur();
+        if (livreur != null) {
+            return livreur.getEtaMinutes(commande);
+        }
+        Livreur.Position depart = RepartiteurLivraisons.POINT_RETRAIT;
+        Livreur.Position arrivee = commande.getPositionLivraison() != null ? commande.getPositionLivraison() : depart;
+        MatriceDistancesCampus matrice = MatriceDistancesCampus.getInstance();
+        double[] x = caracteristiques(matrice.dureeMinutes(depart, arrivee, Livreur.vitesseKmh(null)),
+                matrice.distanceKm(depart, arrivee), 0, minuteDuJour(System.currentTimeMillis()), null);
+        return (int) Math.ceil(estimerMinutes(x));
+    }
+
+    /**
+     * Durée estimée de la livraison, en minutes depuis l'affectation.
+     */
+    public double estimerMinutes(double[] caracteristiques) {
+        double[] c = coefficients;
+        double estimation = 0;
+        for (int i = 0; i < NOMBRE_CARACTERISTIQUES; i++) {
+            estimation += c[i] * caracteristiques[i];
+        }
+        return Math.max(0, estimation);
+    }
+
+    /**
+     * Intègre une livraison terminée au modèle.
+     */
+    public synchronized void apprendre(double[] x, double dureeMinutes) {
+        if (x.length != NOMBRE_CARACTERISTIQUES || dureeMinutes < 0) {
+            throw new IllegalArgumentException("Observation de livraison invalide");
+        }
+        int n = NOMBRE_CARACTERISTIQUES;
+        double[] px = new double[n];
+        double denominateur = OUBLI;
+        double prediction = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                px[i] += covariance[i][j] * x[j];
+            }
+            denominateur += x[i] * px[i];
+            prediction += theta[i] * x[i];
+        }
+        double ecart = Math.max(-ECART_MAX_MINUTES, Math.min(ECART_MAX_MINUTES, dureeMinutes - prediction));
+        for (int i = 0; i < n; i++) {
+            theta[i] += px[i] / denominateur * ecart;
+        }
+        // P = (P - P x xᵀ P / (λ + xᵀ P x)) / λ ; P est symétrique
+        double trace = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                covariance[i][j] -= px[i] * px[j] / denominateur;
+            }
+            trace += covariance[i][i];
+        }
+        // L'oubli est suspendu quand l'incertitude dépasse celle du départ : sans cela, les
+        // caractéristiques qui varient peu (le véhicule d'un même livreur) la feraient exploser
+        if (trace / OUBLI <= n * INCERTITUDE_INITIALE) {
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    covariance[i][j] /= OUBLI;
+                }
+            }
+        }
+        nombreObservations++;
+        erreurAbsolueMoyenne += (Math.abs(dureeMinutes - prediction) - erreurAbsolueMoyenne) / Math.min(nombreObservations, 100);
+        coefficients = theta.clone();
+    }
+
+    public synchronized long getNombreObservations() {
+        return nombreObservations;
+    }
+
+    /**
+     * Erreur absolue moyenne des dernières prédictions (environ 100), en minutes.
+     */
+    public synchronized double getErreurAbsolueMoyenne() {
+        return erreurAbsolueMoyenne;
+    }
+}
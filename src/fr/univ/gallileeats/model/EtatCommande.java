@@ -45,6 +45,19 @@ public enum EtatCommande {
         }
     };
 
+    // Matrice des transitions autorisées, précalculée : TRANSITIONS[depart][arrivee]
+    private static final boolean[][] TRANSITIONS;
+
+    static {
+        EtatCommande[] etats = values();
+        TRANSITIONS = new boolean[etats.length][etats.length];
+        for (EtatCommande depart : etats) {
+            for (EtatCommande arrivee : etats) {
+                TRANSITIONS[depart.ordinal()][arrivee.ordinal()] = depart.peutPasserA(arrivee);
+            }
+        }
+    }
+
     private final String libelle;
     private final String description;
 
@@ -55,6 +68,20 @@ public enum EtatCommande {
 
     public abstract boolean peutPasserA(EtatCommande nouvelEtat);
 
+    /**
+     * Indique si une commande peut passer de l'état de départ à l'état d'arrivée.
+     * Une commande sans état (null) peut prendre n'importe quel état initial.
+     */
+    public static boolean estTransitionAutorisee(EtatCommande depart, EtatCommande arrivee) {
+        return arrivee != null && (depart == null || TRANSITIONS[depart.ordinal()][arrivee.ordinal()]);
+    }
+
+    // Fin du parcours de la commande : livrée, servie ou annulée (une livraison peut
+    // encore être annulée, mais la commande n'est plus suivie)
+    public boolean estFinal() {
+        return this == LIVREE || this == SERVIE || this == ANNULEE;
+    }
+
     public String getLibelle() { return libelle; }
     public String getDescription() { return description; }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package fr.univ.gallileeats.model;
+
+/**
+ * Notification diffusée par le {@link BusEvenements} : la commande et son état au moment
+ * de la publication. Les abonnés sont notifiés de façon asynchrone ; ils lisent cet état
+ * plutôt que l'état courant de la commande, qui a pu avancer depuis.
+ */
+public final class EvenementCommande {
+    private final Commande commande;
+    private final EtatCommande ancienEtat;
+    private final EtatCommande etat;
+    private final boolean transition;
+
+    EvenementCommande(Commande commande, EtatCommande ancienEtat, EtatCommande etat, boolean transition) {
+        this.commande = commande;
+        this.ancienEtat = ancienEtat;
+        this.etat = etat;
+        this.transition = transition;
+    }
+
+    public Commande getCommande() {
+        return commande;
+    }
+
+    // État quitté par la transition, ou null pour une simple mise à jour de la commande
+    public EtatCommande getAncienEtat() {
+        return ancienEtat;
+    }
+
+    public EtatCommande getEtat() {
+        return etat;
+    }
+
+    public boolean estTransition() {
+        return transition;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Evenement[%s, %s]", commande.getNumeroCommande(), etat);
+    }
+}
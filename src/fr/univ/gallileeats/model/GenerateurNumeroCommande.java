@@ -0,0 +1,127 @@
+package fr.univ.gallileeats.model;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Générateur de numéros de commande uniques, sans verrou.
+ * Chaque numéro combine l'identifiant du nœud (propriété système
+ * {@code galileeats.noeud}, de 0 à 99) et une valeur croissante construite
+ * à partir de l'horloge en millisecondes et d'une séquence par milliseconde.
+ * Les numéros sont donc strictement croissants sur un nœud et ne peuvent pas
+ * entrer en collision entre plusieurs JVM ayant des identifiants différents.
+ * Sans la propriété, l'identifiant est dérivé du nom de la machine et du numéro de
+ * processus : deux JVM distinctes obtiennent alors presque toujours des nœuds différents,
+ * mais seul un identifiant configuré le garantit.
+ */
+public class GenerateurNumeroCommande {
+    private static final String PREFIXE = "CMD";
+    private static final String PROPRIETE_NOEUD = "galileeats.noeud";
+    private static final int NOEUD_MAX = 99;
+
+    // 1er janvier 2024 en millisecondes depuis l'époque Unix
+    private static final long EPOQUE = 1704067200000L;
+    private static final int BITS_SEQUENCE = 12;
+    private static final int LONGUEUR_VALEUR = 10;
+    private static final char[] CHIFFRES = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    private static volatile GenerateurNumeroCommande instance;
+    private static final Object verrou = new Object();
+
+    private final int noeud;
+    private final boolean noeudDerive;
+    private final AtomicLong derniereValeur;
+
+    public GenerateurNumeroCommande(int noeud) {
+        this(noeud, false);
+    }
+
+    private GenerateurNumeroCommande(int noeud, boolean noeudDerive) {
+        if (noeud < 0 || noeud > NOEUD_MAX) {
+            throw new IllegalArgumentException("L'identifiant de nœud doit être entre 0 et " + NOEUD_MAX);
+        }
+        this.noeud = noeud;
+        this.noeudDerive = noeudDerive;
+        this.derniereValeur = new AtomicLong(0);
+    }
+
+    public static GenerateurNumeroCommande getInstance() {
+        if (instance == null) {
+            synchronized (verrou) {
+                if (instance == null) {
+                    String valeur = System.getProperty(PROPRIETE_NOEUD);
+                    instance = valeur == null || valeur.trim().isEmpty()
+                            ? new GenerateurNumeroCommande(deriverNoeud(), true)
+                            : new GenerateurNumeroCommande(lireNoeud(valeur));
+                }
+            }
+        }
+        return instance;
+    }
+
+    private static int lireNoeud(String valeur) {
+        try {
+            return Integer.parseInt(valeur.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Identifiant de nœud invalide: " + valeur);
+        }
+    }
+
+    private static int deriverNoeud() {
+        String machine;
+        try {
+            machine = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            machine = "";
+        }
+        long empreinte = 31L * machine.hashCode() + ProcessHandle.current().pid();
+        return (int) Math.floorMod(empreinte, (long) NOEUD_MAX + 1);
+    }
+
+    /**
+     * Retourne la prochaine valeur brute : (millisecondes depuis l'époque << 12) + séquence.
+     * Si la séquence d'une milliseconde est épuisée, la valeur empiète sur la milliseconde
+     * suivante, ce qui préserve la monotonie sans jamais bloquer.
+     */
+    public long prochaineValeur() {
+        long base = (System.currentTimeMillis() - EPOQUE) << BITS_SEQUENCE;
+        while (true) {
+            long derniere = derniereValeur.get();
+            long suivante = Math.max(base, derniere + 1);
+            if (derniereValeur.compareAndSet(derniere, suivante)) {
+                return suivante;
+            }
+        }
+    }
+
+    public String prochainNumero() {
+        return formater(prochaineValeur());
+    }
+
+    /**
+     * Formate une valeur en numéro de commande de longueur fixe
+     * ("CMD" + nœud sur 2 chiffres + valeur en base 36 sur 10 caractères),
+     * sans passer par {@link String#format}.
+     */
+    String formater(long valeur) {
+        char[] numero = new char[PREFIXE.length() + 2 + LONGUEUR_VALEUR];
+        PREFIXE.getChars(0, PREFIXE.length(), numero, 0);
+        numero[PREFIXE.length()] = CHIFFRES[noeud / 10];
+        numero[PREFIXE.length() + 1] = CHIFFRES[noeud % 10];
+        for (int i = numero.length - 1; i >= PREFIXE.length() + 2; i--) {
+            numero[i] = CHIFFRES[(int) (valeur % 36)];
+            valeur /= 36;
+        }
+        return new String(numero);
+    }
+
+    public int getNoeud() {
+        return noeud;
+    }
+
+    // Vrai si le nœud n'est pas configuré mais dérivé de la machine et du processus
+    public boolean estNoeudDerive() {
+        return noeudDerive;
+    }
+}
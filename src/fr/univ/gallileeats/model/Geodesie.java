@@ -0,0 +1,40 @@
+package fr.univ.gallileeats.model;
+
+/**
+ * Distances entre coordonnées géographiques, en kilomètres.
+ * La formule de haversine donne la distance sur la sphère terrestre ; l'approximation
+ * équirectangulaire, bien moins coûteuse, reste précise à l'échelle d'un campus.
+ */
+public final class Geodesie {
+    public static final double RAYON_TERRE_KM = 6371.0088;
+    public static final double KM_PAR_DEGRE = RAYON_TERRE_KM * Math.PI / 180;
+
+    private Geodesie() {
+    }
+
+    public static double haversineKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double phi1 = Math.toRadians(latitude1);
+        double phi2 = Math.toRadians(latitude2);
+        double sinDemiDeltaPhi = Math.sin((phi2 - phi1) / 2);
+        double sinDemiDeltaLambda = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        double a = sinDemiDeltaPhi * sinDemiDeltaPhi
+                + Math.cos(phi1) * Math.cos(phi2) * sinDemiDeltaLambda * sinDemiDeltaLambda;
+        return 2 * RAYON_TERRE_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Approximation équirectangulaire, avec le cosinus de la latitude de référence déjà calculé
+     * (celui d'un point fixe, pour comparer de nombreux points à ce dernier).
+     */
+    public static double equirectangulaireKm(double latitude1, double longitude1, double latitude2,
+                                             double longitude2, double cosinusLatitude) {
+        double dx = (longitude2 - longitude1) * cosinusLatitude;
+        double dy = latitude2 - latitude1;
+        return Math.sqrt(dx * dx + dy * dy) * KM_PAR_DEGRE;
+    }
+
+    public static double equirectangulaireKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        return equirectangulaireKm(latitude1, longitude1, latitude2, longitude2,
+                Math.cos(Math.toRadians((latitude1 + latitude2) / 2)));
+    }
+}
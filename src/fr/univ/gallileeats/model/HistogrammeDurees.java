@@ -0,0 +1,105 @@
+package fr.univ.gallileeats.model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution de durées mise à jour au fil de l'eau, sans conserver les mesures.
+ * Les durées sont comptées dans des classes logarithmiques : chaque puissance de deux est
+ * découpée en 16 classes, ce qui borne l'erreur relative des centiles à environ 3 %.
+ * L'enregistrement est en temps constant et peut être appelé par plusieurs threads ; la
+ * lecture d'un centile parcourt un nombre fixe de classes.
+ */
+public class HistogrammeDurees {
+    private static final int BITS_PRECISION = 4;
+    private static final int SOUS_CLASSES = 1 << BITS_PRECISION;
+    // Au-delà (environ 24 jours), les durées sont comptées dans la dernière classe
+    private static final long DUREE_MAX_MS = (1L << 31) - 1;
+    private static final int NOMBRE_CLASSES = classe(DUREE_MAX_MS) + 1;
+
+    private final AtomicLongArray comptes;
+    private final LongAdder nombre;
+    private final LongAdder totalMs;
+    private final LongAccumulator maxMs;
+
+    public HistogrammeDurees() {
+        this.comptes = new AtomicLongArray(NOMBRE_CLASSES);
+        this.nombre = new LongAdder();
+        this.totalMs = new LongAdder();
+        this.maxMs = new LongAccumulator(Math::max, 0);
+    }
+
+    public void enregistrer(long dureeMs) {
+        if (dureeMs < 0) {
+            throw new IllegalArgumentException("La durée ne peut pas être négative");
+        }
+        long duree = Math.min(dureeMs, DUREE_MAX_MS);
+        comptes.incrementAndGet(classe(duree));
+        nombre.increment();
+        totalMs.add(duree);
+        maxMs.accumulate(duree);
+    }
+
+    public long getNombre() {
+        return nombre.sum();
+    }
+
+    public double getMoyenneMs() {
+        long n = nombre.sum();
+        return n == 0 ? 0 : (double) totalMs.sum() / n;
+    }
+
+    public long getMaxMs() {
+        return maxMs.get();
+    }
+
+    /**
+     * Durée sous laquelle se trouve la fraction donnée des mesures (0,5 pour la médiane),
+     * au milieu de sa classe.
+     *
+     * @return 0 si aucune durée n'a été enregistrée.
+     */
+    public long centileMs(double fraction) {
+        if (!(fraction >= 0 && fraction <= 1)) {
+            throw new IllegalArgumentException("La fraction doit être comprise entre 0 et 1");
+        }
+        long[] copie = new long[NOMBRE_CLASSES];
+        long total = 0;
+        for (int i = 0; i < NOMBRE_CLASSES; i++) {
+            copie[i] = comptes.get(i);
+            total += copie[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rang = Math.max(1, (long) Math.ceil(fraction * total));
+        long cumul = 0;
+        for (int i = 0; i < NOMBRE_CLASSES; i++) {
+            cumul += copie[i];
+            if (cumul >= rang) {
+                return Math.min(milieu(i), getMaxMs());
+            }
+        }
+        return getMaxMs();
+    }
+
+    // Les 2 × 16 premières durées ont chacune leur classe ; ensuite, 16 classes par puissance de deux
+    private static int classe(long duree) {
+        if (duree < 2 * SOUS_CLASSES) {
+            return (int) duree;
+        }
+        int decalage = 63 - Long.numberOfLeadingZeros(duree) - BITS_PRECISION;
+        return decalage * SOUS_CLASSES + (int) (duree >>> decalage);
+    }
+
+    private static long milieu(int classe) {
+        if (classe < 2 * SOUS_CLASSES) {
+            return classe;
+        }
+        int decalage = classe / SOUS_CLASSES - 1;
+        long mantisse = classe - (long) decalage * SOUS_CLASSES;
+        long debut = mantisse << decalage;
+        return debut + ((1L << decalage) - 1) / 2;
+    }
+}
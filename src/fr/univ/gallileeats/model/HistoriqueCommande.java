@@ -0,0 +1,160 @@
+package fr.univ.gallileeats.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Historique compact d'une commande.
+ * Chaque événement est stocké sous forme structurée (code, horodatage en millisecondes,
+ * identifiant de donnée) dans des tableaux parallèles bornés à 64 événements.
+ * Les 8 premiers (création, paiement, état initial...) sont conservés ; au-delà, les suivants
+ * forment un tampon circulaire où le plus ancien est écrasé, et le nombre d'événements
+ * écrasés apparaît dans l'historique affiché.
+ * Le texte n'est construit que lors de l'affichage, par {@link #formater()}, puis conservé
+ * (liste immuable) jusqu'au prochain événement.
+ * Les accès sont synchronisés, les transitions pouvant venir de plusieurs threads.
+ */
+class HistoriqueCommande {
+    private static final int CAPACITE_INITIALE = 4;
+    private static final int CAPACITE_MAX = 64;
+    private static final int EPINGLES = 8;
+    private static final int SANS_DONNEE = -1;
+
+    enum TypeEvenement {
+        CREATION("Commande créée"),
+        METHODE_PAIEMENT("Méthode de paiement définie: "),
+        PAIEMENT_EFFECTUE("Paiement effectué avec succès"),
+        PAIEMENT_ECHOUE("Échec du paiement: "),
+        FRAIS_AJOUTES("Frais ajoutés: "),
+        TOTAL_RECALCULE("Total recalculé après une modification du catalogue"),
+        ETAT_INITIAL("État initial: "),
+        ETAT_CHANGE("État changé: "),
+        ETAT_RESTAURE("État restauré: "),
+        ANNULATION("Commande annulée: "),
+        REMBOURSEMENT("Remboursement nécessaire"),
+        ADRESSE_MODIFIEE("Adresse de livraison modifiée: "),
+        LIVREUR_ASSIGNE("Livreur assigné: "),
+        COMMENTAIRE_AJOUTE("Commentaire ajouté: "),
+        EVENEMENT_DEFINI("Événement défini: ");
+
+        private final String libelle;
+
+        TypeEvenement(String libelle) {
+            this.libelle = libelle;
+        }
+    }
+
+    private static final TypeEvenement[] TYPES = TypeEvenement.values();
+    private static final EtatCommande[] ETATS = EtatCommande.values();
+
+    private byte[] codes;
+    private long[] horodatages;
+    private int[] donnees;
+    // Texte associé à l'événement (référence existante, jamais concaténée)
+    private String[] textes;
+    // Position du plus ancien événement non épinglé (tournant une fois le tampon plein)
+    private int debut;
+    private int taille;
+    private long omis;
+    // Dernier texte construit, null si un événement a été ajouté depuis
+    private List<String> lignes;
+
+    HistoriqueCommande() {
+        this.codes = new byte[CAPACITE_INITIALE];
+        this.horodatages = new long[CAPACITE_INITIALE];
+        this.donnees = new int[CAPACITE_INITIALE];
+        this.textes = new String[CAPACITE_INITIALE];
+        this.debut = EPINGLES;
+    }
+
+    void ajouter(TypeEvenement type) {
+        enregistrer(type, SANS_DONNEE, null);
+    }
+
+    void ajouter(TypeEvenement type, EtatCommande etat) {
+        enregistrer(type, etat.ordinal(), null);
+    }
+
+    void ajouter(TypeEvenement type, String texte) {
+        enregistrer(type, SANS_DONNEE, texte);
+    }
+
+    private synchronized void enregistrer(TypeEvenement type, int donnee, String texte) {
+        if (taille == codes.length && codes.length < CAPACITE_MAX) {
+            agrandir();
+        }
+        int index;
+        if (taille == codes.length) {
+            // Tampon plein : le plus ancien événement non épinglé est écrasé
+            index = debut;
+            debut = EPINGLES + (debut - EPINGLES + 1) % (CAPACITE_MAX - EPINGLES);
+            omis++;
+        } else {
+            index = taille++;
+        }
+        codes[index] = (byte) type.ordinal();
+        horodatages[index] = System.currentTimeMillis();
+        donnees[index] = donnee;
+        textes[index] = texte;
+        lignes = null;
+    }
+
+    // Tant que le tampon n'est pas plein, les événements sont rangés dans l'ordre
+    private void agrandir() {
+        int capacite = Math.min(codes.length * 2, CAPACITE_MAX);
+        codes = Arrays.copyOf(codes, capacite);
+        horodatages = Arrays.copyOf(horodatages, capacite);
+        donnees = Arrays.copyOf(donnees, capacite);
+        textes = Arrays.copyOf(textes, capacite);
+    }
+
+    // Position du i-ème événement, du plus ancien au plus récent
+    private int position(int i) {
+        if (i < EPINGLES) {
+            return i;
+        }
+        return EPINGLES + (debut - EPINGLES + i - EPINGLES) % (codes.length - EPINGLES);
+    }
+
+    synchronized int getTaille() {
+        return taille;
+    }
+
+    // Événements écrasés faute de place
+    synchronized long getNombreOmis() {
+        return omis;
+    }
+
+    /**
+     * Construit la représentation textuelle de l'historique, du plus ancien au plus récent,
+     * au format "date - événement" ; une ligne signale les événements écrasés.
+     */
+    synchronized List<String> formater() {
+        if (lignes != null) {
+            return lignes;
+        }
+        List<String> lignes = new ArrayList<>(taille + 1);
+        for (int i = 0; i < taille; i++) {
+            if (i == EPINGLES && omis > 0) {
+                lignes.add("... " + omis + " événement(s) plus ancien(s) non conservé(s)");
+            }
+            int index = position(i);
+            TypeEvenement type = TYPES[codes[index]];
+            StringBuilder ligne = new StringBuilder(64)
+                    .append(new Date(horodatages[index]))
+                    .append(" - ")
+                    .append(type.libelle);
+            if (donnees[index] != SANS_DONNEE) {
+                ligne.append(ETATS[donnees[index]].getLibelle());
+            } else if (textes[index] != null) {
+                ligne.append(textes[index]);
+            }
+            lignes.add(ligne.toString());
+        }
+        this.lignes = Collections.unmodifiableList(lignes);
+        return this.lignes;
+    }
+}
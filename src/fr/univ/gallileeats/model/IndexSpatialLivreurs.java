@@ -0,0 +1,239 @@
+package fr.univ.gallileeats.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Index des livreurs en service par position et par zone.
+ * Les positions sont rangées dans une grille uniforme de cellules carrées ; la recherche
+ * des k plus proches parcourt les anneaux de cellules autour du point demandé et s'arrête
+ * dès qu'aucune cellule non visitée ne peut contenir un livreur plus proche que le k-ième
+ * trouvé. Seules les cellules proches sont donc examinées, quel que soit le nombre de livreurs.
+ * Les distances y sont équirectangulaires, autour de la latitude du point demandé.
+ */
+public class IndexSpatialLivreurs {
+    private final double tailleCellule;
+    private final Map<Long, List<Livreur>> cellules;
+    private final Map<Livreur, Long> celluleDe;
+    private final Map<String, Set<Livreur>> parZone;
+
+    // Cellules extrêmes déjà occupées : bornent la recherche quand les livreurs sont rares
+    private int xMin = Integer.MAX_VALUE;
+    private int xMax = Integer.MIN_VALUE;
+    private int yMin = Integer.MAX_VALUE;
+    private int yMax = Integer.MIN_VALUE;
+
+    // Les k meilleurs livreurs rencontrés, triés par distance croissante
+    private static final class Candidats {
+        private final Livreur[] trouves;
+        private final double[] distances;
+        private final double latitude;
+        private final double longitude;
+        private final double cosinus;
+        private final Predicate<Livreur> filtre;
+        private int nombre;
+
+        Candidats(int k, double latitude, double longitude, double cosinus, Predicate<Livreur> filtre) {
+            this.trouves = new Livreur[k];
+            this.distances = new double[k];
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cosinus = cosinus;
+            this.filtre = filtre;
+        }
+
+        void examiner(List<Livreur> cellule) {
+            int k = trouves.length;
+            for (Livreur livreur : cellule) {
+                if (filtre != null && !filtre.test(livreur)) {
+                    continue;
+                }
+                Livreur.Position autre = livreur.getPositionActuelle();
+                double distance = Geodesie.equirectangulaireKm(latitude, longitude,
+                        autre.getLatitude(), autre.getLongitude(), cosinus);
+                if (nombre == k && distance >= distances[k - 1]) {
+                    continue;
+                }
+                // Insertion triée : k est petit
+                int i = nombre == k ? k - 1 : nombre++;
+                while (i > 0 && distances[i - 1] > distance) {
+                    distances[i] = distances[i - 1];
+                    trouves[i] = trouves[i - 1];
+                    i--;
+                }
+                distances[i] = distance;
+                trouves[i] = livreur;
+            }
+        }
+    }
+
+    /**
+     * @param tailleCellule Côté d'une cellule, en degrés.
+     */
+    public IndexSpatialLivreurs(double tailleCellule) {
+        if (!(tailleCellule > 0)) {
+            throw new IllegalArgumentException("La taille des cellules doit être positive");
+        }
+        this.tailleCellule = tailleCellule;
+        this.cellules = new HashMap<>();
+        this.celluleDe = new HashMap<>();
+        this.parZone = new HashMap<>();
+    }
+
+    public synchronized void ajouter(Livreur livreur) {
+        if (livreur == null) {
+            throw new IllegalArgumentException("Le livreur ne peut pas être null");
+        }
+        if (celluleDe.containsKey(livreur)) {
+            deplacer(livreur);
+            return;
+        }
+        long cle = cle(livreur.getPositionActuelle());
+        placer(livreur, cle);
+        parZone.computeIfAbsent(livreur.getZone(), z -> new LinkedHashSet<>()).add(livreur);
+    }
+
+    public synchronized void retirer(Livreur livreur) {
+        Long cle = celluleDe.remove(livreur);
+        if (cle == null) {
+            return;
+        }
+        enleverDeCellule(livreur, cle);
+        Set<Livreur> zone = parZone.get(livreur.getZone());
+        if (zone != null && zone.remove(livreur) && zone.isEmpty()) {
+            parZone.remove(livreur.getZone());
+        }
+    }
+
+    /**
+     * Range le livreur dans la cellule de sa position actuelle.
+     */
+    public synchronized void deplacer(Livreur livreur) {
+        Long ancienne = celluleDe.get(livreur);
+        if (ancienne == null) {
+            return;
+        }
+        long nouvelle = cle(livreur.getPositionActuelle());
+        if (nouvelle != ancienne) {
+            enleverDeCellule(livreur, ancienne);
+            placer(livreur, nouvelle);
+        }
+    }
+
+    /**
+     * Range un lot de livreurs dans les cellules de leurs positions actuelles, en une seule
+     * prise du verrou.
+     */
+    public synchronized void deplacer(Livreur[] livreurs, int nombre) {
+        for (int i = 0; i < nombre; i++) {
+            deplacer(livreurs[i]);
+        }
+    }
+
+    /**
+     * Les k livreurs acceptés par le filtre les plus proches de la position, du plus proche
+     * au plus éloigné.
+     */
+    public synchronized List<Livreur> plusProches(Livreur.Position position, int k, Predicate<Livreur> filtre) {
+        if (position == null || k < 1) {
+            throw new IllegalArgumentException("Position ou nombre de livreurs invalide");
+        }
+        if (celluleDe.isEmpty()) {
+            return Collections.emptyList();
+        }
+        double latitude = position.getLatitude();
+        double longitude = position.getLongitude();
+        double cosinus = Math.cos(Math.toRadians(latitude));
+        // Plus petit écart en kilomètres correspondant à une cellule (en longitude)
+        double kmParCellule = tailleCellule * Geodesie.KM_PAR_DEGRE * cosinus;
+        int cx = coordonnee(latitude);
+        int cy = coordonnee(longitude);
+        int rayonMax = Math.max(Math.max(cx - xMin, xMax - cx), Math.max(cy - yMin, yMax - cy));
+        Candidats candidats = new Candidats(k, latitude, longitude, cosinus, filtre);
+        for (int r = 0; r <= rayonMax; r++) {
+            // Anneau plus grand que l'ensemble des cellules occupées : on parcourt ces dernières
+            if (8L * r > cellules.size()) {
+                for (Map.Entry<Long, List<Livreur>> cellule : cellules.entrySet()) {
+                    long cle = cellule.getKey();
+                    if (Math.max(Math.abs((int) (cle >> 32) - cx), Math.abs((int) cle - cy)) >= r) {
+                        candidats.examiner(cellule.getValue());
+                    }
+                }
+                break;
+            }
+            for (int x = cx - r; x <= cx + r; x++) {
+                // Sur les bords gauche et droit de l'anneau, toute la colonne ; ailleurs, ses deux extrémités
+                int pas = (x == cx - r || x == cx + r) ? 1 : Math.max(1, 2 * r);
+                for (int y = cy - r; y <= cy + r; y += pas) {
+                    List<Livreur> cellule = cellules.get(cle(x, y));
+                    if (cellule != null) {
+                        candidats.examiner(cellule);
+                    }
+                }
+            }
+            // Les cellules de l'anneau suivant sont au moins à r cellules du point
+            if (candidats.nombre == k && candidats.distances[k - 1] <= r * kmParCellule) {
+                break;
+            }
+        }
+        return new ArrayList<>(Arrays.asList(candidats.trouves).subList(0, candidats.nombre));
+    }
+
+    public synchronized List<Livreur> getLivreursZone(String zone) {
+        Set<Livreur> livreurs = parZone.get(zone);
+        return livreurs == null ? new ArrayList<>() : new ArrayList<>(livreurs);
+    }
+
+    public synchronized Set<String> getZones() {
+        return new LinkedHashSet<>(parZone.keySet());
+    }
+
+    public synchronized boolean contient(Livreur livreur) {
+        return celluleDe.containsKey(livreur);
+    }
+
+    public synchronized int getNombreLivreurs() {
+        return celluleDe.size();
+    }
+
+    public double getTailleCellule() {
+        return tailleCellule;
+    }
+
+    private void placer(Livreur livreur, long cle) {
+        cellules.computeIfAbsent(cle, c -> new ArrayList<>(4)).add(livreur);
+        celluleDe.put(livreur, cle);
+        int x = (int) (cle >> 32);
+        int y = (int) cle;
+        xMin = Math.min(xMin, x);
+        xMax = Math.max(xMax, x);
+        yMin = Math.min(yMin, y);
+        yMax = Math.max(yMax, y);
+    }
+
+    private void enleverDeCellule(Livreur livreur, long cle) {
+        List<Livreur> cellule = cellules.get(cle);
+        if (cellule != null && cellule.remove(livreur) && cellule.isEmpty()) {
+            cellules.remove(cle);
+        }
+    }
+
+    private int coordonnee(double degres) {
+        return (int) Math.floor(degres / tailleCellule);
+    }
+
+    private long cle(Livreur.Position position) {
+        return cle(coordonnee(position.getLatitude()), coordonnee(position.getLongitude()));
+    }
+
+    private static long cle(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+}
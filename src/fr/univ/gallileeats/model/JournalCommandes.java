@@ -0,0 +1,646 @@
+package fr.univ.gallileeats.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Journal binaire en ajout seul des transitions de commandes.
+ * Les enregistrements sont placés dans une file par le thread appelant, puis écrits
+ * par lots (group commit) dans des segments mappés en mémoire par un thread dédié.
+ * Au démarrage, {@link #rejouer} relit les segments pour reconstruire les commandes.
+ *
+ * Format d'un enregistrement : longueur (int), type (byte), horodatage (long),
+ * numéro de commande (chaîne), puis les données propres au type.
+ * Les montants sont écrits en centimes (long).
+ * La création et chaque changement de menu portent la composition de la ligne de commande
+ * (éléments du menu de base, puis suppléments) : le rejeu reconstruit la commande telle
+ * qu'elle a été payée, même si le catalogue a changé depuis.
+ * Une longueur nulle marque la fin des données d'un segment.
+ */
+public class JournalCommandes {
+    public enum PolitiqueSynchronisation {
+        JAMAIS,      // Laisse le système d'exploitation vider les pages
+        PAR_LOT,     // force() après chaque lot écrit
+        INTERVALLE   // force() au plus une fois par intervalle
+    }
+
+    private static final byte TYPE_CREATION = 1;
+    private static final byte TYPE_ETAT = 2;
+    private static final byte TYPE_PAIEMENT = 3;
+    private static final byte TYPE_LIVREUR = 4;
+    private static final byte TYPE_ADRESSE = 5;
+    private static final byte TYPE_EVENEMENT = 6;
+    private static final byte TYPE_LIGNE = 7;
+
+    private static final String PREFIXE_SEGMENT = "journal-";
+    private static final String EXTENSION_SEGMENT = ".seg";
+    private static final int TAILLE_LOT_MAX = 1024;
+
+    private static volatile JournalCommandes instance;
+
+    private final Path repertoire;
+    private final int tailleSegment;
+    private final PolitiqueSynchronisation politique;
+    private final long intervalleSynchronisationMs;
+    private final BlockingQueue<Enregistrement> file;
+    private final Thread ecrivain;
+    private volatile boolean actif;
+
+    private FileChannel canal;
+    private MappedByteBuffer segment;
+    private int numeroSegment;
+    private long derniereSynchronisation;
+
+    // Placé dans la file par fermer() : l'écrivain termine le lot en cours puis s'arrête
+    private static final Enregistrement ARRET = new Enregistrement((byte) 0, null, null, null, 0, 0);
+
+    private static class Enregistrement {
+        private final byte type;
+        private final long horodatage;
+        private final String numero;
+        private final String texte1;
+        private final String texte2;
+        private final int entier;
+        private final long montant; // En centimes
+        private final Composition composition;
+
+        Enregistrement(byte type, String numero, String texte1, String texte2, int entier, long montant) {
+            this(type, numero, texte1, texte2, entier, montant, null);
+        }
+
+        Enregistrement(byte type, String numero, String texte1, String texte2, int entier, long montant,
+                       Composition composition) {
+            this.type = type;
+            this.horodatage = System.currentTimeMillis();
+            this.numero = numero;
+            this.texte1 = texte1;
+            this.texte2 = texte2;
+            this.entier = entier;
+            this.montant = montant;
+            this.composition = composition;
+        }
+    }
+
+    /**
+     * Composition d'une ligne de commande, relevée au moment de l'événement :
+     * nom, catégorie et prix des éléments du menu de base, puis pile de suppléments.
+     */
+    private static final class Composition {
+        private final String[] noms;
+        private final String[] categories;
+        private final long[] prix;
+        private final LigneCommande ligne;
+
+        Composition(LigneCommande ligne) {
+            List<MenuComponent> elements = ligne.getBase().getElements();
+            this.noms = new String[elements.size()];
+            this.categories = new String[elements.size()];
+            this.prix = new long[elements.size()];
+            for (int i = 0; i < elements.size(); i++) {
+                MenuComponent element = elements.get(i);
+                noms[i] = element.getNom();
+                categories[i] = element instanceof Plat ? ((Plat) element).getCategorie() : "";
+                prix[i] = element.getPrixCentimes();
+            }
+            this.ligne = ligne;
+        }
+
+        byte[] encoder() {
+            byte[][] textes = new byte[2 * noms.length + ligne.getNombreSupplements()][];
+            int taille = 2 + 2;
+            for (int i = 0; i < noms.length; i++) {
+                textes[2 * i] = octets(noms[i]);
+                textes[2 * i + 1] = octets(categories[i]);
+                taille += 2 + textes[2 * i].length + 2 + textes[2 * i + 1].length + 8;
+            }
+            for (int i = 0; i < ligne.getNombreSupplements(); i++) {
+                textes[2 * noms.length + i] = octets(ligne.getNomSupplement(i));
+                taille += 2 + textes[2 * noms.length + i].length + 1 + 4 + 8;
+            }
+
+            ByteBuffer tampon = ByteBuffer.allocate(taille);
+            tampon.putShort((short) noms.length);
+            for (int i = 0; i < noms.length; i++) {
+                ecrireChaine(tampon, textes[2 * i]);
+                ecrireChaine(tampon, textes[2 * i + 1]);
+                tampon.putLong(prix[i]);
+            }
+            tampon.putShort((short) ligne.getNombreSupplements());
+            for (int i = 0; i < ligne.getNombreSupplements(); i++) {
+                ecrireChaine(tampon, textes[2 * noms.length + i]);
+                tampon.put((byte) ligne.getTypeSupplement(i).ordinal());
+                tampon.putInt(ligne.getQuantite(i));
+                tampon.putLong(ligne.getPrixUnitaireCentimes(i));
+            }
+            return tampon.array();
+        }
+    }
+
+    private JournalCommandes(Path repertoire, int tailleSegment,
+                             PolitiqueSynchronisation politique, long intervalleSynchronisationMs) throws IOException {
+        this.repertoire = repertoire;
+        this.tailleSegment = tailleSegment;
+        this.politique = politique;
+        this.intervalleSynchronisationMs = intervalleSynchronisationMs;
+        this.file = new LinkedBlockingQueue<>();
+        this.actif = true;
+
+        Files.createDirectories(repertoire);
+        List<Path> segments = listerSegments(repertoire);
+        if (segments.isEmpty()) {
+            ouvrirSegment(0);
+        } else {
+            Path dernier = segments.get(segments.size() - 1);
+            ouvrirSegment(numeroDeSegment(dernier));
+            segment.position(finDesDonnees(segment));
+        }
+
+        this.ecrivain = new Thread(this::boucleEcriture, "journal-commandes");
+        this.ecrivain.setDaemon(true);
+        this.ecrivain.start();
+    }
+
+    /**
+     * Ouvre le journal en écriture et l'active pour toutes les commandes.
+     *
+     * @param repertoire                  Répertoire contenant les segments.
+     * @param tailleSegment               Taille de chaque segment en octets.
+     * @param politique                   Politique d'appel à force().
+     * @param intervalleSynchronisationMs Intervalle minimal entre deux force() (politique INTERVALLE).
+     */
+    public static synchronized JournalCommandes ouvrir(Path repertoire, int tailleSegment,
+                                                       PolitiqueSynchronisation politique,
+                                                       long intervalleSynchronisationMs) throws IOException {
+        if (instance != null) {
+            throw new IllegalStateException("Le journal est déjà ouvert");
+        }
+        if (tailleSegment < 1024) {
+            throw new IllegalArgumentException("La taille de segment doit être d'au moins 1024 octets");
+        }
+        JournalCommandes journal = new JournalCommandes(repertoire, tailleSegment, politique, intervalleSynchronisationMs);
+        Runtime.getRuntime().addShutdownHook(new Thread(journal::fermer, "journal-commandes-arret"));
+        instance = journal;
+        return journal;
+    }
+
+    public static JournalCommandes getInstance() {
+        return instance;
+    }
+
+    /**
+     * Vide la file, synchronise le segment courant et désactive le journal.
+     * L'écrivain n'est pas interrompu : une interruption pendant une écriture fermerait
+     * le canal ({@link java.nio.channels.ClosedByInterruptException}) avant le dernier lot.
+     */
+    public void fermer() {
+        synchronized (JournalCommandes.class) {
+            if (instance == this) {
+                instance = null;
+            }
+        }
+        synchronized (this) {
+            if (!actif) {
+                return;
+            }
+            actif = false;
+        }
+        file.offer(ARRET);
+        try {
+            ecrivain.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Enregistrement des événements (appelés par Commande, sans effet si le journal est fermé)
+    static void journaliserCreation(Commande commande) {
+        if (instance == null) {
+            return;
+        }
+        LigneCommande ligne = commande.getLigne();
+        publier(new Enregistrement(TYPE_CREATION, commande.getNumeroCommande(),
+                commande.getClient().getId(), ligne.getBase().getNom(),
+                commande.getNombrePersonnes() << 8 | commande.getModeLivraison().ordinal(),
+                commande.getTotalCentimes(), new Composition(ligne)));
+    }
+
+    static void journaliserLigne(Commande commande) {
+        if (instance == null) {
+            return;
+        }
+        LigneCommande ligne = commande.getLigne();
+        publier(new Enregistrement(TYPE_LIGNE, commande.getNumeroCommande(),
+                ligne.getBase().getNom(), null, 0, 0, new Composition(ligne)));
+    }
+
+    static void journaliserEtat(Commande commande, EtatCommande etat) {
+        publier(new Enregistrement(TYPE_ETAT, commande.getNumeroCommande(),
+                null, null, etat.ordinal(), 0));
+    }
+
+    static void journaliserPaiement(Commande commande) {
+        publier(new Enregistrement(TYPE_PAIEMENT, commande.getNumeroCommande(),
+                null, null, 0, commande.getTotalCentimes()));
+    }
+
+    static void journaliserLivreur(Commande commande) {
+        publier(new Enregistrement(TYPE_LIVREUR, commande.getNumeroCommande(),
+                commande.getLivreur().getId(), null, 0, 0));
+    }
+
+    static void journaliserAdresse(Commande commande) {
+        publier(new Enregistrement(TYPE_ADRESSE, commande.getNumeroCommande(),
+                commande.getAdresseLivraison(), null, 0, 0));
+    }
+
+    static void journaliserEvenement(Commande commande) {
+        publier(new Enregistrement(TYPE_EVENEMENT, commande.getNumeroCommande(),
+                commande.getEvenement(), null, 0, 0));
+    }
+
+    private static void publier(Enregistrement enregistrement) {
+        JournalCommandes journal = instance;
+        if (journal != null && journal.actif) {
+            journal.file.offer(enregistrement);
+        }
+    }
+
+    // Thread d'écriture
+    private void boucleEcriture() {
+        List<Enregistrement> lot = new ArrayList<>(TAILLE_LOT_MAX);
+        boolean arret = false;
+        while (!arret) {
+            try {
+                Enregistrement premier = file.poll(intervalleAttente(), TimeUnit.MILLISECONDS);
+                if (premier != null) {
+                    lot.add(premier);
+                    file.drainTo(lot, TAILLE_LOT_MAX - 1);
+                }
+            } catch (InterruptedException e) {
+                // L'arrêt passe par ARRET ; on efface l'interruption pour protéger le canal
+                Thread.interrupted();
+            }
+            if (lot.remove(ARRET)) {
+                // Enregistrements publiés juste avant la désactivation
+                arret = true;
+                file.drainTo(lot);
+                lot.remove(ARRET);
+            }
+
+            try {
+                for (Enregistrement enregistrement : lot) {
+                    ecrire(enregistrement);
+                }
+                synchroniser(!lot.isEmpty());
+            } catch (IOException e) {
+                System.err.println("Erreur d'écriture du journal des commandes: " + e.getMessage());
+            }
+            lot.clear();
+        }
+
+        try {
+            segment.force();
+            canal.close();
+        } catch (IOException e) {
+            System.err.println("Erreur à la fermeture du journal des commandes: " + e.getMessage());
+        }
+    }
+
+    private long intervalleAttente() {
+        return politique == PolitiqueSynchronisation.INTERVALLE ? Math.max(1, intervalleSynchronisationMs) : 100;
+    }
+
+    private void synchroniser(boolean lotEcrit) {
+        switch (politique) {
+            case PAR_LOT:
+                if (lotEcrit) {
+                    segment.force();
+                }
+                break;
+            case INTERVALLE:
+                long maintenant = System.currentTimeMillis();
+                if (maintenant - derniereSynchronisation >= intervalleSynchronisationMs) {
+                    segment.force();
+                    derniereSynchronisation = maintenant;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void ecrire(Enregistrement e) throws IOException {
+        byte[] numero = octets(e.numero);
+        byte[] texte1 = octets(e.texte1);
+        byte[] texte2 = octets(e.texte2);
+        byte[] composition = e.composition == null ? new byte[0] : e.composition.encoder();
+        int longueur = 1 + 8 + 2 + numero.length + tailleDonnees(e.type, texte1, texte2) + composition.length;
+        if (4 + longueur > tailleSegment) {
+            throw new IOException("Enregistrement trop volumineux pour un segment: " + longueur + " octets");
+        }
+        if (segment.remaining() < 4 + longueur) {
+            segment.force();
+            canal.close();
+            ouvrirSegment(numeroSegment + 1);
+        }
+
+        // Le corps est écrit avant la longueur : un enregistrement interrompu reste invisible au rejeu
+        int debut = segment.position();
+        segment.position(debut + 4);
+        segment.put(e.type);
+        segment.putLong(e.horodatage);
+        ecrireChaine(segment, numero);
+        switch (e.type) {
+            case TYPE_CREATION:
+                ecrireChaine(segment, texte1);
+                ecrireChaine(segment, texte2);
+                segment.putInt(e.entier);
+                segment.putLong(e.montant);
+                segment.put(composition);
+                break;
+            case TYPE_LIGNE:
+                ecrireChaine(segment, texte1);
+                segment.put(composition);
+                break;
+            case TYPE_ETAT:
+                segment.put((byte) e.entier);
+                break;
+            case TYPE_PAIEMENT:
+                segment.putLong(e.montant);
+                break;
+            default:
+                ecrireChaine(segment, texte1);
+                break;
+        }
+        segment.putInt(debut, longueur);
+    }
+
+    private static int tailleDonnees(byte type, byte[] texte1, byte[] texte2) {
+        switch (type) {
+            case TYPE_CREATION:
+                return 2 + texte1.length + 2 + texte2.length + 4 + 8;
+            case TYPE_ETAT:
+                return 1;
+            case TYPE_PAIEMENT:
+                return 8;
+            default:
+                return 2 + texte1.length;
+        }
+    }
+
+    private static void ecrireChaine(ByteBuffer tampon, byte[] valeur) {
+        tampon.putShort((short) valeur.length);
+        tampon.put(valeur);
+    }
+
+    private static byte[] octets(String valeur) {
+        return valeur == null ? new byte[0] : valeur.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Gestion des segments
+    private void ouvrirSegment(int numero) throws IOException {
+        Path chemin = repertoire.resolve(nomSegment(numero));
+        this.canal = FileChannel.open(chemin, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.segment = canal.map(FileChannel.MapMode.READ_WRITE, 0, tailleSegment);
+        this.numeroSegment = numero;
+    }
+
+    private static String nomSegment(int numero) {
+        StringBuilder nom = new StringBuilder(PREFIXE_SEGMENT);
+        String chiffres = Integer.toString(numero);
+        for (int i = chiffres.length(); i < 6; i++) {
+            nom.append('0');
+        }
+        return nom.append(chiffres).append(EXTENSION_SEGMENT).toString();
+    }
+
+    private static int numeroDeSegment(Path segment) {
+        String nom = segment.getFileName().toString();
+        return Integer.parseInt(nom.substring(PREFIXE_SEGMENT.length(), nom.length() - EXTENSION_SEGMENT.length()));
+    }
+
+    private static List<Path> listerSegments(Path repertoire) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(repertoire)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> flux = Files.newDirectoryStream(repertoire,
+                PREFIXE_SEGMENT + "*" + EXTENSION_SEGMENT)) {
+            flux.forEach(segments::add);
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    private static int finDesDonnees(MappedByteBuffer tampon) {
+        int position = 0;
+        while (position + 4 <= tampon.limit()) {
+            int longueur = tampon.getInt(position);
+            if (longueur <= 0 || position + 4 + longueur > tampon.limit()) {
+                break;
+            }
+            position += 4 + longueur;
+        }
+        return position;
+    }
+
+    // Rejeu
+    /**
+     * Relit tous les segments du répertoire et reconstruit les commandes confirmées.
+     * Doit être appelé avant {@link #ouvrir}, afin que la reconstruction ne soit pas journalisée.
+     *
+     * @param repertoire   Répertoire contenant les segments.
+     * @param utilisateurs Résolution d'un identifiant d'utilisateur (client, responsable, livreur).
+     * @param menus        Résolution d'un nom de menu du catalogue (null s'il n'en fait pas partie) ;
+     *                     le menu journalisé est reconstruit s'il est absent ou a changé de composition.
+     * @return Les commandes reconstruites, dans l'ordre de création.
+     */
+    public static List<Commande> rejouer(Path repertoire, Function<String, Utilisateur> utilisateurs,
+                                         Function<String, MenuComponent> menus) throws IOException {
+        if (instance != null) {
+            throw new IllegalStateException("Le rejeu doit précéder l'ouverture du journal");
+        }
+
+        Map<String, Commande> commandes = new LinkedHashMap<>();
+        for (Path chemin : listerSegments(repertoire)) {
+            try (FileChannel canal = FileChannel.open(chemin, StandardOpenOption.READ)) {
+                MappedByteBuffer tampon = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+                int fin = finDesDonnees(tampon);
+                while (tampon.position() < fin) {
+                    tampon.getInt();
+                    appliquer(tampon, commandes, utilisateurs, menus);
+                }
+            }
+        }
+
+        List<Commande> restaurees = new ArrayList<>();
+        for (Commande commande : commandes.values()) {
+            // Les commandes jamais confirmées (aperçu abandonné avant paiement) sont ignorées
+            if (commande.getEtat() == null && commande.getEvenement() == null) {
+                continue;
+            }
+            rattacher(commande);
+            restaurees.add(commande);
+        }
+        return restaurees;
+    }
+
+    private static void appliquer(MappedByteBuffer tampon, Map<String, Commande> commandes,
+                                  Function<String, Utilisateur> utilisateurs,
+                                  Function<String, MenuComponent> menus) {
+        byte type = tampon.get();
+        long horodatage = tampon.getLong();
+        String numero = lireChaine(tampon);
+
+        if (type == TYPE_CREATION) {
+            String idClient = lireChaine(tampon);
+            String nomMenu = lireChaine(tampon);
+            int personnesEtMode = tampon.getInt();
+            long total = tampon.getLong();
+            MenuComponent menu = lireComposition(tampon, nomMenu, menus);
+            Utilisateur client = utilisateurs.apply(idClient);
+            if (client == null) {
+                System.err.println("Commande " + numero + " non restaurée : utilisateur " + idClient + " inconnu");
+            } else {
+                Commande commande = Commande.restaurer(numero, client, menu, personnesEtMode >>> 8,
+                        Commande.ModeLivraison.values()[personnesEtMode & 0xFF], total, new Date(horodatage));
+                commandes.put(numero, commande);
+            }
+            return;
+        }
+
+        Commande commande = commandes.get(numero);
+        switch (type) {
+            case TYPE_ETAT:
+                EtatCommande etat = EtatCommande.values()[tampon.get()];
+                // Deux transitions concurrentes peuvent être journalisées dans le désordre
+                if (commande != null && EtatCommande.estTransitionAutorisee(commande.getEtat(), etat)) {
+                    commande.restaurerEtat(etat, new Date(horodatage));
+                }
+                break;
+            case TYPE_PAIEMENT:
+                long total = tampon.getLong();
+                if (commande != null) {
+                    commande.restaurerPaiement(total);
+                }
+                break;
+            case TYPE_LIVREUR:
+                Utilisateur livreur = utilisateurs.apply(lireChaine(tampon));
+                if (commande != null && livreur instanceof Livreur) {
+                    commande.restaurerLivreur((Livreur) livreur);
+                }
+                break;
+            case TYPE_ADRESSE:
+                String adresse = lireChaine(tampon);
+                if (commande != null) {
+                    commande.restaurerAdresse(adresse);
+                }
+                break;
+            case TYPE_EVENEMENT:
+                String evenement = lireChaine(tampon);
+                if (commande != null) {
+                    commande.restaurerEvenement(evenement);
+                }
+                break;
+            case TYPE_LIGNE:
+                MenuComponent menu = lireComposition(tampon, lireChaine(tampon), menus);
+                if (commande != null) {
+                    commande.restaurerMenu(menu);
+                }
+                break;
+            default:
+                throw new IllegalStateException("Type d'enregistrement inconnu: " + type);
+        }
+    }
+
+    private static void rattacher(Commande commande) {
+        Utilisateur client = commande.getClient();
+        if (client instanceof Client) {
+            ((Client) client).ajouterCommande(commande);
+        } else if (client instanceof ResponsableCampus) {
+            ((ResponsableCampus) client).restaurerCommande(commande);
+        } else {
+            OrderRepository.getInstance().enregistrer(commande);
+        }
+        if (commande.getLivreur() != null) {
+            commande.getLivreur().restaurerLivraison(commande);
+        }
+    }
+
+    /**
+     * Relit une composition : le menu du catalogue portant ce nom s'il a toujours les mêmes
+     * éléments, sinon un menu reconstruit à partir des éléments journalisés, puis les suppléments.
+     */
+    private static MenuComponent lireComposition(MappedByteBuffer tampon, String nomMenu,
+                                                 Function<String, MenuComponent> menus) {
+        int nombre = tampon.getShort() & 0xFFFF;
+        String[] noms = new String[nombre];
+        String[] categories = new String[nombre];
+        long[] prix = new long[nombre];
+        for (int i = 0; i < nombre; i++) {
+            noms[i] = lireChaine(tampon);
+            categories[i] = lireChaine(tampon);
+            prix[i] = tampon.getLong();
+        }
+
+        MenuComponent base = menus.apply(nomMenu);
+        if (base == null || !memesElements(base, noms, prix)) {
+            Menu menu = new Menu(nomMenu, "Menu restauré depuis le journal", "RESTAURE");
+            for (int i = 0; i < nombre; i++) {
+                menu.ajouter(new Plat(noms[i], "", Montant.enEuros(prix[i]), categories[i]));
+            }
+            base = menu;
+        }
+
+        MenuComponent composant = base;
+        int supplements = tampon.getShort() & 0xFFFF;
+        for (int i = 0; i < supplements; i++) {
+            String nom = lireChaine(tampon);
+            OptionSupplement.TypeSupplement type = OptionSupplement.TypeSupplement.values()[tampon.get()];
+            int quantite = tampon.getInt();
+            long prixUnitaire = tampon.getLong();
+            OptionSupplement option = new OptionSupplement(composant, nom, 0, type, null);
+            option.setPrixSupplement(prixUnitaire);
+            option.setQuantite(quantite);
+            composant = option;
+        }
+        return composant;
+    }
+
+    private static boolean memesElements(MenuComponent menu, String[] noms, long[] prix) {
+        List<MenuComponent> elements = menu.getElements();
+        if (elements.size() != noms.length) {
+            return false;
+        }
+        for (int i = 0; i < noms.length; i++) {
+            if (!elements.get(i).getNom().equals(noms[i]) || elements.get(i).getPrixCentimes() != prix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String lireChaine(MappedByteBuffer tampon) {
+        int longueur = tampon.getShort() & 0xFFFF;
+        byte[] valeur = new byte[longueur];
+        tampon.get(valeur);
+        return new String(valeur, StandardCharsets.UTF_8);
+    }
+}
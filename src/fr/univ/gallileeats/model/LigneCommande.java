@@ -0,0 +1,143 @@
+package fr.univ.gallileeats.model;
+
+import java.util.Arrays;
+
+/**
+ * Ligne de commande compilée à partir d'une chaîne de décorateurs {@link OptionSupplement}.
+ * La chaîne est parcourue une seule fois : le composant de base, les suppléments
+ * (dans leur ordre d'ajout) et les prix sont figés dans des tableaux immuables.
+ * Le prix, l'affichage et le ticket cuisine lisent ensuite cette structure plate
+ * sans récursion ni liste intermédiaire.
+ */
+public final class LigneCommande {
+    private static final OptionSupplement.TypeSupplement[] TYPES = OptionSupplement.TypeSupplement.values();
+    private static final String[] AUCUN_NOM = new String[0];
+    private static final int[] AUCUN_CODE = new int[0];
+    private static final long[] AUCUN_PRIX = new long[0];
+
+    private final MenuComponent base;
+    private final String[] noms;
+    // Type du supplément sur les 8 bits de poids faible, quantité au-dessus
+    private final int[] codes;
+    // Prix en centimes
+    private final long[] prixUnitaires;
+    private final int masqueTypes;
+    private final long prixBase;
+    private final long prixSupplements;
+    private final int hashSupplements;
+
+    private LigneCommande(MenuComponent base, String[] noms, int[] codes, long[] prixUnitaires) {
+        this.base = base;
+        this.noms = noms;
+        this.codes = codes;
+        this.prixUnitaires = prixUnitaires;
+        this.prixBase = base.getPrixCentimes();
+
+        int masque = 0;
+        long supplements = Montant.ZERO;
+        for (int i = 0; i < codes.length; i++) {
+            masque |= 1 << (codes[i] & 0xFF);
+            supplements = Montant.ajouter(supplements, Montant.multiplier(prixUnitaires[i], codes[i] >>> 8));
+        }
+        this.masqueTypes = masque;
+        this.prixSupplements = supplements;
+        this.hashSupplements = 31 * Arrays.hashCode(noms) + Arrays.hashCode(codes);
+    }
+
+    /**
+     * Compile un composant, éventuellement décoré de suppléments, en ligne de commande.
+     */
+    public static LigneCommande compiler(MenuComponent composant) {
+        if (composant == null) {
+            throw new IllegalArgumentException("Le composant ne peut pas être null");
+        }
+
+        int nombre = 0;
+        MenuComponent courant = composant;
+        while (courant instanceof OptionSupplement) {
+            nombre++;
+            courant = ((OptionSupplement) courant).getPlatDeBase();
+        }
+        if (nombre == 0) {
+            return new LigneCommande(composant, AUCUN_NOM, AUCUN_CODE, AUCUN_PRIX);
+        }
+
+        String[] noms = new String[nombre];
+        int[] codes = new int[nombre];
+        long[] prixUnitaires = new long[nombre];
+        // La chaîne part du dernier supplément ajouté : on remplit les tableaux depuis la fin
+        courant = composant;
+        for (int i = nombre - 1; i >= 0; i--) {
+            OptionSupplement option = (OptionSupplement) courant;
+            noms[i] = option.getNomSupplement();
+            codes[i] = option.getQuantite() << 8 | option.getTypeSupplement().ordinal();
+            prixUnitaires[i] = option.getPrixSupplementCentimes();
+            courant = option.getPlatDeBase();
+        }
+        return new LigneCommande(courant, noms, codes, prixUnitaires);
+    }
+
+    public MenuComponent getBase() {
+        return base;
+    }
+
+    public int getNombreSupplements() {
+        return codes.length;
+    }
+
+    public boolean aDesSupplements() {
+        return codes.length > 0;
+    }
+
+    public String getNomSupplement(int index) {
+        return noms[index];
+    }
+
+    public OptionSupplement.TypeSupplement getTypeSupplement(int index) {
+        return TYPES[codes[index] & 0xFF];
+    }
+
+    public int getQuantite(int index) {
+        return codes[index] >>> 8;
+    }
+
+    public long getPrixUnitaireCentimes(int index) {
+        return prixUnitaires[index];
+    }
+
+    // Prix du supplément, quantité comprise
+    public long getPrixSupplementCentimes(int index) {
+        return Montant.multiplier(prixUnitaires[index], getQuantite(index));
+    }
+
+    /**
+     * Indique si les deux lignes portent la même pile de suppléments (noms, types,
+     * quantités et prix, dans le même ordre), quel que soit le composant de base.
+     */
+    public boolean memesSupplements(LigneCommande autre) {
+        return hashSupplements == autre.hashSupplements
+                && Arrays.equals(codes, autre.codes)
+                && Arrays.equals(prixUnitaires, autre.prixUnitaires)
+                && Arrays.equals(noms, autre.noms);
+    }
+
+    public int hashSupplements() {
+        return hashSupplements;
+    }
+
+    public boolean contientTypeSupplement(OptionSupplement.TypeSupplement type) {
+        return (masqueTypes & 1 << type.ordinal()) != 0;
+    }
+
+    public long getPrixBaseCentimes() {
+        return prixBase;
+    }
+
+    public long getPrixSupplementsCentimes() {
+        return prixSupplements;
+    }
+
+    public long getPrixTotalCentimes() {
+        return Montant.ajouter(prixBase, prixSupplements);
+    }
+}
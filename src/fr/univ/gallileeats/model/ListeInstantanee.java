@@ -0,0 +1,133 @@
+package fr.univ.gallileeats.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Liste copiée à l'écriture qui distribue des instantanés immuables en temps constant,
+ * sans allocation : un instantané est un couple (tableau, taille) publié à chaque écriture.
+ * Un ajout en fin de liste écrit au-delà de la taille de tous les instantanés déjà distribués
+ * et réutilise donc le même tableau (coût amorti constant) ; seuls un retrait ou un
+ * agrandissement créent un nouveau tableau. Les écritures sont sérialisées, les lectures
+ * ne prennent aucun verrou.
+ */
+public final class ListeInstantanee<E> implements Iterable<E> {
+    private static final int CAPACITE_INITIALE = 4;
+
+    private Object[] elements;
+    private volatile Instantane<E> instantane;
+
+    private static final class Instantane<E> extends AbstractList<E> implements RandomAccess {
+        private final Object[] elements;
+        private final int taille;
+
+        Instantane(Object[] elements, int taille) {
+            this.elements = elements;
+            this.taille = taille;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get(int index) {
+            if (index < 0 || index >= taille) {
+                throw new IndexOutOfBoundsException("Index " + index + " hors de [0, " + taille + ")");
+            }
+            return (E) elements[index];
+        }
+
+        @Override
+        public int size() {
+            return taille;
+        }
+    }
+
+    public ListeInstantanee() {
+        this.elements = new Object[CAPACITE_INITIALE];
+        this.instantane = new Instantane<>(elements, 0);
+    }
+
+    public synchronized void ajouter(E element) {
+        if (element == null) {
+            throw new IllegalArgumentException("L'élément ne peut pas être null");
+        }
+        int taille = instantane.taille;
+        if (taille == elements.length) {
+            elements = Arrays.copyOf(elements, taille * 2);
+        }
+        elements[taille] = element;
+        instantane = new Instantane<>(elements, taille + 1);
+    }
+
+    /**
+     * Ajoute l'élément s'il n'est pas déjà présent.
+     *
+     * @return true si l'élément a été ajouté.
+     */
+    public synchronized boolean ajouterSiAbsent(E element) {
+        if (contient(element)) {
+            return false;
+        }
+        ajouter(element);
+        return true;
+    }
+
+    /**
+     * Retire la première occurrence de l'élément.
+     *
+     * @return true si l'élément était présent.
+     */
+    public synchronized boolean retirer(Object element) {
+        Instantane<E> courant = instantane;
+        for (int i = 0; i < courant.taille; i++) {
+            if (courant.elements[i].equals(element)) {
+                Object[] conserves = new Object[elements.length];
+                System.arraycopy(courant.elements, 0, conserves, 0, i);
+                System.arraycopy(courant.elements, i + 1, conserves, i, courant.taille - i - 1);
+                publier(conserves, courant.taille - 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Les instantanés déjà distribués gardent l'ancien tableau, qui n'est plus modifié
+    private void publier(Object[] nouveaux, int taille) {
+        elements = nouveaux;
+        instantane = new Instantane<>(nouveaux, taille);
+    }
+
+    /**
+     * La liste telle qu'elle est à cet instant ; elle ne change plus par la suite.
+     */
+    public List<E> instantane() {
+        Instantane<E> courant = instantane;
+        return courant.taille == 0 ? Collections.emptyList() : courant;
+    }
+
+    public boolean contient(Object element) {
+        Instantane<E> courant = instantane;
+        for (int i = 0; i < courant.taille; i++) {
+            if (courant.elements[i].equals(element)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int taille() {
+        return instantane.taille;
+    }
+
+    public boolean estVide() {
+        return instantane.taille == 0;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return instantane().iterator();
+    }
+}
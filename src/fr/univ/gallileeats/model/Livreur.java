@@ -1,25 +1,45 @@
 package fr.univ.gallileeats.model;
 
 import fr.univ.gallileeats.interfaces.Observateur;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Livreur extends Utilisateur implements Observateur {
-    private List<Commande> commandesALivrer;
-    private List<Commande> historiqueLivraisons;
-    private boolean disponible;
+    private final ListeInstantanee<Commande> commandesALivrer;
+    private final ListeInstantanee<Commande> historiqueLivraisons;
+    private volatile boolean disponible;
     private String vehicule;
     private String zone;
     private int nombreLivraisonsEffectuees;
     private double noteMoyenne;
     private int nombreEvaluations;
     private Date derniereLivraison;
-    private Position positionActuelle;
-    private double totalPourboires;
+    private volatile Position positionActuelle;
+    private long totalPourboires; // En centimes
     private boolean enPause;
     private int tempsEstimeProchaineLivraison;
     private StatutLivreur statut;
+    private volatile boolean enService;
+    private volatile TourneeLivraison tournee;
+    // Emplacement dans PositionsLivreurs pendant le service, -1 sinon
+    private volatile int emplacementPosition = -1;
+    // Numérotation des positions reçues sans numéro de séquence de l'appareil
+    private final AtomicLong sequencePositions = new AtomicLong();
+    // Caractéristiques et heure d'affectation de chaque commande en cours, pour l'estimateur des délais
+    private final Map<Commande, Prevision> previsions;
+
+    private static final class Prevision {
+        private final double[] caracteristiques;
+        private final long debut;
+
+        Prevision(double[] caracteristiques, long debut) {
+            this.caracteristiques = caracteristiques;
+            this.debut = debut;
+        }
+    }
 
     public enum StatutLivreur {
         DEBUTANT("Débutant", 0),
@@ -39,22 +59,30 @@ public class Livreur extends Utilisateur implements Observateur {
     }
 
     public static class Position {
-        private double latitude;
-        private double longitude;
+        private final double latitude;
+        private final double longitude;
+        // Rang dans la matrice des distances du campus, -1 hors des points connus
+        private final int point;
 
         public Position(double latitude, double longitude) {
+            this(latitude, longitude, MatriceDistancesCampus.getInstance().rang(latitude, longitude));
+        }
+
+        Position(double latitude, double longitude, int point) {
             this.latitude = latitude;
             this.longitude = longitude;
+            this.point = point;
         }
 
         public double getLatitude() { return latitude; }
         public double getLongitude() { return longitude; }
+        int getPoint() { return point; }
 
+        /**
+         * Distance en kilomètres (voir {@link MatriceDistancesCampus#distanceKm}).
+         */
         public double calculateDistance(Position other) {
-            // Calcul simple de distance euclidienne
-            double dx = this.latitude - other.latitude;
-            double dy = this.longitude - other.longitude;
-            return Math.sqrt(dx * dx + dy * dy);
+            return MatriceDistancesCampus.getInstance().distanceKm(this, other);
         }
     }
 
@@ -67,8 +95,8 @@ public class Livreur extends Utilisateur implements Observateur {
             throw new IllegalArgumentException("La zone est requise");
         }
 
-        this.commandesALivrer = new ArrayList<>();
-        this.historiqueLivraisons = new ArrayList<>();
+        this.commandesALivrer = new ListeInstantanee<>();
+        this.historiqueLivraisons = new ListeInstantanee<>();
         this.disponible = true;
         this.vehicule = vehicule;
         this.zone = zone;
@@ -76,10 +104,12 @@ public class Livreur extends Utilisateur implements Observateur {
         this.noteMoyenne = 0.0;
         this.nombreEvaluations = 0;
         this.positionActuelle = new Position(0.0, 0.0);
-        this.totalPourboires = 0.0;
+        this.totalPourboires = Montant.ZERO;
         this.enPause = false;
         this.tempsEstimeProchaineLivraison = 0;
         this.statut = StatutLivreur.DEBUTANT;
+        this.tournee = TourneeLivraison.vide(RepartiteurLivraisons.POINT_RETRAIT);
+        this.previsions = new ConcurrentHashMap<>();
     }
 
     public void ajouterLivraison(Commande commande) {
@@ -90,37 +120,57 @@ public class Livreur extends Utilisateur implements Observateur {
             throw new IllegalArgumentException("La commande ne peut pas être nulle");
         }
 
-        commandesALivrer.add(commande);
+        commandesALivrer.ajouter(commande);
         commande.ajouterObservateur(this);
         commande.setLivreur(this);
 
         updateDisponibilite();
-        updateTempsEstimation();
+        replanifierTournee();
+        enregistrerPrevision(commande);
+    }
+
+    // Rattachement d'une commande reconstruite à partir du journal
+    void restaurerLivraison(Commande commande) {
+        if (commande.getEtat() == EtatCommande.LIVREE) {
+            historiqueLivraisons.ajouter(commande);
+            nombreLivraisonsEffectuees++;
+            updateStatut();
+        } else if (commande.getEtat() != EtatCommande.ANNULEE && commandesALivrer.ajouterSiAbsent(commande)) {
+            commande.ajouterObservateur(this);
+            replanifierTournee();
+        }
+        updateDisponibilite();
     }
 
     public void terminerLivraison(Commande commande) {
-        if (!commandesALivrer.contains(commande)) {
+        if (!commandesALivrer.contient(commande)) {
             throw new IllegalArgumentException("Cette commande n'est pas assignée à ce livreur");
         }
-        if (commande.getEtat() != EtatCommande.PRETE) {
+        if (commande.revendiquer(EtatCommande.PRETE, EtatCommande.EN_LIVRAISON) == null) {
             throw new IllegalStateException("La commande n'est pas prête pour la livraison");
         }
 
-        commande.changerEtat(EtatCommande.EN_LIVRAISON);
-        commandesALivrer.remove(commande);
-        historiqueLivraisons.add(commande);
+        commandesALivrer.retirer(commande);
+        historiqueLivraisons.ajouter(commande);
+        replanifierTournee();
         commande.changerEtat(EtatCommande.LIVREE);
 
         nombreLivraisonsEffectuees++;
         derniereLivraison = new Date();
+        Prevision prevision = previsions.remove(commande);
+        if (prevision != null) {
+            EstimateurDelais.getInstance().apprendre(prevision.caracteristiques,
+                    (derniereLivraison.getTime() - prevision.debut) / 60_000.0);
+        }
 
         updateStatut();
         updateDisponibilite();
+        signalerDisponibilite();
     }
 
 
     public void signalerProblemeLivraison(Commande commande, String raison) {
-        if (!commandesALivrer.contains(commande)) {
+        if (!commandesALivrer.contient(commande)) {
             throw new IllegalArgumentException("Cette commande n'est pas assignée à ce livreur");
         }
         if (raison == null || raison.trim().isEmpty()) {
@@ -130,15 +180,21 @@ public class Livreur extends Utilisateur implements Observateur {
         try {
             commande.setCommentaires("Problème de livraison: " + raison);
             commande.changerEtat(EtatCommande.ANNULEE);
-            commandesALivrer.remove(commande);
+            commandesALivrer.retirer(commande);
+            previsions.remove(commande);
+            replanifierTournee();
             updateDisponibilite();
+            signalerDisponibilite();
         } catch (IllegalStateException e) {
             // Réessayer en passant d'abord à EN_LIVRAISON si la commande est PRETE
             if (commande.getEtat() == EtatCommande.PRETE) {
                 commande.changerEtat(EtatCommande.EN_LIVRAISON);
                 commande.changerEtat(EtatCommande.ANNULEE);
-                commandesALivrer.remove(commande);
+                commandesALivrer.retirer(commande);
+                previsions.remove(commande);
+                replanifierTournee();
                 updateDisponibilite();
+                signalerDisponibilite();
             } else {
                 throw e;
             }
@@ -154,10 +210,17 @@ public class Livreur extends Utilisateur implements Observateur {
     }
 
     private void updateDisponibilite() {
-        this.disponible = !enPause && commandesALivrer.size() < getCapaciteMaxLivraisons();
+        this.disponible = !enPause && commandesALivrer.taille() < getCapaciteMaxLivraisons();
     }
 
-    private int getCapaciteMaxLivraisons() {
+    // Un livreur libéré reprend les commandes qui attendent un livreur
+    private void signalerDisponibilite() {
+        if (enService && disponible) {
+            RepartiteurLivraisons.getInstance().relancer();
+        }
+    }
+
+    public int getCapaciteMaxLivraisons() {
         switch (statut) {
             case EXPERT: return 4;
             case CONFIRME: return 3;
@@ -167,56 +230,137 @@ public class Livreur extends Utilisateur implements Observateur {
 
     @Override
     public void actualiser(Object source) {
-        if (source instanceof Commande) {
-            Commande commande = (Commande) source;
-            // Vérifier si la commande est prête et en mode livraison
-            if (commande.getEtat() == EtatCommande.PRETE &&
-                    commande.getModeLivraison() == Commande.ModeLivraison.LIVRAISON &&
-                    this.isDisponible()) {
-
-                // Vérifier que la commande n'est pas déjà prise en charge
-                if (!commandesALivrer.contains(commande)) {
-                    commandesALivrer.add(commande);
-                    commande.setLivreur(this);
-
-                    String message = String.format(
-                            "Nouvelle commande disponible pour livraison : %s\nClient : %s\nAdresse : %s",
-                            commande.getNumeroCommande(),
-                            commande.getClient().getNom(),
-                            commande.getAdresseLivraison()
-                    );
-                    this.ajouterNotification(message);
-
-                    this.updateDisponibilite();
-                }
-            }
+        // Les commandes prêtes sont confiées par le répartiteur des livraisons
+        RepartiteurLivraisons.getInstance().actualiser(source);
+    }
+
+    // Appelée par le répartiteur une fois la commande revendiquée pour ce livreur
+    void affecterLivraison(Commande commande) {
+        if (!commandesALivrer.ajouterSiAbsent(commande)) {
+            return;
         }
+        updateDisponibilite();
+        replanifierTournee();
+        enregistrerPrevision(commande);
+        this.ajouterNotification(Notification.de(ModeleNotification.LIVRAISON_AFFECTEE,
+                commande.getNumeroCommande(), commande.getClient().getNom(),
+                commande.getAdresseLivraison(), getEtaMinutes(commande)));
+    }
+
+    // Fige les caractéristiques de la livraison au moment de l'affectation ; la durée réelle
+    // sera mesurée à partir de cet instant
+    private void enregistrerPrevision(Commande commande) {
+        double[] caracteristiques = caracteristiques(tournee, commande);
+        if (caracteristiques != null) {
+            previsions.put(commande, new Prevision(caracteristiques, System.currentTimeMillis()));
+        }
+    }
+
+    private double[] caracteristiques(TourneeLivraison tournee, Commande commande) {
+        int arret = tournee.getArrets().indexOf(commande);
+        if (arret < 0) {
+            return null;
+        }
+        return EstimateurDelais.caracteristiques(tournee.getEtaMinutes(arret), tournee.getDistanceKm(arret),
+                arret, EstimateurDelais.minuteDuJour(System.currentTimeMillis()), vehicule);
+    }
+
+    /**
+     * Minutes restantes avant la livraison estimée de la commande, ou -1 si elle n'est pas
+     * dans la tournée du livreur.
+     */
+    public int getEtaMinutes(Commande commande) {
+        Prevision prevision = previsions.get(commande);
+        if (prevision != null) {
+            double ecoulees = (System.currentTimeMillis() - prevision.debut) / 60_000.0;
+            double restantes = EstimateurDelais.getInstance().estimerMinutes(prevision.caracteristiques) - ecoulees;
+            return (int) Math.ceil(Math.max(0, restantes));
+        }
+        // Commande restaurée depuis le journal : estimation à partir de la tournée actuelle
+        double[] caracteristiques = caracteristiques(tournee, commande);
+        return caracteristiques == null ? -1
+                : (int) Math.ceil(EstimateurDelais.getInstance().estimerMinutes(caracteristiques));
+    }
+
+    /**
+     * Inscrit le livreur auprès du répartiteur, qui lui confie les commandes prêtes à livrer.
+     */
+    public void prendreService() {
+        enService = true;
+        RepartiteurLivraisons.getInstance().inscrire(this);
     }
 
+    public void quitterService() {
+        enService = false;
+        RepartiteurLivraisons.getInstance().retirer(this);
+    }
+
+    /**
+     * Position sans numéro de séquence de l'appareil : elle est numérotée dans l'ordre de
+     * réception, propre à ce livreur.
+     */
     public void updatePosition(double latitude, double longitude) {
-        this.positionActuelle = new Position(latitude, longitude);
-        updateTempsEstimation();
+        updatePosition(latitude, longitude, sequencePositions.incrementAndGet());
+    }
+
+    /**
+     * En service, la position est transmise au répartiteur et appliquée avec le lot suivant ;
+     * sinon elle est appliquée immédiatement.
+     *
+     * @param sequence Numéro de séquence (ou horodatage) du relevé fourni par l'appareil : une
+     *                 position arrivée après une plus récente est ignorée.
+     */
+    public void updatePosition(double latitude, double longitude, long sequence) {
+        PositionsLivreurs positions = RepartiteurLivraisons.getInstance().getPositions();
+        while (true) {
+            int emplacement = emplacementPosition;
+            if (emplacement < 0) {
+                appliquerPosition(latitude, longitude);
+                return;
+            }
+            if (positions.enregistrer(this, emplacement, latitude, longitude, sequence)
+                    || emplacementPosition == emplacement) {
+                return;
+            }
+            // Emplacement libéré ou changé pendant l'enregistrement : on reprend avec le nouveau
+        }
     }
 
-    private void updateTempsEstimation() {
-        if (commandesALivrer.isEmpty()) {
-            tempsEstimeProchaineLivraison = 0;
-            return;
+    // Appelée par le répartiteur pour chaque lot de positions
+    void appliquerPosition(double latitude, double longitude) {
+        Position actuelle = positionActuelle;
+        if (actuelle.getLatitude() != latitude || actuelle.getLongitude() != longitude) {
+            this.positionActuelle = new Position(latitude, longitude);
         }
+    }
 
-        int tempsBase = 15; // 15 minutes de base
+    public int getEmplacementPosition() {
+        return emplacementPosition;
+    }
 
-        // Ajustement selon le type de véhicule
-        switch (vehicule.toLowerCase()) {
-            case "velo": tempsBase *= 1.5; break;
-            case "scooter": tempsBase *= 0.8; break;
-            case "voiture": tempsBase *= 1.2; break;
-        }
+    void setEmplacementPosition(int emplacementPosition) {
+        this.emplacementPosition = emplacementPosition;
+    }
+
+    // Réordonne les commandes à livrer et met à jour l'estimation de la prochaine livraison
+    private void replanifierTournee() {
+        tournee = TourneeLivraison.planifier(RepartiteurLivraisons.POINT_RETRAIT, commandesALivrer.instantane(), getVitesseKmh());
+        tempsEstimeProchaineLivraison = tournee.estVide() ? 0 : Math.max(0, getEtaMinutes(tournee.getArrets().get(0)));
+    }
 
-        // Ajustement selon le nombre de commandes
-        tempsBase *= (1 + (commandesALivrer.size() - 1) * 0.3);
+    public double getVitesseKmh() {
+        return vitesseKmh(vehicule);
+    }
 
-        tempsEstimeProchaineLivraison = tempsBase;
+    // Vitesse moyenne d'un véhicule ; null ou inconnu : vitesse par défaut
+    static double vitesseKmh(String vehicule) {
+        switch (vehicule == null ? "" : vehicule.toLowerCase()) {
+            case "velo":
+            case "vélo": return 12.0;
+            case "scooter": return 22.5;
+            case "voiture": return 15.0;
+            default: return 18.0;
+        }
     }
 
     public void recevoirEvaluation(int note) {
@@ -228,15 +372,15 @@ public class Livreur extends Utilisateur implements Observateur {
         noteMoyenne = (totalPrecedent + note) / nombreEvaluations;
     }
 
-    public void recevoirPourboire(double montant) {
+    public void recevoirPourboire(long montant) {
         if (montant < 0) {
             throw new IllegalArgumentException("Le pourboire ne peut pas être négatif");
         }
-        this.totalPourboires += montant;
+        this.totalPourboires = Montant.ajouter(totalPourboires, montant);
     }
 
     public void commencerPause() {
-        if (!commandesALivrer.isEmpty()) {
+        if (!commandesALivrer.estVide()) {
             throw new IllegalStateException("Impossible de prendre une pause avec des commandes en cours");
         }
         this.enPause = true;
@@ -246,21 +390,34 @@ public class Livreur extends Utilisateur implements Observateur {
     public void terminerPause() {
         this.enPause = false;
         updateDisponibilite();
+        signalerDisponibilite();
     }
 
     private boolean estDisponiblePourNouvelleLivraison() {
         return disponible &&
                 !enPause &&
-                commandesALivrer.size() < getCapaciteMaxLivraisons();
+                commandesALivrer.taille() < getCapaciteMaxLivraisons();
     }
 
     // Getters (retournant des copies défensives pour les collections)
     public List<Commande> getCommandesALivrer() {
-        return new ArrayList<>(commandesALivrer);
+        return commandesALivrer.instantane();
     }
 
     public List<Commande> getHistoriqueLivraisons() {
-        return new ArrayList<>(historiqueLivraisons);
+        return historiqueLivraisons.instantane();
+    }
+
+    public int getNombreLivraisonsEnCours() {
+        return commandesALivrer.taille();
+    }
+
+    public TourneeLivraison getTournee() {
+        return tournee;
+    }
+
+    public boolean isEnService() {
+        return enService;
     }
 
     public boolean isDisponible() {
@@ -292,6 +449,10 @@ public class Livreur extends Utilisateur implements Observateur {
     }
 
     public double getTotalPourboires() {
+        return Montant.enEuros(totalPourboires);
+    }
+
+    public long getTotalPourboiresCentimes() {
         return totalPourboires;
     }
 
@@ -320,7 +481,7 @@ public class Livreur extends Utilisateur implements Observateur {
                 ", zone='" + zone + '\'' +
                 ", statut=" + statut.getLibelle() +
                 ", disponible=" + disponible +
-                ", commandesEnCours=" + commandesALivrer.size() +
+                ", commandesEnCours=" + commandesALivrer.taille() +
                 '}';
     }
 }
\ No newline at end of file
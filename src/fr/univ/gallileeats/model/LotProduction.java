@@ -0,0 +1,90 @@
+package fr.univ.gallileeats.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lot de portions identiques (même plat, même pile de suppléments) regroupées
+ * depuis plusieurs commandes, préparé en une seule fois par la cuisine.
+ * Un lot n'est modifié que par {@link RegroupementProduction} tant qu'il est ouvert ;
+ * il est ensuite transmis à l'ordonnanceur et ne change plus.
+ */
+public final class LotProduction {
+    private static final AtomicInteger compteur = new AtomicInteger();
+
+    private final String numero;
+    private final MenuComponent plat;
+    private final LigneCommande supplements;
+    private final long horodatage;
+    private final List<Commande> commandes;
+    private int[] quantites;
+    private int portions;
+
+    LotProduction(MenuComponent plat, LigneCommande supplements) {
+        this.numero = "L" + compteur.incrementAndGet();
+        this.plat = plat;
+        this.supplements = supplements;
+        this.horodatage = System.currentTimeMillis();
+        this.commandes = new ArrayList<>();
+        this.quantites = new int[4];
+    }
+
+    /**
+     * Ajoute des portions pour une commande.
+     *
+     * @return true si la commande n'était pas encore dans le lot.
+     */
+    boolean ajouter(Commande commande, int quantite) {
+        portions += quantite;
+        int n = commandes.size();
+        // Une même commande peut contenir deux fois le même plat
+        if (n > 0 && commandes.get(n - 1) == commande) {
+            quantites[n - 1] += quantite;
+            return false;
+        }
+        if (n == quantites.length) {
+            quantites = Arrays.copyOf(quantites, n * 2);
+        }
+        commandes.add(commande);
+        quantites[n] = quantite;
+        return true;
+    }
+
+    // Au moins une commande du lot attend encore sa préparation
+    boolean estUtile() {
+        for (Commande commande : commandes) {
+            EtatCommande etat = commande.getEtat();
+            if (etat == EtatCommande.NOUVELLE || etat == EtatCommande.EN_PREPARATION) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String getNumero() { return numero; }
+    public MenuComponent getPlat() { return plat; }
+    public long getHorodatage() { return horodatage; }
+    public int getPortions() { return portions; }
+    public int getNombreCommandes() { return commandes.size(); }
+    public Commande getCommande(int index) { return commandes.get(index); }
+    public int getQuantite(int index) { return quantites[index]; }
+
+    public String getDescription() {
+        StringBuilder description = new StringBuilder()
+                .append(portions).append(" × ").append(plat.getNom());
+        for (int i = 0; i < supplements.getNombreSupplements(); i++) {
+            description.append(" + ").append(supplements.getNomSupplement(i));
+            if (supplements.getQuantite(i) > 1) {
+                description.append(" x").append(supplements.getQuantite(i));
+            }
+        }
+        return description.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Lot %s : %s (%d commande(s))", numero, getDescription(), commandes.size());
+    }
+}
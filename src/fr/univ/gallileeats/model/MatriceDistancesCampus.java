@@ -0,0 +1,268 @@
+package fr.univ.gallileeats.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Distances et temps de trajet précalculés entre les points de livraison connus du campus
+ * (bâtiments, résidences), lus depuis un fichier de propriétés (propriété système
+ * {@code galileeats.campus}). Entre deux points connus, la distance et la durée sont lues
+ * dans des tableaux ; pour tout autre point, la distance est géodésique et la durée en
+ * découle. Les trajets mesurés (chemins, escaliers) remplacent la distance géodésique du
+ * couple de points concerné, dans les deux sens.
+ *
+ * <pre>
+ * vitesseReference=15              # km/h, vitesse des durées du fichier
+ * point.1.nom=Bibliothèque
+ * point.1.latitude=48.9567
+ * point.1.longitude=2.3412
+ * trajet.1.depart=Bibliothèque     # facultatif : trajet mesuré entre deux points
+ * trajet.1.arrivee=Résidence A
+ * trajet.1.distance=0.85           # km
+ * trajet.1.duree=4                 # minutes à la vitesse de référence (par défaut, déduite)
+ * </pre>
+ */
+public class MatriceDistancesCampus {
+    private static final String PROPRIETE_FICHIER = "galileeats.campus";
+    private static final double VITESSE_REFERENCE_PAR_DEFAUT_KMH = 15.0;
+
+    private static volatile MatriceDistancesCampus instance;
+    private static final Object verrou = new Object();
+
+    private final String[] noms;
+    private final Livreur.Position[] positions;
+    // Matrices n × n rangées ligne par ligne
+    private final double[] distancesKm;
+    private final double[] dureesMinutes;
+    private final double vitesseReferenceKmh;
+    private final Map<Coordonnees, Integer> parCoordonnees;
+    private final Map<String, Integer> parNom;
+
+    // Coordonnées exactes d'un point connu
+    private static final class Coordonnees {
+        private final double latitude;
+        private final double longitude;
+
+        Coordonnees(double latitude, double longitude) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Coordonnees)) {
+                return false;
+            }
+            Coordonnees autre = (Coordonnees) o;
+            return Double.compare(latitude, autre.latitude) == 0 && Double.compare(longitude, autre.longitude) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Double.hashCode(latitude) + Double.hashCode(longitude);
+        }
+    }
+
+    public MatriceDistancesCampus(Properties campus) {
+        vitesseReferenceKmh = nombre(campus, "vitesseReference", VITESSE_REFERENCE_PAR_DEFAUT_KMH);
+        if (!(vitesseReferenceKmh > 0)) {
+            throw new IllegalArgumentException("La vitesse de référence doit être positive");
+        }
+        List<Integer> numeros = numeros(campus, "point.", ".nom");
+        int n = numeros.size();
+        noms = new String[n];
+        positions = new Livreur.Position[n];
+        parCoordonnees = new HashMap<>();
+        parNom = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            String prefixe = "point." + numeros.get(i) + ".";
+            noms[i] = campus.getProperty(prefixe + "nom").trim();
+            double latitude = nombre(campus, prefixe + "latitude", Double.NaN);
+            double longitude = nombre(campus, prefixe + "longitude", Double.NaN);
+            if (Double.isNaN(latitude) || Double.isNaN(longitude)) {
+                throw new IllegalArgumentException("Coordonnées manquantes pour " + prefixe);
+            }
+            if (parNom.put(cle(noms[i]), i) != null) {
+                throw new IllegalArgumentException("Point du campus en double: " + noms[i]);
+            }
+            positions[i] = new Livreur.Position(latitude, longitude, i);
+            parCoordonnees.putIfAbsent(new Coordonnees(latitude, longitude), i);
+        }
+
+        distancesKm = new double[n * n];
+        dureesMinutes = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double distance = Geodesie.haversineKm(positions[i].getLatitude(), positions[i].getLongitude(),
+                        positions[j].getLatitude(), positions[j].getLongitude());
+                renseigner(i, j, distance, distance / vitesseReferenceKmh * 60);
+            }
+        }
+        for (int numero : numeros(campus, "trajet.", ".depart")) {
+            String prefixe = "trajet." + numero + ".";
+            int depart = point(campus, prefixe + "depart");
+            int arrivee = point(campus, prefixe + "arrivee");
+            double distance = nombre(campus, prefixe + "distance", distancesKm[depart * n + arrivee]);
+            double duree = nombre(campus, prefixe + "duree", distance / vitesseReferenceKmh * 60);
+            if (distance < 0 || duree < 0) {
+                throw new IllegalArgumentException("Distance ou durée négative pour " + prefixe);
+            }
+            renseigner(depart, arrivee, distance, duree);
+        }
+    }
+
+    public static MatriceDistancesCampus getInstance() {
+        if (instance == null) {
+            synchronized (verrou) {
+                if (instance == null) {
+                    instance = chargerConfiguration();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private static MatriceDistancesCampus chargerConfiguration() {
+        String fichier = System.getProperty(PROPRIETE_FICHIER);
+        if (fichier == null || fichier.trim().isEmpty()) {
+            return new MatriceDistancesCampus(new Properties());
+        }
+        try {
+            return charger(Paths.get(fichier.trim()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Points du campus illisibles: " + e.getMessage());
+        }
+    }
+
+    public static MatriceDistancesCampus charger(Path fichier) throws IOException {
+        Properties campus = new Properties();
+        try (Reader lecteur = Files.newBufferedReader(fichier, StandardCharsets.UTF_8)) {
+            campus.load(lecteur);
+        }
+        return new MatriceDistancesCampus(campus);
+    }
+
+    /**
+     * Distance en kilomètres : lue dans la matrice entre deux points connus, géodésique sinon.
+     */
+    public double distanceKm(Livreur.Position depart, Livreur.Position arrivee) {
+        int i = rang(depart);
+        int j = rang(arrivee);
+        if (i >= 0 && j >= 0) {
+            return distancesKm[i * noms.length + j];
+        }
+        return Geodesie.haversineKm(depart.getLatitude(), depart.getLongitude(),
+                arrivee.getLatitude(), arrivee.getLongitude());
+    }
+
+    /**
+     * Durée du trajet en minutes à la vitesse donnée.
+     */
+    public double dureeMinutes(Livreur.Position depart, Livreur.Position arrivee, double vitesseKmh) {
+        int i = rang(depart);
+        int j = rang(arrivee);
+        if (i >= 0 && j >= 0) {
+            return dureesMinutes[i * noms.length + j] * vitesseReferenceKmh / vitesseKmh;
+        }
+        return distanceKm(depart, arrivee) / vitesseKmh * 60;
+    }
+
+    /**
+     * Position du point connu dont le nom est l'adresse donnée (sans tenir compte de la casse),
+     * ou null si l'adresse ne désigne aucun point du campus.
+     */
+    public Livreur.Position localiser(String adresse) {
+        if (adresse == null) {
+            return null;
+        }
+        Integer i = parNom.get(cle(adresse));
+        return i == null ? null : positions[i];
+    }
+
+    // Rang du point connu situé à ces coordonnées exactes, -1 sinon
+    int rang(double latitude, double longitude) {
+        Integer i = parCoordonnees.get(new Coordonnees(latitude, longitude));
+        return i == null ? -1 : i;
+    }
+
+    // Une position rattachée à une autre matrice n'a pas de rang valable dans celle-ci
+    private int rang(Livreur.Position position) {
+        int i = position.getPoint();
+        return i >= 0 && i < positions.length && positions[i].getLatitude() == position.getLatitude()
+                && positions[i].getLongitude() == position.getLongitude() ? i : -1;
+    }
+
+    private void renseigner(int i, int j, double distance, double duree) {
+        int n = noms.length;
+        distancesKm[i * n + j] = distancesKm[j * n + i] = distance;
+        dureesMinutes[i * n + j] = dureesMinutes[j * n + i] = duree;
+    }
+
+    public int getNombrePoints() {
+        return noms.length;
+    }
+
+    public String getNom(int point) {
+        return noms[point];
+    }
+
+    public Livreur.Position getPosition(int point) {
+        return positions[point];
+    }
+
+    public double getVitesseReferenceKmh() {
+        return vitesseReferenceKmh;
+    }
+
+    // Lecture de la configuration
+    private int point(Properties campus, String cle) {
+        String nom = campus.getProperty(cle);
+        Integer i = nom == null ? null : parNom.get(cle(nom));
+        if (i == null) {
+            throw new IllegalArgumentException("Point du campus inconnu pour " + cle + ": " + nom);
+        }
+        return i;
+    }
+
+    private static String cle(String nom) {
+        return nom.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static List<Integer> numeros(Properties campus, String prefixe, String suffixe) {
+        TreeSet<Integer> numeros = new TreeSet<>();
+        for (String cle : campus.stringPropertyNames()) {
+            if (cle.startsWith(prefixe) && cle.endsWith(suffixe)) {
+                String numero = cle.substring(prefixe.length(), cle.length() - suffixe.length());
+                try {
+                    numeros.add(Integer.parseInt(numero));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Numéro invalide: " + cle);
+                }
+            }
+        }
+        return new ArrayList<>(numeros);
+    }
+
+    private static double nombre(Properties campus, String cle, double parDefaut) {
+        String valeur = campus.getProperty(cle);
+        if (valeur == null || valeur.trim().isEmpty()) {
+            return parDefaut;
+        }
+        try {
+            return Double.parseDouble(valeur.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Nombre invalide pour " + cle + ": " + valeur);
+        }
+    }
+}
@@ -1,49 +1,65 @@
 //Menu.java
 package fr.univ.gallileeats.model;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class Menu extends MenuComponent {
-    private List<MenuComponent> elements;
+    private final ListeInstantanee<MenuComponent> elements;
     private String type;
 
     public Menu(String nom, String description, String type) {
         super(nom, description, 0);
-        this.elements = new ArrayList<>();
+        this.elements = new ListeInstantanee<>();
         this.type = type;
     }
 
     public void ajouter(MenuComponent element) {
-        elements.add(element);
+        elements.ajouter(element);
+        element.ajouterParent(this);
+        invaliderPrix();
     }
 
     public void supprimer(MenuComponent element) {
-        elements.remove(element);
+        retirer(element);
+    }
+
+    protected boolean retirer(MenuComponent element) {
+        if (!elements.retirer(element)) {
+            return false;
+        }
+        element.retirerParent(this);
+        invaliderPrix();
+        return true;
     }
 
     public MenuComponent getElement(int index) {
-        return elements.get(index);
+        return elements.instantane().get(index);
     }
 
     @Override
-    public double getPrix() {
-        return elements.stream()
-                .mapToDouble(MenuComponent::getPrix)
-                .sum();
+    protected long calculerPrix() {
+        long somme = Montant.ZERO;
+        for (MenuComponent element : elements) {
+            somme = Montant.ajouter(somme, element.getPrixCentimes());
+        }
+        return somme;
     }
 
     @Override
     public void afficher() {
         System.out.println("\n=== " + nom + " (" + type + ") ===");
         System.out.println(description);
-        System.out.println("Prix total: " + getPrix() + "€\n");
+        System.out.println("Prix total: " + Montant.formater(getPrixCentimes()) + "\n");
         elements.forEach(MenuComponent::afficher);
     }
 
     @Override
     public List<MenuComponent> getElements() {
-        return new ArrayList<>(elements);
+        return elements.instantane();
+    }
+
+    public int getNombreElements() {
+        return elements.taille();
     }
 
     public String getType() {
@@ -8,16 +8,18 @@ import java.util.Map;
 
 public class MenuBuffet extends Menu {
     private int nombrePersonnes;
-    private double prixParPersonne;
     private Map<String, Integer> minParCategorie; // Minimum de plats par catégorie
+    private Map<String, Integer> compteurCategories; // Tenu à jour à chaque ajout ou suppression
     private boolean estComplet;
+    private final Devis devis; // Réutilisé à chaque recalcul du prix, sous son propre verrou
 
     public MenuBuffet(String nom, String description, int nombrePersonnes) {
         super(nom, description, "BUFFET");
         this.nombrePersonnes = nombrePersonnes;
-        this.prixParPersonne = 0.0;
         this.minParCategorie = new HashMap<>();
+        this.compteurCategories = new HashMap<>();
         this.estComplet = false;
+        this.devis = new Devis(MoteurTarification.Cible.BUFFET);
         initialiserReglesBuffet();
     }
 
@@ -32,53 +34,45 @@ public class MenuBuffet extends Menu {
     @Override
     public void ajouter(MenuComponent plat) {
         super.ajouter(plat);
+        if (plat instanceof Plat) {
+            compteurCategories.merge(((Plat) plat).getCategorie().toUpperCase(), 1, Integer::sum);
+        }
         verifierCompletude();
-        calculerPrixParPersonne();
     }
 
     @Override
     public void supprimer(MenuComponent plat) {
-        super.supprimer(plat);
+        if (retirer(plat) && plat instanceof Plat) {
+            compteurCategories.merge(((Plat) plat).getCategorie().toUpperCase(), -1, Integer::sum);
+        }
         verifierCompletude();
-        calculerPrixParPersonne();
     }
 
     private void verifierCompletude() {
-        Map<String, Integer> compteurCategories = new HashMap<>();
-
-        // Compter les plats par catégorie
-        for (MenuComponent component : getElements()) {
-            if (component instanceof Plat) {
-                Plat plat = (Plat) component;
-                String categorie = plat.getCategorie().toUpperCase();
-                compteurCategories.merge(categorie, 1, Integer::sum);
-            }
-        }
-
         // Vérifier si toutes les catégories ont le minimum requis
-        estComplet = minParCategorie.entrySet().stream()
+        boolean complet = minParCategorie.entrySet().stream()
                 .allMatch(entry -> {
                     Integer count = compteurCategories.getOrDefault(entry.getKey(), 0);
                     return count >= entry.getValue();
                 });
-    }
-
-    private void calculerPrixParPersonne() {
-        double totalPrix = getElements().stream()
-                .mapToDouble(MenuComponent::getPrix)
-                .sum();
-
-        // Ajout d'une réduction si le buffet est complet
-        if (estComplet && nombrePersonnes >= 20) {
-            totalPrix *= 0.9; // 10% de réduction pour les grands groupes
+        if (complet != estComplet) {
+            estComplet = complet;
+            invaliderPrix();
         }
-
-        this.prixParPersonne = totalPrix / nombrePersonnes;
     }
 
     @Override
-    public double getPrix() {
-        return prixParPersonne * nombrePersonnes;
+    protected long calculerPrix() {
+        // Réductions propres aux buffets, y compris celles de groupe, selon les règles du moteur de tarification
+        long montant = super.calculerPrix();
+        synchronized (devis) {
+            devis.setMontant(montant);
+            devis.setNombrePersonnes(nombrePersonnes);
+            devis.setBuffetComplet(estComplet);
+            devis.setMenu(getNom());
+            MoteurTarification.getInstance().tarifer(devis);
+            return devis.getTotal();
+        }
     }
 
     @Override
@@ -86,7 +80,7 @@ public class MenuBuffet extends Menu {
         System.out.println("\n=== " + getNom() + " ===");
         System.out.println("Description: " + getDescription());
         System.out.println("Nombre de personnes: " + nombrePersonnes);
-        System.out.println("Prix par personne: " + String.format("%.2f€", prixParPersonne));
+        System.out.println("Prix par personne: " + String.format("%.2f€", getPrixParPersonne()));
         System.out.println("Prix total: " + String.format("%.2f€", getPrix()));
         System.out.println("Statut: " + (estComplet ? "Complet" : "Incomplet"));
 
@@ -134,11 +128,19 @@ public class MenuBuffet extends Menu {
             throw new IllegalArgumentException("Le nombre de personnes doit être positif");
         }
         this.nombrePersonnes = nombrePersonnes;
-        calculerPrixParPersonne();
+        invaliderPrix();
     }
 
     public double getPrixParPersonne() {
-        return prixParPersonne;
+        return Montant.enEuros(getPrixParPersonneCentimes());
+    }
+
+    public long getPrixParPersonneCentimes() {
+        return Montant.diviser(getPrixCentimes(), nombrePersonnes);
+    }
+
+    public Map<String, Integer> getNombrePlatsParCategorie() {
+        return new HashMap<>(compteurCategories);
     }
 
     public boolean estComplet() {
@@ -158,11 +160,4 @@ public class MenuBuffet extends Menu {
         verifierCompletude();
         return true;
     }
-
-    public void appliquerReductionGroupe(double pourcentage) {
-        if (pourcentage < 0 || pourcentage > 100) {
-            throw new IllegalArgumentException("Le pourcentage doit être entre 0 et 100");
-        }
-        this.prixParPersonne *= (1 - pourcentage / 100);
-    }
 }
\ No newline at end of file
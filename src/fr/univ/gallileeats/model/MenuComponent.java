@@ -1,23 +1,108 @@
 //MenuComponent.java
 package fr.univ.gallileeats.model;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Composant du menu dont le prix, en centimes, est mis en cache.
+ * Le prix n'est recalculé qu'après invalidation ; l'invalidation d'un composant
+ * remonte à tous les menus et décorateurs qui le contiennent.
+ * Chaque invalidation change la version du composant : un prix calculé n'est mis en cache
+ * que si aucune invalidation n'est survenue pendant son calcul.
+ */
 public abstract class MenuComponent {
     protected String nom;
     protected String description;
-    protected double prix;
+    protected long prix; // En centimes
+
+    // Prix calculé et version du composant pour laquelle il l'a été, publiés ensemble
+    private static final class PrixEnCache {
+        private final long prix;
+        private final long version;
+
+        PrixEnCache(long prix, long version) {
+            this.prix = prix;
+            this.version = version;
+        }
+    }
+
+    // Composants contenant celui-ci, à invalider quand son prix change. Références faibles :
+    // les décorateurs d'une commande ne retiennent pas le menu du catalogue qu'ils décorent
+    private final Set<MenuComponent> parents;
+    private final AtomicLong version;
+    private volatile PrixEnCache prixEnCache;
 
     public MenuComponent(String nom, String description, double prix) {
         this.nom = nom;
         this.description = description;
-        this.prix = prix;
+        this.prix = Montant.depuisEuros(prix);
+        this.parents = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+        this.version = new AtomicLong();
     }
 
-    public abstract double getPrix();
+    public long getPrixCentimes() {
+        long versionLue = version.get();
+        PrixEnCache cache = prixEnCache;
+        if (cache != null && cache.version == versionLue) {
+            return cache.prix;
+        }
+        long prixCalcule = calculerPrix();
+        // Une invalidation pendant le calcul rend ce prix peut-être périmé : il n'est pas conservé
+        if (version.get() == versionLue) {
+            prixEnCache = new PrixEnCache(prixCalcule, versionLue);
+        }
+        return prixCalcule;
+    }
+
+    // Prix en euros, pour l'affichage
+    public double getPrix() {
+        return Montant.enEuros(getPrixCentimes());
+    }
+
+    /**
+     * Calcule le prix du composant en centimes ; appelé uniquement lorsque le cache est invalide.
+     */
+    protected abstract long calculerPrix();
+
     public abstract void afficher();
     public abstract List<MenuComponent> getElements();
 
     public String getNom() { return nom; }
     public String getDescription() { return description; }
-}
\ No newline at end of file
+
+    // Gestion du cache
+    protected void invaliderPrix() {
+        // Parcours itératif : une longue chaîne de suppléments ne fait pas déborder la pile.
+        // Un parent peut avoir mis son prix en cache pendant que celui d'un enfant était invalide,
+        // la remontée va donc toujours jusqu'au bout.
+        ArrayDeque<MenuComponent> aInvalider = new ArrayDeque<>();
+        aInvalider.push(this);
+        while (!aInvalider.isEmpty()) {
+            MenuComponent composant = aInvalider.pop();
+            composant.version.incrementAndGet();
+            for (MenuComponent parent : composant.getParents()) {
+                aInvalider.push(parent);
+            }
+        }
+    }
+
+    void ajouterParent(MenuComponent parent) {
+        parents.add(parent);
+    }
+
+    void retirerParent(MenuComponent parent) {
+        parents.remove(parent);
+    }
+
+    List<MenuComponent> getParents() {
+        synchronized (parents) {
+            return new ArrayList<>(parents);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package fr.univ.gallileeats.model;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Modèles des notifications, un texte par langue ({@link Utilisateur#getLangue()}, français
+ * par défaut). Chaque texte est découpé une fois pour toutes en morceaux fixes et en numéros
+ * de valeurs ({0}, {1}...) : la mise en forme se réduit à une suite d'ajouts, faite
+ * seulement à la lecture de la notification.
+ */
+public enum ModeleNotification {
+    COMMANDE_ETAT(
+            "Votre commande {0} est maintenant {1}",
+            "Your order {0} is now {1}"),
+    LIVRAISON_AFFECTEE(
+            "Nouvelle commande disponible pour livraison : {0}\nClient : {1}\nAdresse : {2}\nLivraison estimée : {3} min",
+            "New order available for delivery: {0}\nCustomer: {1}\nAddress: {2}\nEstimated delivery: {3} min"),
+    EVENEMENT_ETAT(
+            "La commande pour l'événement '{0}' est passée à l'état: {1}",
+            "The order for the event '{0}' is now: {1}"),
+    LOT_A_PREPARER(
+            "Nouveau lot à préparer : {0}",
+            "New batch to prepare: {0}"),
+    NOTIFICATIONS_PERDUES(
+            "{0} notification(s) perdue(s) : boîte de réception pleine",
+            "{0} notification(s) lost: inbox full");
+
+    // Langues disponibles, dans l'ordre des textes de chaque modèle
+    private static final String[] LANGUES = {"FR", "EN"};
+    private static final Map<EtatCommande, String> ETATS_EN = new EnumMap<>(EtatCommande.class);
+
+    static {
+        ETATS_EN.put(EtatCommande.NOUVELLE, "New order");
+        ETATS_EN.put(EtatCommande.EN_PREPARATION, "Being prepared");
+        ETATS_EN.put(EtatCommande.PRETE, "Ready");
+        ETATS_EN.put(EtatCommande.EN_LIVRAISON, "Out for delivery");
+        ETATS_EN.put(EtatCommande.LIVREE, "Delivered");
+        ETATS_EN.put(EtatCommande.SERVIE, "Served");
+        ETATS_EN.put(EtatCommande.ANNULEE, "Cancelled");
+    }
+
+    // Par langue : morceaux fixes, et numéro de la valeur qui suit chacun (-1 pour le dernier)
+    private final String[][] morceaux;
+    private final int[][] valeurs;
+
+    ModeleNotification(String... textes) {
+        morceaux = new String[textes.length][];
+        valeurs = new int[textes.length][];
+        for (int langue = 0; langue < textes.length; langue++) {
+            compiler(langue, textes[langue]);
+        }
+    }
+
+    private void compiler(int langue, String texte) {
+        List<String> fixes = new ArrayList<>();
+        List<Integer> numeros = new ArrayList<>();
+        int debut = 0;
+        int ouverture;
+        while ((ouverture = texte.indexOf('{', debut)) >= 0) {
+            int fermeture = texte.indexOf('}', ouverture);
+            if (fermeture < 0) {
+                throw new IllegalArgumentException("Modèle de notification mal formé: " + texte);
+            }
+            fixes.add(texte.substring(debut, ouverture));
+            numeros.add(Integer.parseInt(texte.substring(ouverture + 1, fermeture)));
+            debut = fermeture + 1;
+        }
+        fixes.add(texte.substring(debut));
+        numeros.add(-1);
+        morceaux[langue] = fixes.toArray(new String[0]);
+        valeurs[langue] = numeros.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Met en forme le modèle dans la langue donnée (français si elle n'est pas disponible).
+     */
+    public String rendre(String langue, Object v0, Object v1, Object v2, Object v3) {
+        int l = rang(langue);
+        String[] fixes = morceaux[l];
+        int[] numeros = valeurs[l];
+        StringBuilder texte = new StringBuilder(96);
+        for (int i = 0; i < fixes.length; i++) {
+            texte.append(fixes[i]);
+            switch (numeros[i]) {
+                case 0: ajouter(texte, v0, l); break;
+                case 1: ajouter(texte, v1, l); break;
+                case 2: ajouter(texte, v2, l); break;
+                case 3: ajouter(texte, v3, l); break;
+                default: break;
+            }
+        }
+        return texte.toString();
+    }
+
+    private static void ajouter(StringBuilder texte, Object valeur, int langue) {
+        if (valeur instanceof EtatCommande) {
+            EtatCommande etat = (EtatCommande) valeur;
+            texte.append(LANGUES[langue].equals("EN") ? ETATS_EN.get(etat) : etat.getLibelle());
+        } else {
+            texte.append(valeur);
+        }
+    }
+
+    private static int rang(String langue) {
+        if (langue != null) {
+            String code = langue.toUpperCase(Locale.ROOT);
+            for (int i = 0; i < LANGUES.length; i++) {
+                if (LANGUES[i].equals(code)) {
+                    return i;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,129 @@
+package fr.univ.gallileeats.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Arithmétique monétaire en virgule fixe : les montants sont des {@code long}
+ * exprimés en centimes d'euro, et les taux des {@code int} en points de base
+ * (1 % = 100 points de base).
+ * Les opérations sont exactes ou arrondies au centime le plus proche, un demi-centime
+ * étant arrondi en s'éloignant de zéro (arrondi commercial). Elles lèvent une
+ * {@link ArithmeticException} en cas de dépassement plutôt que de perdre silencieusement
+ * de la précision, et n'allouent rien.
+ * Les euros en {@code double} ne servent qu'en entrée (saisie, catalogue) et à l'affichage.
+ */
+public final class Montant {
+    public static final long ZERO = 0L;
+
+    private static final long CENTIMES_PAR_EURO = 100L;
+    private static final long POINTS_DE_BASE_PAR_UNITE = 10_000L;
+
+    private Montant() {
+    }
+
+    // Conversions aux frontières
+    /**
+     * Convertit une saisie en euros en centimes, à partir de son écriture décimale
+     * (2.675 donne 268 centimes, là où 2.675 * 100 vaut 267.49999...).
+     */
+    public static long depuisEuros(double euros) {
+        if (Double.isNaN(euros) || Double.isInfinite(euros)) {
+            throw new IllegalArgumentException("Montant invalide: " + euros);
+        }
+        return BigDecimal.valueOf(euros).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Lit un montant en euros écrit avec un point ou une virgule ("12", "12.5", "12,50").
+     */
+    public static long depuisTexte(String texte) {
+        if (texte == null || texte.trim().isEmpty()) {
+            throw new IllegalArgumentException("Montant manquant");
+        }
+        try {
+            return new BigDecimal(texte.trim().replace(',', '.'))
+                    .setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Montant invalide: " + texte);
+        }
+    }
+
+    /**
+     * Lit un pourcentage ("15", "12.5") en points de base.
+     */
+    public static int pointsDeBase(String pourcentage) {
+        if (pourcentage == null || pourcentage.trim().isEmpty()) {
+            throw new IllegalArgumentException("Pourcentage manquant");
+        }
+        try {
+            return new BigDecimal(pourcentage.trim().replace(',', '.'))
+                    .movePointRight(2).setScale(0, RoundingMode.HALF_UP).intValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Pourcentage invalide: " + pourcentage);
+        }
+    }
+
+    public static double enEuros(long centimes) {
+        return centimes / (double) CENTIMES_PAR_EURO;
+    }
+
+    public static BigDecimal enBigDecimal(long centimes) {
+        return BigDecimal.valueOf(centimes, 2);
+    }
+
+    public static String formater(long centimes) {
+        long absolu = Math.abs(centimes);
+        long reste = absolu % CENTIMES_PAR_EURO;
+        return (centimes < 0 ? "-" : "") + absolu / CENTIMES_PAR_EURO + (reste < 10 ? ".0" : ".") + reste + "€";
+    }
+
+    // Arithmétique
+    public static long ajouter(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long soustraire(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    public static long multiplier(long montant, long quantite) {
+        return Math.multiplyExact(montant, quantite);
+    }
+
+    /**
+     * Divise un montant en arrondissant au centime le plus proche (prix par personne, par exemple).
+     */
+    public static long diviser(long montant, long diviseur) {
+        if (diviseur == 0) {
+            throw new ArithmeticException("Division d'un montant par zéro");
+        }
+        return arrondir(montant, diviseur);
+    }
+
+    /**
+     * Part d'un montant correspondant au taux donné en points de base, arrondie au centime.
+     */
+    public static long appliquerTaux(long montant, long pointsDeBase) {
+        return arrondir(Math.multiplyExact(montant, pointsDeBase), POINTS_DE_BASE_PAR_UNITE);
+    }
+
+    // Le montant réduit est arrondi lui-même (10 centimes à -15 % donnent 9 centimes, pas 8)
+    public static long reduire(long montant, long pointsDeBase) {
+        return appliquerTaux(montant, Math.subtractExact(POINTS_DE_BASE_PAR_UNITE, pointsDeBase));
+    }
+
+    public static long majorer(long montant, long pointsDeBase) {
+        return Math.addExact(montant, appliquerTaux(montant, pointsDeBase));
+    }
+
+    // Quotient arrondi au plus proche, le demi s'éloignant de zéro
+    private static long arrondir(long dividende, long diviseur) {
+        long quotient = dividende / diviseur;
+        long reste = dividende % diviseur;
+        if (2 * Math.abs(reste) >= Math.abs(diviseur)) {
+            quotient += (dividende < 0) == (diviseur < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,351 @@
+package fr.univ.gallileeats.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Moteur de tarification : réductions et frais décrits par des règles déclaratives.
+ * Les règles sont lues depuis un fichier de propriétés (propriété système
+ * {@code galileeats.tarification}) ou, à défaut, depuis les règles par défaut,
+ * puis compilées une fois pour toutes en tableaux parallèles.
+ * Elles s'appliquent dans l'ordre de leur numéro, chacune sur le montant courant ;
+ * l'évaluation d'un {@link Devis} ne fait aucune allocation. Chaque pourcentage est
+ * arrondi au centime dès son application (voir {@link Montant}).
+ *
+ * <pre>
+ * regle.1.libelle=Réduction groupe (-10%)
+ * regle.1.effet=REDUCTION          # REDUCTION (au plus 100), MAJORATION (en %), REMISE, FRAIS (en €)
+ * regle.1.valeur=10
+ * regle.1.cible=COMMANDE           # COMMANDE (par défaut) ou BUFFET
+ * regle.1.personnesMin=20          # conditions facultatives :
+ * # personnesMax, etudiant, role, mode (liste), buffetComplet, menu (nom exact),
+ * # montantMin (inclus), montantMax (exclu), heureDebut, heureFin (HH:mm)
+ * </pre>
+ * Une réduction de groupe propre à un buffet est une règle ciblant ce buffet par son nom.
+ */
+public class MoteurTarification {
+    public enum Cible { COMMANDE, BUFFET }
+
+    public enum Effet {
+        REDUCTION,  // Pourcentage retiré du montant courant
+        MAJORATION, // Pourcentage ajouté au montant courant
+        REMISE,     // Montant fixe retiré
+        FRAIS       // Montant fixe ajouté
+    }
+
+    private static final String PROPRIETE_FICHIER = "galileeats.tarification";
+    private static final int REGLES_MAX = 64;
+    private static final int INDIFFERENT = -1;
+    private static final int TOUS_MODES = ~0;
+    // Réduction maximale, en points de base : au-delà, le montant deviendrait négatif
+    private static final long REDUCTION_MAX = 10_000L;
+
+    private static volatile MoteurTarification instance;
+    private static final Object verrou = new Object();
+
+    // Pipeline compilé : une case par règle, dans l'ordre d'application
+    private final String[] libelles;
+    private final Effet[] effets;
+    private final long[] valeurs; // Points de base (REDUCTION, MAJORATION) ou centimes (REMISE, FRAIS)
+    private final Cible[] cibles;
+    private final int[] personnesMin;
+    private final int[] personnesMax;
+    private final int[] masquesModes;
+    private final int[] etudiant;
+    private final String[] roles;
+    private final int[] buffetComplet;
+    private final String[] menus;
+    private final long[] montantsMin; // En centimes
+    private final long[] montantsMax;
+    private final int[] minutesDebut;
+    private final int[] minutesFin;
+    private final long masqueReductions;
+
+    public MoteurTarification(Properties regles) {
+        List<Integer> numeros = numerosDeRegles(regles);
+        if (numeros.size() > REGLES_MAX) {
+            throw new IllegalArgumentException("Au plus " + REGLES_MAX + " règles de tarification sont permises");
+        }
+
+        int n = numeros.size();
+        libelles = new String[n];
+        effets = new Effet[n];
+        valeurs = new long[n];
+        cibles = new Cible[n];
+        personnesMin = new int[n];
+        personnesMax = new int[n];
+        masquesModes = new int[n];
+        etudiant = new int[n];
+        roles = new String[n];
+        buffetComplet = new int[n];
+        menus = new String[n];
+        montantsMin = new long[n];
+        montantsMax = new long[n];
+        minutesDebut = new int[n];
+        minutesFin = new int[n];
+
+        long reductions = 0;
+        for (int i = 0; i < n; i++) {
+            String prefixe = "regle." + numeros.get(i) + ".";
+            libelles[i] = regles.getProperty(prefixe + "libelle").trim();
+            effets[i] = Effet.valueOf(requise(regles, prefixe + "effet").toUpperCase());
+            String valeur = requise(regles, prefixe + "valeur");
+            valeurs[i] = effets[i] == Effet.REDUCTION || effets[i] == Effet.MAJORATION
+                    ? Montant.pointsDeBase(valeur) : Montant.depuisTexte(valeur);
+            if (valeurs[i] < 0 || (effets[i] == Effet.REDUCTION && valeurs[i] > REDUCTION_MAX)) {
+                throw new IllegalArgumentException("Valeur invalide pour " + prefixe + "valeur");
+            }
+            cibles[i] = Cible.valueOf(regles.getProperty(prefixe + "cible", "COMMANDE").trim().toUpperCase());
+            personnesMin[i] = (int) nombre(regles, prefixe + "personnesMin", 0);
+            personnesMax[i] = (int) nombre(regles, prefixe + "personnesMax", Integer.MAX_VALUE);
+            masquesModes[i] = masqueModes(regles.getProperty(prefixe + "mode"));
+            etudiant[i] = booleen(regles.getProperty(prefixe + "etudiant"));
+            String role = regles.getProperty(prefixe + "role");
+            roles[i] = role == null ? null : role.trim().toUpperCase();
+            buffetComplet[i] = booleen(regles.getProperty(prefixe + "buffetComplet"));
+            String menu = regles.getProperty(prefixe + "menu");
+            menus[i] = menu == null || menu.trim().isEmpty() ? null : menu.trim();
+            montantsMin[i] = montant(regles, prefixe + "montantMin", Long.MIN_VALUE);
+            montantsMax[i] = montant(regles, prefixe + "montantMax", Long.MAX_VALUE);
+            minutesDebut[i] = minutes(regles.getProperty(prefixe + "heureDebut"));
+            minutesFin[i] = minutes(regles.getProperty(prefixe + "heureFin"));
+            if ((minutesDebut[i] == INDIFFERENT) != (minutesFin[i] == INDIFFERENT)) {
+                throw new IllegalArgumentException("heureDebut et heureFin vont ensemble pour " + prefixe);
+            }
+            if (effets[i] == Effet.REDUCTION || effets[i] == Effet.REMISE) {
+                reductions |= 1L << i;
+            }
+        }
+        this.masqueReductions = reductions;
+    }
+
+    public static MoteurTarification getInstance() {
+        if (instance == null) {
+            synchronized (verrou) {
+                if (instance == null) {
+                    instance = chargerConfiguration();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private static MoteurTarification chargerConfiguration() {
+        String fichier = System.getProperty(PROPRIETE_FICHIER);
+        if (fichier == null || fichier.trim().isEmpty()) {
+            return new MoteurTarification(reglesParDefaut());
+        }
+        try {
+            return charger(Paths.get(fichier.trim()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Règles de tarification illisibles: " + e.getMessage());
+        }
+    }
+
+    public static MoteurTarification charger(Path fichier) throws IOException {
+        Properties regles = new Properties();
+        try (Reader lecteur = Files.newBufferedReader(fichier, StandardCharsets.UTF_8)) {
+            regles.load(lecteur);
+        }
+        return new MoteurTarification(regles);
+    }
+
+    /**
+     * Règles historiques de l'application : réduction de groupe, réduction étudiant,
+     * frais de livraison des petites commandes et réduction des buffets complets.
+     */
+    public static Properties reglesParDefaut() {
+        Properties regles = new Properties();
+        regles.setProperty("regle.1.libelle", "Réduction groupe (-10%)");
+        regles.setProperty("regle.1.effet", "REDUCTION");
+        regles.setProperty("regle.1.valeur", "10");
+        regles.setProperty("regle.1.personnesMin", "20");
+
+        regles.setProperty("regle.2.libelle", "Réduction étudiant (-15%)");
+        regles.setProperty("regle.2.effet", "REDUCTION");
+        regles.setProperty("regle.2.valeur", "15");
+        regles.setProperty("regle.2.etudiant", "true");
+
+        regles.setProperty("regle.3.libelle", "Frais de livraison (+2.50€)");
+        regles.setProperty("regle.3.effet", "FRAIS");
+        regles.setProperty("regle.3.valeur", "2.5");
+        regles.setProperty("regle.3.mode", "LIVRAISON");
+        regles.setProperty("regle.3.montantMax", "20");
+
+        regles.setProperty("regle.4.libelle", "Buffet complet pour grand groupe (-10%)");
+        regles.setProperty("regle.4.effet", "REDUCTION");
+        regles.setProperty("regle.4.valeur", "10");
+        regles.setProperty("regle.4.cible", "BUFFET");
+        regles.setProperty("regle.4.personnesMin", "20");
+        regles.setProperty("regle.4.buffetComplet", "true");
+        return regles;
+    }
+
+    /**
+     * Évalue le pipeline sur le devis et y inscrit le total et les règles appliquées.
+     */
+    public void tarifer(Devis devis) {
+        long montant = devis.getMontant();
+        long appliquees = 0;
+        Cible cible = devis.getCible();
+        int personnes = devis.getNombrePersonnes();
+        int mode = devis.getModeLivraison() == null ? 0 : 1 << devis.getModeLivraison().ordinal();
+        int estEtudiant = devis.estEtudiant() ? 1 : 0;
+        int estComplet = devis.estBuffetComplet() ? 1 : 0;
+        int minute = devis.getMinuteDuJour();
+
+        for (int i = 0; i < effets.length; i++) {
+            if (cibles[i] != cible
+                    || personnes < personnesMin[i] || personnes > personnesMax[i]
+                    || (masquesModes[i] != TOUS_MODES && (masquesModes[i] & mode) == 0)
+                    || (etudiant[i] != INDIFFERENT && etudiant[i] != estEtudiant)
+                    || (roles[i] != null && !roles[i].equals(devis.getRole()))
+                    || (buffetComplet[i] != INDIFFERENT && buffetComplet[i] != estComplet)
+                    || (menus[i] != null && !menus[i].equals(devis.getMenu()))
+                    || montant < montantsMin[i] || montant >= montantsMax[i]
+                    || !dansPlageHoraire(i, minute)) {
+                continue;
+            }
+            switch (effets[i]) {
+                case REDUCTION:
+                    montant = Montant.reduire(montant, valeurs[i]);
+                    break;
+                case MAJORATION:
+                    montant = Montant.majorer(montant, valeurs[i]);
+                    break;
+                case REMISE:
+                    montant = Math.max(Montant.ZERO, Montant.soustraire(montant, valeurs[i]));
+                    break;
+                case FRAIS:
+                    montant = Montant.ajouter(montant, valeurs[i]);
+                    break;
+            }
+            appliquees |= 1L << i;
+        }
+        devis.setResultat(montant, appliquees);
+    }
+
+    private boolean dansPlageHoraire(int regle, int minute) {
+        int debut = minutesDebut[regle];
+        if (debut == INDIFFERENT) {
+            return true;
+        }
+        int fin = minutesFin[regle];
+        // Une plage dont la fin précède le début passe minuit
+        return debut <= fin ? minute >= debut && minute < fin : minute >= debut || minute < fin;
+    }
+
+    // Consultation des règles
+    public int getNombreRegles() {
+        return effets.length;
+    }
+
+    public String getLibelle(int regle) {
+        return libelles[regle];
+    }
+
+    public Effet getEffet(int regle) {
+        return effets[regle];
+    }
+
+    /**
+     * Libellés des réductions (pourcentages ou remises) présentes dans un masque de règles appliquées.
+     */
+    public List<String> getLibellesReductions(long reglesAppliquees) {
+        List<String> resultat = new ArrayList<>();
+        long masque = reglesAppliquees & masqueReductions;
+        while (masque != 0) {
+            int regle = Long.numberOfTrailingZeros(masque);
+            resultat.add(libelles[regle]);
+            masque &= masque - 1;
+        }
+        return resultat;
+    }
+
+    // Lecture de la configuration
+    private static List<Integer> numerosDeRegles(Properties regles) {
+        TreeSet<Integer> numeros = new TreeSet<>();
+        for (String cle : regles.stringPropertyNames()) {
+            if (cle.startsWith("regle.") && cle.endsWith(".libelle")) {
+                String numero = cle.substring("regle.".length(), cle.length() - ".libelle".length());
+                try {
+                    numeros.add(Integer.parseInt(numero));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Numéro de règle invalide: " + cle);
+                }
+            }
+        }
+        return new ArrayList<>(numeros);
+    }
+
+    private static String requise(Properties regles, String cle) {
+        String valeur = regles.getProperty(cle);
+        if (valeur == null || valeur.trim().isEmpty()) {
+            throw new IllegalArgumentException("Propriété de tarification manquante: " + cle);
+        }
+        return valeur.trim();
+    }
+
+    private static double nombre(Properties regles, String cle, double parDefaut) {
+        String valeur = regles.getProperty(cle);
+        if (valeur == null || valeur.trim().isEmpty()) {
+            return parDefaut;
+        }
+        try {
+            return Double.parseDouble(valeur.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Nombre invalide pour " + cle + ": " + valeur);
+        }
+    }
+
+    private static long montant(Properties regles, String cle, long parDefaut) {
+        String valeur = regles.getProperty(cle);
+        if (valeur == null || valeur.trim().isEmpty()) {
+            return parDefaut;
+        }
+        return Montant.depuisTexte(valeur);
+    }
+
+    private static int booleen(String valeur) {
+        if (valeur == null || valeur.trim().isEmpty()) {
+            return INDIFFERENT;
+        }
+        return Boolean.parseBoolean(valeur.trim()) ? 1 : 0;
+    }
+
+    private static int masqueModes(String valeur) {
+        if (valeur == null || valeur.trim().isEmpty()) {
+            return TOUS_MODES;
+        }
+        int masque = 0;
+        for (String mode : valeur.split(",")) {
+            masque |= 1 << Commande.ModeLivraison.valueOf(mode.trim().toUpperCase()).ordinal();
+        }
+        return masque;
+    }
+
+    private static int minutes(String valeur) {
+        if (valeur == null || valeur.trim().isEmpty()) {
+            return INDIFFERENT;
+        }
+        String[] parties = valeur.trim().split(":");
+        try {
+            int heures = Integer.parseInt(parties[0]);
+            int minutes = parties.length > 1 ? Integer.parseInt(parties[1]) : 0;
+            if (heures < 0 || heures > 24 || minutes < 0 || minutes > 59) {
+                throw new NumberFormatException();
+            }
+            return heures * 60 + minutes;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Heure invalide (HH:mm attendu): " + valeur);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package fr.univ.gallileeats.model;
+
+/**
+ * Notification en attente de lecture : un modèle et les quelques valeurs figées au moment
+ * de l'événement. Le texte n'est construit qu'à la lecture, dans la langue du lecteur.
+ */
+public final class Notification {
+    private final ModeleNotification modele;
+    private final Object v0;
+    private final Object v1;
+    private final Object v2;
+    private final Object v3;
+
+    private Notification(ModeleNotification modele, Object v0, Object v1, Object v2, Object v3) {
+        if (modele == null) {
+            throw new IllegalArgumentException("Le modèle de notification est requis");
+        }
+        this.modele = modele;
+        this.v0 = v0;
+        this.v1 = v1;
+        this.v2 = v2;
+        this.v3 = v3;
+    }
+
+    public static Notification de(ModeleNotification modele, Object v0) {
+        return new Notification(modele, v0, null, null, null);
+    }
+
+    public static Notification de(ModeleNotification modele, Object v0, Object v1) {
+        return new Notification(modele, v0, v1, null, null);
+    }
+
+    public static Notification de(ModeleNotification modele, Object v0, Object v1, Object v2, Object v3) {
+        return new Notification(modele, v0, v1, v2, v3);
+    }
+
+    public ModeleNotification getModele() {
+        return modele;
+    }
+
+    public String rendre(String langue) {
+        return modele.rendre(langue, v0, v1, v2, v3);
+    }
+}
@@ -6,7 +6,7 @@ import java.util.List;
 
 public class OptionSupplement extends PlatDecore {
     private String nomSupplement;
-    private double prixSupplement;
+    private long prixSupplement; // En centimes
     private boolean disponible;
     private int quantite;
     private String description;
@@ -35,7 +35,7 @@ public class OptionSupplement extends PlatDecore {
                             String description) {
         super(plat);
         this.nomSupplement = nomSupplement;
-        this.prixSupplement = prixSupplement;
+        this.prixSupplement = Montant.depuisEuros(prixSupplement);
         this.typeSupplement = typeSupplement;
         this.description = description;
         this.disponible = true;
@@ -48,17 +48,32 @@ public class OptionSupplement extends PlatDecore {
     }
 
     @Override
-    public double getPrix() {
-        return plat.getPrix() + (prixSupplement * quantite);
+    protected long calculerPrix() {
+        // Parcours itératif de la chaîne : pas de récursion quel que soit le nombre de suppléments
+        long total = Montant.ZERO;
+        MenuComponent courant = this;
+        while (courant instanceof OptionSupplement) {
+            OptionSupplement option = (OptionSupplement) courant;
+            total = Montant.ajouter(total, option.getPrixSupplementaireCentimes());
+            courant = option.getPlatDeBase();
+        }
+        return Montant.ajouter(total, courant.getPrixCentimes());
+    }
+
+    /**
+     * Fige la chaîne de suppléments en une ligne de commande plate et immuable.
+     */
+    public LigneCommande compiler() {
+        return LigneCommande.compiler(this);
     }
 
     @Override
     public void afficher() {
         plat.afficher();
         if (disponible) {
-            System.out.printf("  + %s (%s) : %.2f€ x%d%n",
+            System.out.printf("  + %s (%s) : %s x%d%n",
                     nomSupplement, typeSupplement.getLibelle(),
-                    prixSupplement, quantite);
+                    Montant.formater(prixSupplement), quantite);
             if (description != null && !description.isEmpty()) {
                 System.out.println("    " + description);
             }
@@ -71,8 +86,8 @@ public class OptionSupplement extends PlatDecore {
     }
 
     @Override
-    public double getPrixSupplementaire() {
-        return prixSupplement * quantite;
+    public long getPrixSupplementaireCentimes() {
+        return Montant.multiplier(prixSupplement, quantite);
     }
 
     // Méthodes spécifiques aux suppléments
@@ -81,11 +96,13 @@ public class OptionSupplement extends PlatDecore {
             throw new IllegalStateException("Ce supplément n'est pas disponible");
         }
         quantite++;
+        invaliderPrix();
     }
 
     public void diminuerQuantite() {
         if (quantite > 1) {
             quantite--;
+            invaliderPrix();
         }
     }
 
@@ -94,6 +111,7 @@ public class OptionSupplement extends PlatDecore {
             throw new IllegalArgumentException("La quantité doit être au moins de 1");
         }
         this.quantite = quantite;
+        invaliderPrix();
     }
 
     // Vérification de la compatibilité des suppléments
@@ -112,14 +130,19 @@ public class OptionSupplement extends PlatDecore {
     }
 
     public double getPrixSupplement() {
+        return Montant.enEuros(prixSupplement);
+    }
+
+    public long getPrixSupplementCentimes() {
         return prixSupplement;
     }
 
-    public void setPrixSupplement(double prixSupplement) {
+    public void setPrixSupplement(long prixSupplement) {
         if (prixSupplement < 0) {
             throw new IllegalArgumentException("Le prix du supplément ne peut pas être négatif");
         }
         this.prixSupplement = prixSupplement;
+        invaliderPrix();
     }
 
     public boolean isDisponible() {
@@ -148,27 +171,28 @@ public class OptionSupplement extends PlatDecore {
 
     @Override
     public String toString() {
-        return String.format("%s + %s (%s) - %.2f€ x%d %s",
+        return String.format("%s + %s (%s) - %s x%d %s",
                 plat.getNom(), nomSupplement, typeSupplement.getLibelle(),
-                prixSupplement, quantite, disponible ? "" : "[Non disponible]");
+                Montant.formater(prixSupplement), quantite, disponible ? "" : "[Non disponible]");
     }
 
     // Méthode utilitaire pour vérifier si le plat contient déjà un certain type de supplément
     public boolean contientTypeSupplement(TypeSupplement type) {
-        if (this.typeSupplement == type) {
-            return true;
-        }
-        if (plat instanceof OptionSupplement) {
-            return ((OptionSupplement) plat).contientTypeSupplement(type);
+        for (MenuComponent courant = this; courant instanceof OptionSupplement;
+             courant = ((OptionSupplement) courant).getPlatDeBase()) {
+            if (((OptionSupplement) courant).typeSupplement == type) {
+                return true;
+            }
         }
         return false;
     }
 
     // Méthode pour calculer le prix total des suppléments
-    public double getPrixTotalSupplements() {
-        double total = this.getPrixSupplementaire();
-        if (plat instanceof OptionSupplement) {
-            total += ((OptionSupplement) plat).getPrixTotalSupplements();
+    public long getPrixTotalSupplementsCentimes() {
+        long total = Montant.ZERO;
+        for (MenuComponent courant = this; courant instanceof OptionSupplement;
+             courant = ((OptionSupplement) courant).getPlatDeBase()) {
+            total = Montant.ajouter(total, ((OptionSupplement) courant).getPrixSupplementaireCentimes());
         }
         return total;
     }
@@ -176,9 +200,9 @@ public class OptionSupplement extends PlatDecore {
     // Méthode pour obtenir la liste de tous les suppléments
     public List<OptionSupplement> getTousSupplements() {
         List<OptionSupplement> supplements = new ArrayList<>();
-        supplements.add(this);
-        if (plat instanceof OptionSupplement) {
-            supplements.addAll(((OptionSupplement) plat).getTousSupplements());
+        for (MenuComponent courant = this; courant instanceof OptionSupplement;
+             courant = ((OptionSupplement) courant).getPlatDeBase()) {
+            supplements.add((OptionSupplement) courant);
         }
         return supplements;
     }
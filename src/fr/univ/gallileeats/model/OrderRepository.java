@@ -0,0 +1,188 @@
+package fr.univ.gallileeats.model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Référentiel central de toutes les commandes de l'application.
+ * Maintient des index secondaires (numéro, état, client, livreur, événement)
+ * mis à jour à chaque changement de la commande, afin d'éviter de parcourir
+ * les listes de commandes de chaque utilisateur.
+ */
+public class OrderRepository {
+    private static volatile OrderRepository instance;
+    private static final Object verrou = new Object();
+
+    private final Map<String, Commande> parNumero;
+    private final Map<EtatCommande, Set<Commande>> parEtat;
+    private final Set<Commande> sansEtat;
+    private final Map<String, Set<Commande>> parClient;
+    private final Map<Livreur, Set<Commande>> parLivreur;
+    private final Map<String, Set<Commande>> parEvenement;
+
+    private OrderRepository() {
+        this.parNumero = new ConcurrentHashMap<>();
+        this.parEtat = new EnumMap<>(EtatCommande.class);
+        for (EtatCommande etat : EtatCommande.values()) {
+            parEtat.put(etat, ConcurrentHashMap.newKeySet());
+        }
+        this.sansEtat = ConcurrentHashMap.newKeySet();
+        this.parClient = new ConcurrentHashMap<>();
+        this.parLivreur = new ConcurrentHashMap<>();
+        this.parEvenement = new ConcurrentHashMap<>();
+    }
+
+    public static OrderRepository getInstance() {
+        if (instance == null) {
+            synchronized (verrou) {
+                if (instance == null) {
+                    instance = new OrderRepository();
+                }
+            }
+        }
+        return instance;
+    }
+
+    // Enregistrement
+    public void enregistrer(Commande commande) {
+        if (commande == null) {
+            throw new IllegalArgumentException("La commande ne peut pas être nulle");
+        }
+        if (parNumero.putIfAbsent(cle(commande.getNumeroCommande()), commande) != null) {
+            return;
+        }
+
+        bucketEtat(commande.getEtat()).add(commande);
+        parClient.computeIfAbsent(commande.getClient().getId(), k -> ConcurrentHashMap.newKeySet())
+                .add(commande);
+        if (commande.getLivreur() != null) {
+            ajouterIndexLivreur(commande, commande.getLivreur());
+        }
+        if (commande.getEvenement() != null) {
+            ajouterIndexEvenement(commande, commande.getEvenement());
+        }
+    }
+
+    public void supprimer(Commande commande) {
+        if (commande == null || parNumero.remove(cle(commande.getNumeroCommande())) == null) {
+            return;
+        }
+
+        bucketEtat(commande.getEtat()).remove(commande);
+        retirerDe(parClient, commande.getClient().getId(), commande);
+        if (commande.getLivreur() != null) {
+            retirerDe(parLivreur, commande.getLivreur(), commande);
+        }
+        if (commande.getEvenement() != null) {
+            retirerDe(parEvenement, commande.getEvenement(), commande);
+        }
+    }
+
+    public boolean contient(Commande commande) {
+        return commande != null && parNumero.get(cle(commande.getNumeroCommande())) == commande;
+    }
+
+    // Mise à jour des index (appelées par Commande)
+    void mettreAJourEtat(Commande commande, EtatCommande ancienEtat, EtatCommande nouvelEtat) {
+        if (!contient(commande)) {
+            return;
+        }
+        bucketEtat(ancienEtat).remove(commande);
+        bucketEtat(nouvelEtat).add(commande);
+        // Une transition suivante a pu être indexée entre-temps par un autre thread
+        if (commande.getEtat() != nouvelEtat) {
+            bucketEtat(nouvelEtat).remove(commande);
+        }
+    }
+
+    void mettreAJourLivreur(Commande commande, Livreur ancienLivreur) {
+        if (!contient(commande)) {
+            return;
+        }
+        if (ancienLivreur != null) {
+            retirerDe(parLivreur, ancienLivreur, commande);
+        }
+        if (commande.getLivreur() != null) {
+            ajouterIndexLivreur(commande, commande.getLivreur());
+        }
+    }
+
+    void mettreAJourEvenement(Commande commande, String ancienEvenement) {
+        if (!contient(commande)) {
+            return;
+        }
+        if (ancienEvenement != null) {
+            retirerDe(parEvenement, ancienEvenement, commande);
+        }
+        if (commande.getEvenement() != null) {
+            ajouterIndexEvenement(commande, commande.getEvenement());
+        }
+    }
+
+    // Recherches
+    public Commande trouverParNumero(String numero) {
+        if (numero == null) {
+            return null;
+        }
+        return parNumero.get(cle(numero));
+    }
+
+    public Set<Commande> getCommandesParEtat(EtatCommande etat) {
+        return Collections.unmodifiableSet(bucketEtat(etat));
+    }
+
+    public Set<Commande> getCommandesParClient(String idClient) {
+        return vue(parClient.get(idClient));
+    }
+
+    public Set<Commande> getCommandesParLivreur(Livreur livreur) {
+        return vue(parLivreur.get(livreur));
+    }
+
+    public Set<Commande> getCommandesParEvenement(String evenement) {
+        return vue(parEvenement.get(evenement));
+    }
+
+    public int getNombreCommandes() {
+        return parNumero.size();
+    }
+
+    public int getNombreCommandes(EtatCommande etat) {
+        return bucketEtat(etat).size();
+    }
+
+    public boolean estEtatFinal(EtatCommande etat) {
+        return etat != null && etat.estFinal();
+    }
+
+    // Méthodes utilitaires
+    private Set<Commande> bucketEtat(EtatCommande etat) {
+        return etat == null ? sansEtat : parEtat.get(etat);
+    }
+
+    private void ajouterIndexLivreur(Commande commande, Livreur livreur) {
+        parLivreur.computeIfAbsent(livreur, k -> ConcurrentHashMap.newKeySet()).add(commande);
+    }
+
+    private void ajouterIndexEvenement(Commande commande, String evenement) {
+        parEvenement.computeIfAbsent(evenement, k -> ConcurrentHashMap.newKeySet()).add(commande);
+    }
+
+    private <K> void retirerDe(Map<K, Set<Commande>> index, K cle, Commande commande) {
+        Set<Commande> commandes = index.get(cle);
+        if (commandes != null) {
+            commandes.remove(commande);
+        }
+    }
+
+    private Set<Commande> vue(Set<Commande> commandes) {
+        return commandes == null ? Collections.emptySet() : Collections.unmodifiableSet(commandes);
+    }
+
+    private static String cle(String numero) {
+        return numero.trim().toUpperCase();
+    }
+}
@@ -0,0 +1,388 @@
+package fr.univ.gallileeats.model;
+
+import fr.univ.gallileeats.interfaces.Observateur;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ordonnanceur de la cuisine : chaque commande payée et nouvelle est décomposée en portions,
+ * regroupées avec celles des autres commandes en lots de production ({@link RegroupementProduction}).
+ * Chaque lot devient un ticket placé dans la file du cuisinier en service qui a le moins
+ * de portions en attente. Une commande passe en préparation quand un cuisinier prend le
+ * premier de ses lots, et à l'état prête quand tous ses lots le sont.
+ * Un cuisinier sert sa propre file par la fin (le ticket le plus récent), sauf si le plus
+ * ancien a une priorité plus forte ; si sa file est vide, il vole le plus ancien ticket de
+ * la file la plus chargée. La priorité est le rapport (attente + durée estimée) / durée
+ * estimée : elle grandit avec l'attente, si bien qu'un ticket ne reste pas indéfiniment
+ * derrière les plus récents.
+ * La durée estimée d'une portion, la fenêtre de regroupement et la taille maximale d'un lot
+ * se règlent avec les propriétés système {@code galileeats.cuisine.dureePortionMs},
+ * {@code galileeats.cuisine.fenetreLotMs} et {@code galileeats.cuisine.tailleLotMax}.
+ * Un ticket n'est attribué qu'une fois : c'est son extraction d'une extrémité de sa file qui le réserve.
+ */
+public class OrdonnanceurCuisine implements Observateur {
+    private static final String PROPRIETE_DUREE_PORTION = "galileeats.cuisine.dureePortionMs";
+    private static final long DUREE_PORTION_PAR_DEFAUT_MS = 60_000;
+    private static final String PROPRIETE_FENETRE_LOT = "galileeats.cuisine.fenetreLotMs";
+    private static final long FENETRE_LOT_PAR_DEFAUT_MS = 10_000;
+    private static final String PROPRIETE_TAILLE_LOT = "galileeats.cuisine.tailleLotMax";
+    private static final int TAILLE_LOT_PAR_DEFAUT = 20;
+    private static final int CAPACITE_NOTIFICATIONS = 1024;
+
+    private static volatile OrdonnanceurCuisine instance;
+    private static final Object verrou = new Object();
+
+    private final long dureePortionMs;
+    private final Map<Cuisinier, File> files;
+    private final RegroupementProduction regroupement;
+    // Lots restant à préparer pour chaque commande suivie
+    private final Map<Commande, AtomicInteger> lotsRestants;
+    // Tickets reçus alors qu'aucun cuisinier n'est en service
+    private final ConcurrentLinkedDeque<Ticket> sansCuisinier;
+    private final AtomicLong nombreVols;
+    // Durées de préparation des lots (prise du ticket → fin), par nom de plat
+    private final Map<String, HistogrammeDurees> tempsParPlat;
+
+    /**
+     * Lot de production en attente ou en cours de préparation.
+     */
+    public static final class Ticket {
+        private final LotProduction lot;
+        private final int portions;
+        private final long horodatage;
+        private volatile File file;
+        private volatile Cuisinier cuisinier;
+        private volatile long debutPreparation;
+
+        private Ticket(LotProduction lot) {
+            this.lot = lot;
+            this.portions = lot.getPortions();
+            this.horodatage = lot.getHorodatage();
+        }
+
+        public LotProduction getLot() { return lot; }
+        public long getHorodatage() { return horodatage; }
+        public Cuisinier getCuisinier() { return cuisinier; }
+    }
+
+    private static final class File {
+        private final Cuisinier cuisinier;
+        private final ConcurrentLinkedDeque<Ticket> tickets;
+        private final AtomicInteger taille;
+        // Portions en attente : mesure du travail restant, pour l'équilibrage et le vol
+        private final AtomicInteger charge;
+        // Cuisinier retiré du service : un ticket déposé après coup doit être replacé
+        private volatile boolean fermee;
+
+        File(Cuisinier cuisinier) {
+            this.cuisinier = cuisinier;
+            this.tickets = new ConcurrentLinkedDeque<>();
+            this.taille = new AtomicInteger();
+            this.charge = new AtomicInteger();
+        }
+
+        void deposer(Ticket ticket) {
+            ticket.file = this;
+            taille.incrementAndGet();
+            charge.addAndGet(ticket.portions);
+            tickets.addLast(ticket);
+        }
+
+        // Seul le thread qui extrait le ticket de la file l'obtient
+        Ticket extraire(boolean parLeDebut) {
+            Ticket ticket = parLeDebut ? tickets.pollFirst() : tickets.pollLast();
+            if (ticket != null) {
+                taille.decrementAndGet();
+                charge.addAndGet(-ticket.portions);
+            }
+            return ticket;
+        }
+    }
+
+    OrdonnanceurCuisine(long dureePortionMs, long fenetreLotMs, int tailleLotMax) {
+        if (dureePortionMs <= 0) {
+            throw new IllegalArgumentException("La durée d'une portion doit être positive");
+        }
+        this.dureePortionMs = dureePortionMs;
+        this.files = new ConcurrentHashMap<>();
+        this.regroupement = new RegroupementProduction(fenetreLotMs, tailleLotMax, lot -> placer(new Ticket(lot)));
+        this.lotsRestants = new ConcurrentHashMap<>();
+        this.sansCuisinier = new ConcurrentLinkedDeque<>();
+        this.nombreVols = new AtomicLong();
+        this.tempsParPlat = new ConcurrentHashMap<>();
+    }
+
+    public static OrdonnanceurCuisine getInstance() {
+        if (instance == null) {
+            synchronized (verrou) {
+                if (instance == null) {
+                    OrdonnanceurCuisine ordonnanceur = new OrdonnanceurCuisine(
+                            Long.getLong(PROPRIETE_DUREE_PORTION, DUREE_PORTION_PAR_DEFAUT_MS),
+                            Long.getLong(PROPRIETE_FENETRE_LOT, FENETRE_LOT_PAR_DEFAUT_MS),
+                            Integer.getInteger(PROPRIETE_TAILLE_LOT, TAILLE_LOT_PAR_DEFAUT));
+                    BusEvenements bus = BusEvenements.getInstance();
+                    // Aucune transition ne doit être perdue : les émetteurs attendent une place
+                    bus.configurer(ordonnanceur, BusEvenements.PolitiqueSaturation.BLOQUER, CAPACITE_NOTIFICATIONS);
+                    bus.abonnerTransition(EtatCommande.NOUVELLE, null, ordonnanceur);
+                    bus.abonnerTransition(EtatCommande.EN_PREPARATION, null, ordonnanceur);
+                    bus.abonnerTransition(EtatCommande.PRETE, null, ordonnanceur);
+                    bus.abonnerTransition(EtatCommande.ANNULEE, null, ordonnanceur);
+                    // Commandes payées avant la création de l'ordonnanceur
+                    OrderRepository repository = OrderRepository.getInstance();
+                    for (Commande commande : repository.getCommandesParEtat(EtatCommande.NOUVELLE)) {
+                        ordonnanceur.soumettre(commande);
+                    }
+                    for (Commande commande : repository.getCommandesParEtat(EtatCommande.EN_PREPARATION)) {
+                        ordonnanceur.soumettre(commande);
+                    }
+                    instance = ordonnanceur;
+                }
+            }
+        }
+        return instance;
+    }
+
+    @Override
+    public void actualiser(Object source) {
+        if (source instanceof EvenementCommande) {
+            Commande commande = ((EvenementCommande) source).getCommande();
+            // La commande a pu avancer depuis la notification : seul son état courant compte
+            EtatCommande etat = commande.getEtat();
+            if (etat == EtatCommande.NOUVELLE || etat == EtatCommande.EN_PREPARATION) {
+                soumettre(commande);
+            } else {
+                lotsRestants.remove(commande);
+            }
+        }
+    }
+
+    // Service des cuisiniers
+    public void inscrire(Cuisinier cuisinier) {
+        if (cuisinier == null) {
+            throw new IllegalArgumentException("Le cuisinier ne peut pas être null");
+        }
+        if (files.putIfAbsent(cuisinier, new File(cuisinier)) == null) {
+            placerSansCuisinier();
+        }
+    }
+
+    /**
+     * Retire le cuisinier du service ; ses tickets en attente sont répartis entre les autres.
+     */
+    public void retirer(Cuisinier cuisinier) {
+        File file = files.remove(cuisinier);
+        if (file == null) {
+            return;
+        }
+        file.fermee = true;
+        redistribuer(file);
+    }
+
+    /**
+     * Confie au regroupement une commande payée, nouvelle ou déjà en préparation (reprise
+     * après redémarrage), sauf si elle est déjà suivie.
+     */
+    public void soumettre(Commande commande) {
+        if (commande == null) {
+            return;
+        }
+        EtatCommande etat = commande.getEtat();
+        if (etat != EtatCommande.EN_PREPARATION && (etat != EtatCommande.NOUVELLE || !commande.estPayee())) {
+            return;
+        }
+        // Compte une unité de plus pendant la décomposition : un lot terminé entre-temps
+        // ne peut pas déclarer la commande prête avant que tous ses lots soient connus
+        AtomicInteger restants = new AtomicInteger(1);
+        if (lotsRestants.putIfAbsent(commande, restants) == null) {
+            regroupement.ajouter(commande, restants);
+            lotTermine(commande, restants, null);
+        }
+    }
+
+    /**
+     * Attribue au cuisinier le prochain lot de sa file ou, à défaut, un lot volé
+     * à la file la plus chargée.
+     *
+     * @return Le ticket attribué, ou null s'il n'y a rien à préparer.
+     */
+    public Ticket prendreTicket(Cuisinier cuisinier) {
+        File propre = files.get(cuisinier);
+        if (propre == null) {
+            throw new IllegalStateException("Le cuisinier n'est pas en service");
+        }
+        while (true) {
+            File source = propre;
+            Ticket ticket = propre.extraire(plusAncienPrioritaire(propre, System.currentTimeMillis()));
+            if (ticket == null) {
+                source = fileLaPlusChargee(propre);
+                if (source == null) {
+                    return null;
+                }
+                ticket = source.extraire(true);
+                if (ticket == null) {
+                    continue; // Vidée entre-temps par son cuisinier
+                }
+            }
+            LotProduction lot = ticket.lot;
+            if (!lot.estUtile()) {
+                continue; // Toutes ses commandes ont été annulées pendant l'attente
+            }
+            if (source != propre) {
+                nombreVols.incrementAndGet();
+            }
+            ticket.cuisinier = cuisinier;
+            ticket.debutPreparation = System.currentTimeMillis();
+            cuisinier.commencerPreparation(ticket);
+            // La prise du premier lot d'une commande la fait passer en préparation, une seule fois
+            for (int i = 0; i < lot.getNombreCommandes(); i++) {
+                lot.getCommande(i).revendiquer(EtatCommande.NOUVELLE, EtatCommande.EN_PREPARATION);
+            }
+            return ticket;
+        }
+    }
+
+    /**
+     * Termine un lot pris par le cuisinier : chaque commande dont c'était le dernier lot
+     * passe à l'état prête.
+     */
+    public void terminer(Cuisinier cuisinier, Ticket ticket) {
+        if (ticket.cuisinier != cuisinier || !cuisinier.terminerPreparation(ticket)) {
+            throw new IllegalStateException("Ce lot n'est pas en préparation par ce cuisinier");
+        }
+        LotProduction lot = ticket.lot;
+        tempsParPlat.computeIfAbsent(lot.getPlat().getNom(), nom -> new HistogrammeDurees())
+                .enregistrer(Math.max(0, System.currentTimeMillis() - ticket.debutPreparation));
+        for (int i = 0; i < lot.getNombreCommandes(); i++) {
+            Commande commande = lot.getCommande(i);
+            AtomicInteger restants = lotsRestants.get(commande);
+            if (restants != null) {
+                lotTermine(commande, restants, cuisinier);
+            }
+        }
+    }
+
+    /**
+     * Transmet sans attendre les lots en cours de regroupement.
+     */
+    public void viderRegroupement() {
+        regroupement.vider();
+    }
+
+    // Consultation
+    public List<Ticket> getTicketsEnAttente(Cuisinier cuisinier) {
+        File file = files.get(cuisinier);
+        if (file == null) {
+            return Collections.emptyList();
+        }
+        long maintenant = System.currentTimeMillis();
+        List<Ticket> enAttente = new ArrayList<>(file.tickets);
+        enAttente.sort(Comparator.comparingDouble((Ticket t) -> priorite(t, maintenant)).reversed());
+        return enAttente;
+    }
+
+    public RegroupementProduction getRegroupement() {
+        return regroupement;
+    }
+
+    public int getNombreEnAttente(Cuisinier cuisinier) {
+        File file = files.get(cuisinier);
+        return file == null ? 0 : file.taille.get();
+    }
+
+    /**
+     * Durées de préparation des lots terminés, par nom de plat (ordre alphabétique).
+     */
+    public Map<String, HistogrammeDurees> getTempsParPlat() {
+        return new TreeMap<>(tempsParPlat);
+    }
+
+    public long getNombreVols() {
+        return nombreVols.get();
+    }
+
+    // Méthodes utilitaires
+    private void lotTermine(Commande commande, AtomicInteger restants, Cuisinier cuisinier) {
+        if (restants.decrementAndGet() != 0 || !lotsRestants.remove(commande, restants)) {
+            return;
+        }
+        // Commande sans aucune portion : aucun lot n'a été pris pour la faire passer en préparation
+        commande.revendiquer(EtatCommande.NOUVELLE, EtatCommande.EN_PREPARATION);
+        if (commande.revendiquer(EtatCommande.EN_PREPARATION, EtatCommande.PRETE) != null && cuisinier != null) {
+            cuisinier.enregistrerCommandePrete(commande);
+        }
+    }
+
+    private void placer(Ticket ticket) {
+        File cible = null;
+        for (File file : files.values()) {
+            if (cible == null || file.charge.get() < cible.charge.get()) {
+                cible = file;
+            }
+        }
+        if (cible == null) {
+            ticket.file = null;
+            sansCuisinier.addLast(ticket);
+            // Un cuisinier a pu prendre son service entre-temps
+            if (!files.isEmpty()) {
+                placerSansCuisinier();
+            }
+            return;
+        }
+        cible.deposer(ticket);
+        if (cible.fermee) {
+            // Cuisinier retiré pendant le dépôt : le ticket a pu échapper à la redistribution
+            redistribuer(cible);
+            return;
+        }
+        cible.cuisinier.ajouterNotification(Notification.de(ModeleNotification.LOT_A_PREPARER, ticket.lot));
+    }
+
+    // Replace les tickets d'une file fermée ; chacun n'est extrait que par un seul thread
+    private void redistribuer(File file) {
+        Ticket ticket;
+        while ((ticket = file.extraire(true)) != null) {
+            placer(ticket);
+        }
+    }
+
+    private void placerSansCuisinier() {
+        Ticket ticket;
+        while (!files.isEmpty() && (ticket = sansCuisinier.pollFirst()) != null) {
+            placer(ticket);
+        }
+    }
+
+    // Le cuisinier sert le plus récent de ses tickets, sauf si le plus ancien est devenu prioritaire en attendant
+    private boolean plusAncienPrioritaire(File file, long maintenant) {
+        Ticket ancien = file.tickets.peekFirst();
+        Ticket recent = file.tickets.peekLast();
+        return ancien != null && recent != null && ancien != recent
+                && priorite(ancien, maintenant) > priorite(recent, maintenant);
+    }
+
+    private File fileLaPlusChargee(File exclue) {
+        File victime = null;
+        for (File file : files.values()) {
+            if (file != exclue && file.taille.get() > 0
+                    && (victime == null || file.charge.get() > victime.charge.get())) {
+                victime = file;
+            }
+        }
+        return victime;
+    }
+
+    private double priorite(Ticket ticket, long maintenant) {
+        double duree = (double) ticket.portions * dureePortionMs;
+        return (maintenant - ticket.horodatage + duree) / duree;
+    }
+
+}
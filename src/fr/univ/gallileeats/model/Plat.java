@@ -15,13 +15,13 @@ public class Plat extends MenuComponent {
     }
 
     @Override
-    public double getPrix() {
+    protected long calculerPrix() {
         return prix;
     }
 
     @Override
     public void afficher() {
-        System.out.println("- " + nom + " (" + categorie + ") : " + prix + "€");
+        System.out.println("- " + nom + " (" + categorie + ") : " + Montant.formater(prix));
         System.out.println("  " + description);
         if (!disponible) {
             System.out.println("  [Non disponible]");
@@ -43,5 +43,14 @@ public class Plat extends MenuComponent {
 
     public void setDisponible(boolean disponible) {
         this.disponible = disponible;
+        invaliderPrix();
+    }
+
+    public void setPrix(long prixCentimes) {
+        if (prixCentimes < 0) {
+            throw new IllegalArgumentException("Le prix ne peut pas être négatif");
+        }
+        this.prix = prixCentimes;
+        invaliderPrix();
     }
 }
\ No newline at end of file
@@ -6,14 +6,13 @@ import java.util.List;
 public abstract class PlatDecore extends MenuComponent {
     protected MenuComponent plat;
 
+    // Le décorateur est invalidé avec le composant décoré, comme un menu avec ses éléments
     public PlatDecore(MenuComponent plat) {
         super(plat.getNom(), plat.getDescription(), plat.getPrix());
         this.plat = plat;
+        plat.ajouterParent(this);
     }
 
-    @Override
-    public abstract double getPrix();
-
     @Override
     public void afficher() {
         plat.afficher();
@@ -30,7 +29,10 @@ public abstract class PlatDecore extends MenuComponent {
     }
 
     public void setPlatDeBase(MenuComponent plat) {
+        this.plat.retirerParent(this);
         this.plat = plat;
+        plat.ajouterParent(this);
+        invaliderPrix();
     }
 
     // Cette méthode permet de vérifier si un plat contient déjà un certain type de décoration
@@ -52,6 +54,6 @@ public abstract class PlatDecore extends MenuComponent {
     // Méthode abstraite que chaque décorateur concret doit implémenter
     protected abstract String getDescriptionDecoration();
 
-    // Méthode pour obtenir le supplément de prix ajouté par ce décorateur
-    protected abstract double getPrixSupplementaire();
+    // Méthode pour obtenir le supplément de prix, en centimes, ajouté par ce décorateur
+    protected abstract long getPrixSupplementaireCentimes();
 }
\ No newline at end of file
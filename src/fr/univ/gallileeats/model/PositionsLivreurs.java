@@ -0,0 +1,221 @@
+package fr.univ.gallileeats.model;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Réception des positions GPS des livreurs en service, rangées en tableaux de primitives
+ * indexés par l'emplacement (slot) de chaque livreur : aucune allocation par position reçue.
+ * Chaque position porte un numéro de séquence (l'horodatage du relevé GPS, en millisecondes) ;
+ * une position plus ancienne que la dernière enregistrée pour le même livreur est ignorée,
+ * de même qu'une position adressée à un emplacement qui n'appartient plus à ce livreur
+ * (libéré puis attribué à un autre entre la lecture de l'emplacement et l'écriture).
+ * Plusieurs threads peuvent écrire en même temps : chaque emplacement est protégé par un
+ * compteur de version (impair pendant une écriture), que les lecteurs vérifient sans verrou.
+ * Les emplacements modifiés sont marqués dans un masque de bits ; à intervalle régulier, un
+ * thread dédié les relève et transmet les dernières positions, en un seul lot, au consommateur.
+ */
+public class PositionsLivreurs {
+    /**
+     * Reçoit les positions modifiées depuis le lot précédent ; les tableaux sont réutilisés
+     * d'un lot à l'autre.
+     */
+    public interface Consommateur {
+        void appliquer(Livreur[] livreurs, double[] latitudes, double[] longitudes, int nombre);
+    }
+
+    private final int capacite;
+    private final Livreur[] livreurs;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final long[] sequences;
+    private final AtomicLongArray versions;
+    // Un bit par emplacement modifié depuis le dernier lot
+    private final AtomicLongArray modifies;
+    private final ArrayDeque<Integer> libres;
+    private final Consommateur consommateur;
+    private final LongAdder nombreRecues;
+    private final LongAdder nombreIgnorees;
+
+    // Tampons du lot, utilisés uniquement par le thread de relève
+    private final Livreur[] lotLivreurs;
+    private final double[] lotLatitudes;
+    private final double[] lotLongitudes;
+
+    public PositionsLivreurs(int capacite, long periodeMs, Consommateur consommateur) {
+        if (capacite < 1 || periodeMs <= 0) {
+            throw new IllegalArgumentException("Capacité ou période invalide");
+        }
+        this.capacite = capacite;
+        this.livreurs = new Livreur[capacite];
+        this.latitudes = new double[capacite];
+        this.longitudes = new double[capacite];
+        this.sequences = new long[capacite];
+        this.versions = new AtomicLongArray(capacite);
+        this.modifies = new AtomicLongArray((capacite + 63) / 64);
+        this.libres = new ArrayDeque<>();
+        for (int i = 0; i < capacite; i++) {
+            libres.add(i);
+        }
+        this.consommateur = consommateur;
+        this.nombreRecues = new LongAdder();
+        this.nombreIgnorees = new LongAdder();
+        this.lotLivreurs = new Livreur[capacite];
+        this.lotLatitudes = new double[capacite];
+        this.lotLongitudes = new double[capacite];
+
+        ScheduledExecutorService releve = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "positions-livreurs");
+            thread.setDaemon(true);
+            return thread;
+        });
+        releve.scheduleWithFixedDelay(this::relever, periodeMs, periodeMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Réserve un emplacement pour le livreur, initialisé à sa position actuelle.
+     */
+    public synchronized int attribuer(Livreur livreur) {
+        Integer slot = libres.poll();
+        if (slot == null) {
+            throw new IllegalStateException("Plus d'emplacement libre pour les positions des livreurs");
+        }
+        verrouiller(slot);
+        livreurs[slot] = livreur;
+        latitudes[slot] = livreur.getPositionActuelle().getLatitude();
+        longitudes[slot] = livreur.getPositionActuelle().getLongitude();
+        sequences[slot] = Long.MIN_VALUE;
+        deverrouiller(slot);
+        return slot;
+    }
+
+    public synchronized void liberer(int slot) {
+        verrouiller(slot);
+        livreurs[slot] = null;
+        deverrouiller(slot);
+        libres.add(slot);
+    }
+
+    /**
+     * Enregistre une position du livreur.
+     *
+     * @return false si l'emplacement n'est pas celui du livreur ou si une position plus récente
+     *         est déjà connue.
+     */
+    public boolean enregistrer(Livreur livreur, int slot, double latitude, double longitude, long sequence) {
+        nombreRecues.increment();
+        verrouiller(slot);
+        boolean acceptee = livreur != null && livreurs[slot] == livreur && sequence > sequences[slot];
+        if (acceptee) {
+            latitudes[slot] = latitude;
+            longitudes[slot] = longitude;
+            sequences[slot] = sequence;
+        }
+        deverrouiller(slot);
+        if (!acceptee) {
+            nombreIgnorees.increment();
+            return false;
+        }
+        long masque = 1L << slot;
+        int mot = slot >>> 6;
+        if ((modifies.get(mot) & masque) == 0) {
+            modifies.getAndAccumulate(mot, masque, (a, b) -> a | b);
+        }
+        return true;
+    }
+
+    /**
+     * Enregistre un lot de positions (les n premières cases de chaque tableau).
+     *
+     * @return Nombre de positions acceptées.
+     */
+    public int enregistrer(Livreur[] livreurs, int[] slots, double[] latitudes, double[] longitudes,
+                           long[] sequences, int n) {
+        int acceptees = 0;
+        for (int i = 0; i < n; i++) {
+            if (enregistrer(livreurs[i], slots[i], latitudes[i], longitudes[i], sequences[i])) {
+                acceptees++;
+            }
+        }
+        return acceptees;
+    }
+
+    /**
+     * Transmet au consommateur les positions modifiées depuis le lot précédent.
+     */
+    void relever() {
+        int nombre = 0;
+        for (int mot = 0; mot < modifies.length(); mot++) {
+            long bits = modifies.get(mot) == 0 ? 0 : modifies.getAndSet(mot, 0);
+            while (bits != 0) {
+                int slot = (mot << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (lireLot(slot, nombre)) {
+                    nombre++;
+                }
+            }
+        }
+        if (nombre > 0) {
+            try {
+                consommateur.appliquer(lotLivreurs, lotLatitudes, lotLongitudes, nombre);
+            } catch (RuntimeException e) {
+                // Une erreur du consommateur ne doit pas arrêter la relève des lots suivants
+                System.err.println("Positions des livreurs non appliquées: " + e.getMessage());
+            }
+            Arrays.fill(lotLivreurs, 0, nombre, null);
+        }
+    }
+
+    // Copie cohérente d'un emplacement dans le lot
+    private boolean lireLot(int slot, int rang) {
+        while (true) {
+            long version = versions.get(slot);
+            Livreur livreur = livreurs[slot];
+            double latitude = latitudes[slot];
+            double longitude = longitudes[slot];
+            VarHandle.acquireFence();
+            if ((version & 1) == 0 && versions.get(slot) == version) {
+                if (livreur == null) {
+                    return false;
+                }
+                lotLivreurs[rang] = livreur;
+                lotLatitudes[rang] = latitude;
+                lotLongitudes[rang] = longitude;
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void verrouiller(int slot) {
+        while (true) {
+            long version = versions.get(slot);
+            if ((version & 1) == 0 && versions.compareAndSet(slot, version, version + 1)) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void deverrouiller(int slot) {
+        versions.incrementAndGet(slot);
+    }
+
+    public int getCapacite() {
+        return capacite;
+    }
+
+    public long getNombreRecues() {
+        return nombreRecues.sum();
+    }
+
+    public long getNombreIgnorees() {
+        return nombreIgnorees.sum();
+    }
+}
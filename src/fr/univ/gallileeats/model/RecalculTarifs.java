@@ -0,0 +1,134 @@
+package fr.univ.gallileeats.model;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Recalcul groupé des commandes en cours de composition après une modification du catalogue.
+ * Les composants modifiés et tous les menus qui les contiennent (en remontant les parents)
+ * forment l'ensemble des composants touchés. Chaque commande sans état, donc pas encore
+ * payée, dont le menu en fait partie est recalculée en parallèle (fork/join), puis notifiée
+ * une seule fois si son total a changé, quel que soit le nombre de composants modifiés.
+ * Une commande payée garde le prix payé ; une commande groupée garde le coût imputé au
+ * budget de son événement.
+ */
+public final class RecalculTarifs {
+    // Nombre de commandes en dessous duquel une tâche n'est plus découpée
+    private static final int SEUIL = 1024;
+
+    private RecalculTarifs() {
+    }
+
+    /**
+     * Bilan d'un recalcul groupé.
+     */
+    public static final class Bilan {
+        private final int nombreExaminees;
+        private final int nombreRecalculees;
+        private final int nombreModifiees;
+        private final long dureeNanos;
+
+        private Bilan(int nombreExaminees, int nombreRecalculees, int nombreModifiees, long dureeNanos) {
+            this.nombreExaminees = nombreExaminees;
+            this.nombreRecalculees = nombreRecalculees;
+            this.nombreModifiees = nombreModifiees;
+            this.dureeNanos = dureeNanos;
+        }
+
+        public int getNombreExaminees() { return nombreExaminees; }
+        public int getNombreRecalculees() { return nombreRecalculees; }
+        public int getNombreModifiees() { return nombreModifiees; }
+        public long getDureeMillis() { return dureeNanos / 1_000_000; }
+    }
+
+    public static Bilan recalculer(MenuComponent composantModifie) {
+        return recalculer(Collections.singletonList(composantModifie));
+    }
+
+    /**
+     * Recalcule les commandes en cours de composition touchées par les composants modifiés.
+     */
+    public static Bilan recalculer(Collection<? extends MenuComponent> composantsModifies) {
+        if (composantsModifies == null) {
+            throw new IllegalArgumentException("Les composants modifiés ne peuvent pas être null");
+        }
+        long debut = System.nanoTime();
+        Set<MenuComponent> touches = composantsTouches(composantsModifies);
+        Commande[] commandes = OrderRepository.getInstance().getCommandesParEtat(null).toArray(new Commande[0]);
+        if (touches.isEmpty() || commandes.length == 0) {
+            return new Bilan(commandes.length, 0, 0, System.nanoTime() - debut);
+        }
+
+        // Deux compteurs de 32 bits dans un long : recalculées (poids fort), modifiées (poids faible)
+        long compteurs = ForkJoinPool.commonPool().invoke(new Tache(commandes, 0, commandes.length, touches));
+        return new Bilan(commandes.length, (int) (compteurs >>> 32), (int) compteurs, System.nanoTime() - debut);
+    }
+
+    // Composants modifiés et leurs ancêtres, comparés par identité
+    private static Set<MenuComponent> composantsTouches(Collection<? extends MenuComponent> composantsModifies) {
+        Set<MenuComponent> touches = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayDeque<MenuComponent> aVisiter = new ArrayDeque<>();
+        for (MenuComponent composant : composantsModifies) {
+            if (composant != null && touches.add(composant)) {
+                aVisiter.push(composant);
+            }
+        }
+        while (!aVisiter.isEmpty()) {
+            for (MenuComponent parent : aVisiter.pop().getParents()) {
+                if (touches.add(parent)) {
+                    aVisiter.push(parent);
+                }
+            }
+        }
+        return touches;
+    }
+
+    @SuppressWarnings("serial") // Jamais sérialisée : tâche locale au pool fork/join
+    private static final class Tache extends RecursiveTask<Long> {
+        private final Commande[] commandes;
+        private final int debut;
+        private final int fin;
+        private final Set<MenuComponent> touches;
+
+        Tache(Commande[] commandes, int debut, int fin, Set<MenuComponent> touches) {
+            this.commandes = commandes;
+            this.debut = debut;
+            this.fin = fin;
+            this.touches = touches;
+        }
+
+        @Override
+        protected Long compute() {
+            if (fin - debut <= SEUIL) {
+                return recalculerTranche();
+            }
+            int milieu = (debut + fin) >>> 1;
+            Tache gauche = new Tache(commandes, debut, milieu, touches);
+            gauche.fork();
+            long droite = new Tache(commandes, milieu, fin, touches).compute();
+            return gauche.join() + droite;
+        }
+
+        private long recalculerTranche() {
+            long recalculees = 0;
+            long modifiees = 0;
+            for (int i = debut; i < fin; i++) {
+                Commande commande = commandes[i];
+                if (!commande.estTarifRevisable() || !touches.contains(commande.getLigne().getBase())) {
+                    continue;
+                }
+                recalculees++;
+                if (commande.recalculerApresModificationCatalogue()) {
+                    modifiees++;
+                    commande.notifierObservateurs();
+                }
+            }
+            return recalculees << 32 | modifiees;
+        }
+    }
+}
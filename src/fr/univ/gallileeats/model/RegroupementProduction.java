@@ -0,0 +1,210 @@
+package fr.univ.gallileeats.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Étape de regroupement entre le paiement et la cuisine : les portions identiques
+ * (même plat, même pile de suppléments) de commandes différentes sont réunies dans
+ * un même {@link LotProduction}.
+ * Un lot est transmis à la cuisine dès qu'il atteint la taille maximale, ou à la fin
+ * de la fenêtre de regroupement ouverte par sa première portion ; une fenêtre nulle
+ * transmet les lots d'une commande dès qu'elle est décomposée.
+ * Les lots sont transmis hors du verrou du regroupement : la cuisine qui les reçoit
+ * ne bloque pas la décomposition des autres commandes.
+ */
+public class RegroupementProduction {
+    private final long fenetreMs;
+    private final int tailleMax;
+    private final Consumer<LotProduction> emission;
+    private final Map<Cle, LotProduction> lotsOuverts;
+    private final ScheduledExecutorService minuterie;
+
+    // Statistiques, protégées par le verrou de l'instance
+    private long nombreLots;
+    private long nombrePortions;
+    // Lots qu'aurait demandés la préparation séparée de chaque commande
+    private long nombreLotsSansRegroupement;
+    private final long[] lotsParTaille;
+
+    // Deux portions sont identiques si elles ont le même plat et les mêmes suppléments
+    private static final class Cle {
+        private final MenuComponent plat;
+        private final LigneCommande supplements;
+
+        Cle(MenuComponent plat, LigneCommande supplements) {
+            this.plat = plat;
+            this.supplements = supplements;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Cle)) {
+                return false;
+            }
+            Cle autre = (Cle) o;
+            return plat == autre.plat && supplements.memesSupplements(autre.supplements);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(plat) + supplements.hashSupplements();
+        }
+    }
+
+    public RegroupementProduction(long fenetreMs, int tailleMax, Consumer<LotProduction> emission) {
+        if (fenetreMs < 0 || tailleMax < 1) {
+            throw new IllegalArgumentException("Fenêtre ou taille de lot invalide");
+        }
+        this.fenetreMs = fenetreMs;
+        this.tailleMax = tailleMax;
+        this.emission = emission;
+        this.lotsOuverts = new HashMap<>();
+        this.lotsParTaille = new long[tailleMax + 1];
+        this.minuterie = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "regroupement-production");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Décompose la commande en portions et les répartit dans les lots ouverts.
+     *
+     * @param lotsRestants Incrémenté pour chaque lot qui reçoit des portions de la commande.
+     */
+    public void ajouter(Commande commande, AtomicInteger lotsRestants) {
+        LigneCommande ligne = commande.getLigne();
+        List<MenuComponent> plats = new ArrayList<>();
+        collecterPlats(ligne.getBase(), plats);
+        int personnes = commande.getNombrePersonnes();
+
+        List<LotProduction> scelles = new ArrayList<>();
+        synchronized (this) {
+            List<Cle> touchees = fenetreMs == 0 ? new ArrayList<>() : null;
+            for (MenuComponent plat : plats) {
+                Cle cle = new Cle(plat, ligne);
+                nombreLotsSansRegroupement += (personnes + tailleMax - 1) / tailleMax;
+                int quantite = personnes;
+                while (quantite > 0) {
+                    LotProduction lot = lotsOuverts.get(cle);
+                    if (lot == null) {
+                        lot = ouvrir(cle);
+                    }
+                    int prises = Math.min(quantite, tailleMax - lot.getPortions());
+                    if (lot.ajouter(commande, prises)) {
+                        lotsRestants.incrementAndGet();
+                    }
+                    quantite -= prises;
+                    if (lot.getPortions() == tailleMax) {
+                        sceller(cle, lot, scelles);
+                    } else if (touchees != null) {
+                        touchees.add(cle);
+                    }
+                }
+            }
+            if (touchees != null) {
+                for (Cle cle : touchees) {
+                    sceller(cle, lotsOuverts.get(cle), scelles);
+                }
+            }
+        }
+        emettre(scelles);
+    }
+
+    /**
+     * Transmet immédiatement tous les lots ouverts (fin de service, par exemple).
+     */
+    public void vider() {
+        List<LotProduction> scelles = new ArrayList<>();
+        synchronized (this) {
+            for (Map.Entry<Cle, LotProduction> entree : new ArrayList<>(lotsOuverts.entrySet())) {
+                sceller(entree.getKey(), entree.getValue(), scelles);
+            }
+        }
+        emettre(scelles);
+    }
+
+    private LotProduction ouvrir(Cle cle) {
+        LotProduction lot = new LotProduction(cle.plat, cle.supplements);
+        lotsOuverts.put(cle, lot);
+        if (fenetreMs > 0) {
+            minuterie.schedule(() -> {
+                List<LotProduction> scelles = new ArrayList<>(1);
+                synchronized (this) {
+                    sceller(cle, lot, scelles);
+                }
+                emettre(scelles);
+            }, fenetreMs, TimeUnit.MILLISECONDS);
+        }
+        return lot;
+    }
+
+    // Appelé sous le verrou de l'instance ; le lot scellé est ajouté à ceux à transmettre
+    private void sceller(Cle cle, LotProduction lot, List<LotProduction> scelles) {
+        // Le lot a pu être scellé plus tôt parce qu'il était plein
+        if (lot == null || lotsOuverts.get(cle) != lot) {
+            return;
+        }
+        lotsOuverts.remove(cle);
+        nombreLots++;
+        nombrePortions += lot.getPortions();
+        lotsParTaille[lot.getPortions()]++;
+        scelles.add(lot);
+    }
+
+    private void emettre(List<LotProduction> scelles) {
+        for (LotProduction lot : scelles) {
+            emission.accept(lot);
+        }
+    }
+
+    // Feuilles du composant : un plat seul, ou les plats des menus (éventuellement imbriqués)
+    private static void collecterPlats(MenuComponent composant, List<MenuComponent> plats) {
+        for (MenuComponent element : composant.getElements()) {
+            if (element == composant || element instanceof Plat) {
+                plats.add(element);
+            } else {
+                collecterPlats(element, plats);
+            }
+        }
+    }
+
+    // Statistiques
+    public synchronized long getNombreLots() {
+        return nombreLots;
+    }
+
+    public synchronized long getNombrePortions() {
+        return nombrePortions;
+    }
+
+    /**
+     * Cycles de préparation évités : sans regroupement, chaque plat de chaque commande serait
+     * préparé séparément, en autant de lots que l'exigent son nombre de portions et la taille
+     * maximale d'un lot.
+     */
+    public synchronized long getCyclesEconomises() {
+        return nombreLotsSansRegroupement - nombreLots - lotsOuverts.size();
+    }
+
+    public synchronized double getTailleMoyenneLots() {
+        return nombreLots == 0 ? 0.0 : (double) nombrePortions / nombreLots;
+    }
+
+    // Nombre de lots transmis pour chaque taille, de 1 à la taille maximale
+    public synchronized long[] getLotsParTaille() {
+        return lotsParTaille.clone();
+    }
+
+    public int getTailleMax() {
+        return tailleMax;
+    }
+}
@@ -0,0 +1,246 @@
+package fr.univ.gallileeats.model;
+
+import fr.univ.gallileeats.interfaces.Observateur;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Répartiteur des livraisons : chaque commande prête à livrer est confiée au meilleur
+ * livreur disponible parmi les plus proches du point de retrait (la cuisine).
+ * Le coût d'un livreur est un temps, en minutes : son trajet jusqu'au point de retrait, la
+ * durée de livraison que prédit l'{@link EstimateurDelais} pour la commande insérée dans sa
+ * tournée ({@link TourneeLivraison#inserer}) et le retard que cette insertion impose à ses
+ * arrêts suivants. Il est réduit selon son statut et majoré selon sa charge (livraisons en
+ * cours rapportées à sa capacité) ; à coût égal, le moins chargé l'emporte.
+ * Les commandes à livrer près d'un arrêt déjà prévu rejoignent ainsi la même tournée, sans
+ * que le livreur le mieux placé reçoive toutes les commandes jusqu'à saturer sa capacité.
+ * Une commande sans livreur disponible attend qu'un livreur se libère.
+ * L'affectation passe par {@link Commande#revendiquerLivraison(Livreur)} : une commande
+ * n'est confiée qu'une fois.
+ * La position du point de retrait, la taille des cellules de l'index et le nombre de
+ * candidats examinés se règlent avec les propriétés système
+ * {@code galileeats.livraison.latitudeRetrait}, {@code galileeats.livraison.longitudeRetrait},
+ * {@code galileeats.livraison.tailleCellule} et {@code galileeats.livraison.candidats}.
+ */
+public class RepartiteurLivraisons implements Observateur {
+    private static final String PROPRIETE_LATITUDE = "galileeats.livraison.latitudeRetrait";
+    private static final String PROPRIETE_LONGITUDE = "galileeats.livraison.longitudeRetrait";
+    private static final String PROPRIETE_TAILLE_CELLULE = "galileeats.livraison.tailleCellule";
+    private static final double TAILLE_CELLULE_PAR_DEFAUT = 0.005;
+    private static final String PROPRIETE_CANDIDATS = "galileeats.livraison.candidats";
+    private static final int CANDIDATS_PAR_DEFAUT = 8;
+    private static final String PROPRIETE_CAPACITE_POSITIONS = "galileeats.livraison.capacitePositions";
+    private static final int CAPACITE_POSITIONS_PAR_DEFAUT = 4096;
+    private static final String PROPRIETE_PERIODE_POSITIONS = "galileeats.livraison.periodePositionsMs";
+    private static final long PERIODE_POSITIONS_PAR_DEFAUT_MS = 1000;
+    private static final int CAPACITE_NOTIFICATIONS = 1024;
+
+    /**
+     * Point de retrait des commandes, d'où partent les tournées.
+     */
+    public static final Livreur.Position POINT_RETRAIT = new Livreur.Position(
+            Double.parseDouble(System.getProperty(PROPRIETE_LATITUDE, "0")),
+            Double.parseDouble(System.getProperty(PROPRIETE_LONGITUDE, "0")));
+
+    private static volatile RepartiteurLivraisons instance;
+    private static final Object verrou = new Object();
+
+    private final int candidats;
+    private final IndexSpatialLivreurs index;
+    private final PositionsLivreurs positions;
+    // Commandes prêtes qu'aucun livreur disponible n'a pu prendre
+    private final ConcurrentLinkedQueue<Commande> enAttente;
+    private final AtomicLong nombreAffectations;
+
+    RepartiteurLivraisons(double tailleCellule, int candidats, int capacitePositions, long periodePositionsMs) {
+        if (candidats < 1) {
+            throw new IllegalArgumentException("Le nombre de candidats doit être positif");
+        }
+        this.candidats = candidats;
+        this.index = new IndexSpatialLivreurs(tailleCellule);
+        this.positions = new PositionsLivreurs(capacitePositions, periodePositionsMs, this::appliquerPositions);
+        this.enAttente = new ConcurrentLinkedQueue<>();
+        this.nombreAffectations = new AtomicLong();
+    }
+
+    public static RepartiteurLivraisons getInstance() {
+        if (instance == null) {
+            synchronized (verrou) {
+                if (instance == null) {
+                    RepartiteurLivraisons repartiteur = new RepartiteurLivraisons(
+                            Double.parseDouble(System.getProperty(PROPRIETE_TAILLE_CELLULE,
+                                    String.valueOf(TAILLE_CELLULE_PAR_DEFAUT))),
+                            Integer.getInteger(PROPRIETE_CANDIDATS, CANDIDATS_PAR_DEFAUT),
+                            Integer.getInteger(PROPRIETE_CAPACITE_POSITIONS, CAPACITE_POSITIONS_PAR_DEFAUT),
+                            Long.getLong(PROPRIETE_PERIODE_POSITIONS, PERIODE_POSITIONS_PAR_DEFAUT_MS));
+                    BusEvenements bus = BusEvenements.getInstance();
+                    // Aucune commande prête ne doit être perdue : les émetteurs attendent une place
+                    bus.configurer(repartiteur, BusEvenements.PolitiqueSaturation.BLOQUER, CAPACITE_NOTIFICATIONS);
+                    bus.abonnerTransition(EtatCommande.PRETE, Commande.ModeLivraison.LIVRAISON, repartiteur);
+                    // Commandes prêtes avant la création du répartiteur
+                    for (Commande commande : OrderRepository.getInstance()
+                            .getCommandesParEtat(EtatCommande.PRETE)) {
+                        repartiteur.soumettre(commande);
+                    }
+                    instance = repartiteur;
+                }
+            }
+        }
+        return instance;
+    }
+
+    @Override
+    public void actualiser(Object source) {
+        if (source instanceof EvenementCommande) {
+            soumettre(((EvenementCommande) source).getCommande());
+        }
+    }
+
+    /**
+     * Confie la commande au meilleur livreur disponible, ou la met en attente.
+     */
+    public synchronized void soumettre(Commande commande) {
+        if (!aLivrer(commande)) {
+            return;
+        }
+        if (!affecter(commande) && !enAttente.contains(commande)) {
+            enAttente.add(commande);
+        }
+    }
+
+    public void inscrire(Livreur livreur) {
+        synchronized (livreur) {
+            if (livreur.getEmplacementPosition() < 0) {
+                livreur.setEmplacementPosition(positions.attribuer(livreur));
+            }
+        }
+        index.ajouter(livreur);
+        relancer();
+    }
+
+    public void retirer(Livreur livreur) {
+        index.retirer(livreur);
+        synchronized (livreur) {
+            int emplacement = livreur.getEmplacementPosition();
+            if (emplacement >= 0) {
+                livreur.setEmplacementPosition(-1);
+                positions.liberer(emplacement);
+            }
+        }
+    }
+
+    // Lot de positions relevé par PositionsLivreurs : une position par livreur déplacé
+    private void appliquerPositions(Livreur[] livreurs, double[] latitudes, double[] longitudes, int nombre) {
+        for (int i = 0; i < nombre; i++) {
+            livreurs[i].appliquerPosition(latitudes[i], longitudes[i]);
+        }
+        index.deplacer(livreurs, nombre);
+    }
+
+    /**
+     * Réception des positions GPS des livreurs en service ; l'emplacement d'un livreur est
+     * donné par {@link Livreur#getEmplacementPosition()}.
+     */
+    public PositionsLivreurs getPositions() {
+        return positions;
+    }
+
+    /**
+     * Reprend les commandes en attente, dans leur ordre d'arrivée, tant qu'un livreur est disponible.
+     */
+    public synchronized void relancer() {
+        Iterator<Commande> iterateur = enAttente.iterator();
+        while (iterateur.hasNext()) {
+            Commande commande = iterateur.next();
+            if (!aLivrer(commande)) {
+                iterateur.remove();
+            } else if (affecter(commande)) {
+                iterateur.remove();
+            } else {
+                // Aucun livreur disponible : inutile d'examiner les suivantes
+                return;
+            }
+        }
+    }
+
+    private boolean affecter(Commande commande) {
+        Livreur meilleur = null;
+        double meilleurCout = Double.MAX_VALUE;
+        int minuteDuJour = EstimateurDelais.minuteDuJour(System.currentTimeMillis());
+        for (Livreur livreur : index.plusProches(POINT_RETRAIT, candidats, Livreur::isDisponible)) {
+            double cout = cout(livreur, commande, minuteDuJour);
+            if (meilleur == null || cout < meilleurCout
+                    || (cout == meilleurCout && livreur.getNombreLivraisonsEnCours() < meilleur.getNombreLivraisonsEnCours())) {
+                meilleur = livreur;
+                meilleurCout = cout;
+            }
+        }
+        if (meilleur == null) {
+            return false;
+        }
+        // Une commande déjà confiée (par exemple lors d'une restauration) n'est pas réaffectée
+        if (commande.revendiquerLivraison(meilleur)) {
+            meilleur.affecterLivraison(commande);
+            nombreAffectations.incrementAndGet();
+        }
+        return true;
+    }
+
+    // Minutes jusqu'à la livraison de la commande par ce livreur, plus le retard imposé à ses
+    // autres livraisons, majorées de la part de sa capacité déjà occupée
+    private double cout(Livreur livreur, Commande commande, int minuteDuJour) {
+        Livreur.Position destination = commande.getPositionLivraison() != null
+                ? commande.getPositionLivraison() : POINT_RETRAIT;
+        double vitesse = livreur.getVitesseKmh();
+        TourneeLivraison.Insertion insertion = livreur.getTournee().inserer(destination, vitesse);
+        double approche = MatriceDistancesCampus.getInstance()
+                .dureeMinutes(livreur.getPositionActuelle(), POINT_RETRAIT, vitesse);
+        double livraison = EstimateurDelais.getInstance().estimerMinutes(EstimateurDelais.caracteristiques(
+                insertion.getTrajetMinutes(), insertion.getDistanceKm(), insertion.getRang(),
+                minuteDuJour, livreur.getVehicule()));
+        double minutes = approche + livraison + insertion.getRetardMinutes() * insertion.getArretsSuivants();
+        double coefficientStatut;
+        switch (livreur.getStatut()) {
+            case EXPERT: coefficientStatut = 1.2; break;
+            case CONFIRME: coefficientStatut = 1.1; break;
+            default: coefficientStatut = 1.0;
+        }
+        double charge = (double) livreur.getNombreLivraisonsEnCours() / livreur.getCapaciteMaxLivraisons();
+        return minutes * (1 + charge) / coefficientStatut;
+    }
+
+    private static boolean aLivrer(Commande commande) {
+        return commande.getEtat() == EtatCommande.PRETE
+                && commande.getModeLivraison() == Commande.ModeLivraison.LIVRAISON
+                && commande.getLivreur() == null;
+    }
+
+    // Consultation
+    public List<Livreur> getLivreursProches(int nombre) {
+        return index.plusProches(POINT_RETRAIT, nombre, null);
+    }
+
+    public List<Livreur> getLivreursZone(String zone) {
+        return index.getLivreursZone(zone);
+    }
+
+    public List<Commande> getCommandesEnAttente() {
+        return new ArrayList<>(enAttente);
+    }
+
+    public int getNombreLivreurs() {
+        return index.getNombreLivreurs();
+    }
+
+    public long getNombreAffectations() {
+        return nombreAffectations.get();
+    }
+
+    public Livreur.Position getPointRetrait() {
+        return POINT_RETRAIT;
+    }
+}
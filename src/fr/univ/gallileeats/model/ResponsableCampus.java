@@ -9,10 +9,10 @@ import java.util.Map;
 
 public class ResponsableCampus extends Utilisateur implements Observateur {
     private String departement;
-    private double budgetInitial;
-    private double budgetDisponible;
-    private List<Commande> commandesGroupees;
-    private Map<String, Double> budgetParEvenement;
+    private long budgetInitial; // En centimes
+    private long budgetDisponible;
+    private final ListeInstantanee<Commande> commandesGroupees;
+    private Map<String, Long> budgetParEvenement;
     private List<String> evenementsRecurrents;
     private Map<String, MenuBuffet> menusPredefinis;
     private int nombrePersonnesMax;
@@ -29,20 +29,20 @@ public class ResponsableCampus extends Utilisateur implements Observateur {
         }
 
         this.departement = departement;
-        this.budgetInitial = budgetInitial;
-        this.budgetDisponible = budgetInitial;
-        this.commandesGroupees = new ArrayList<>();
+        this.budgetInitial = Montant.depuisEuros(budgetInitial);
+        this.budgetDisponible = this.budgetInitial;
+        this.commandesGroupees = new ListeInstantanee<>();
         this.budgetParEvenement = new HashMap<>();
         this.evenementsRecurrents = new ArrayList<>();
         this.menusPredefinis = new HashMap<>();
         this.nombrePersonnesMax = 100;
         this.historiqueBudget = new ArrayList<>();
-        ajouterAHistoriqueBudget("Budget initial: " + budgetInitial + "€");
+        ajouterAHistoriqueBudget("Budget initial: " + Montant.formater(this.budgetInitial));
     }
 
     public void creerCommandeGroupee(MenuBuffet menu, int nombrePersonnes, String evenement) {
         verifierParametresCommande(nombrePersonnes, evenement);
-        double coutTotal = calculerCoutTotal(menu, nombrePersonnes);
+        long coutTotal = calculerCoutTotal(menu, nombrePersonnes);
         verifierBudgetDisponible(coutTotal);
 
         Commande commande = new Commande(this, menu, nombrePersonnes, Commande.ModeLivraison.SUR_PLACE);
@@ -62,45 +62,54 @@ public class ResponsableCampus extends Utilisateur implements Observateur {
         }
     }
 
-    private double calculerCoutTotal(MenuBuffet menu, int nombrePersonnes) {
-        return menu.getPrix() * nombrePersonnes;
+    private long calculerCoutTotal(MenuBuffet menu, int nombrePersonnes) {
+        return Montant.multiplier(menu.getPrixCentimes(), nombrePersonnes);
     }
 
-    private void verifierBudgetDisponible(double coutTotal) {
+    private void verifierBudgetDisponible(long coutTotal) {
         if (coutTotal > budgetDisponible) {
             throw new IllegalStateException(
-                    String.format("Budget insuffisant (Disponible: %.2f€, Requis: %.2f€)",
-                            budgetDisponible, coutTotal)
+                    String.format("Budget insuffisant (Disponible: %s, Requis: %s)",
+                            Montant.formater(budgetDisponible), Montant.formater(coutTotal))
             );
         }
     }
 
-    private void enregistrerCommande(Commande commande, double coutTotal, String evenement) {
-        budgetDisponible -= coutTotal;
+    private void enregistrerCommande(Commande commande, long coutTotal, String evenement) {
+        budgetDisponible = Montant.soustraire(budgetDisponible, coutTotal);
         budgetParEvenement.put(evenement, coutTotal);
-        commandesGroupees.add(commande);
+        commandesGroupees.ajouter(commande);
         commande.ajouterObservateur(this);
+        OrderRepository.getInstance().enregistrer(commande);
         ajouterAHistoriqueBudget(String.format(
-                "Commande créée pour '%s' - Montant: %.2f€", evenement, coutTotal));
+                "Commande créée pour '%s' - Montant: %s", evenement, Montant.formater(coutTotal)));
+    }
+
+    // Rattachement d'une commande reconstruite à partir du journal
+    void restaurerCommande(Commande commande) {
+        if (commandesGroupees.ajouterSiAbsent(commande)) {
+            commande.ajouterObservateur(this);
+            OrderRepository.getInstance().enregistrer(commande);
+        }
     }
 
     public void annulerCommandeGroupee(Commande commande) {
         verifierAnnulationPossible(commande);
 
-        double montantRembourse = commande.getTotal();
-        budgetDisponible += montantRembourse;
+        long montantRembourse = commande.getTotalCentimes();
+        budgetDisponible = Montant.ajouter(budgetDisponible, montantRembourse);
         budgetParEvenement.remove(commande.getEvenement());
 
         commande.changerEtat(EtatCommande.ANNULEE);
-        commandesGroupees.remove(commande);
+        commandesGroupees.retirer(commande);
 
         ajouterAHistoriqueBudget(String.format(
-                "Annulation de la commande pour '%s' - Remboursement: %.2f€",
-                commande.getEvenement(), montantRembourse));
+                "Annulation de la commande pour '%s' - Remboursement: %s",
+                commande.getEvenement(), Montant.formater(montantRembourse)));
     }
 
     private void verifierAnnulationPossible(Commande commande) {
-        if (!commandesGroupees.contains(commande)) {
+        if (!commandesGroupees.contient(commande)) {
             throw new IllegalArgumentException("Cette commande n'appartient pas à ce responsable");
         }
         if (commande.getEtat() == EtatCommande.LIVREE ||
@@ -123,7 +132,7 @@ public class ResponsableCampus extends Utilisateur implements Observateur {
         }
     }
 
-    public void demanderAugmentationBudget(double montant, String justification) {
+    public void demanderAugmentationBudget(long montant, String justification) {
         if (montant <= 0) {
             throw new IllegalArgumentException("Le montant doit être positif");
         }
@@ -132,7 +141,7 @@ public class ResponsableCampus extends Utilisateur implements Observateur {
         }
 
         ajouterAHistoriqueBudget(String.format(
-                "Demande d'augmentation de budget: %.2f€ - %s", montant, justification));
+                "Demande d'augmentation de budget: %s - %s", Montant.formater(montant), justification));
     }
 
     private void ajouterAHistoriqueBudget(String evenement) {
@@ -141,15 +150,12 @@ public class ResponsableCampus extends Utilisateur implements Observateur {
 
     @Override
     public void actualiser(Object source) {
-        if (source instanceof Commande) {
-            Commande commande = (Commande) source;
-            if (commandesGroupees.contains(commande)) {
-                String message = String.format(
-                        "La commande pour l'événement '%s' est passée à l'état: %s",
-                        commande.getEvenement(),
-                        commande.getEtat().getLibelle()
-                );
-                ajouterNotification(message);
+        if (source instanceof EvenementCommande) {
+            EvenementCommande evenement = (EvenementCommande) source;
+            Commande commande = evenement.getCommande();
+            if (commandesGroupees.contient(commande)) {
+                ajouterNotification(Notification.de(ModeleNotification.EVENEMENT_ETAT,
+                        commande.getEvenement(), evenement.getEtat()));
             }
         }
     }
@@ -160,18 +166,27 @@ public class ResponsableCampus extends Utilisateur implements Observateur {
     }
 
     public double getBudgetInitial() {
+        return Montant.enEuros(budgetInitial);
+    }
+
+    public long getBudgetInitialCentimes() {
         return budgetInitial;
     }
 
     public double getBudgetDisponible() {
+        return Montant.enEuros(budgetDisponible);
+    }
+
+    public long getBudgetDisponibleCentimes() {
         return budgetDisponible;
     }
 
     public List<Commande> getCommandesGroupees() {
-        return new ArrayList<>(commandesGroupees);
+        return commandesGroupees.instantane();
     }
 
-    public Map<String, Double> getBudgetParEvenement() {
+    // Montants en centimes
+    public Map<String, Long> getBudgetParEvenement() {
         return new HashMap<>(budgetParEvenement);
     }
 
@@ -193,11 +208,15 @@ public class ResponsableCampus extends Utilisateur implements Observateur {
 
     // Méthodes de calcul
     public double getBudgetUtilise() {
-        return budgetInitial - budgetDisponible;
+        return Montant.enEuros(getBudgetUtiliseCentimes());
+    }
+
+    public long getBudgetUtiliseCentimes() {
+        return Montant.soustraire(budgetInitial, budgetDisponible);
     }
 
     public double getPourcentageBudgetUtilise() {
-        return (getBudgetUtilise() / budgetInitial) * 100;
+        return (getBudgetUtiliseCentimes() * 100.0) / budgetInitial;
     }
 
     @Override
@@ -208,8 +227,8 @@ public class ResponsableCampus extends Utilisateur implements Observateur {
     @Override
     public String toString() {
         return String.format(
-                "ResponsableCampus{id='%s', nom='%s', departement='%s', budgetDisponible=%.2f€, commandes=%d}",
-                getId(), getNom(), departement, budgetDisponible, commandesGroupees.size()
+                "ResponsableCampus{id='%s', nom='%s', departement='%s', budgetDisponible=%s, commandes=%d}",
+                getId(), getNom(), departement, Montant.formater(budgetDisponible), commandesGroupees.taille()
         );
     }
 }
\ No newline at end of file
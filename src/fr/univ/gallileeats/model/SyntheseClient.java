@@ -0,0 +1,121 @@
+package fr.univ.gallileeats.model;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Agrégats des commandes d'un client (total dépensé hors annulations, points gagnés,
+ * commandes en cours, nombre de commandes, date de la dernière), tenus à jour à chaque
+ * événement d'une commande plutôt que recalculés en parcourant tout l'historique.
+ * Un événement relit l'état courant de la commande et corrige sa contribution : les
+ * notifications peuvent donc être fusionnées ou répétées sans fausser les agrégats.
+ */
+final class SyntheseClient {
+    // Montant compté pour chaque commande suivie (0 si elle est annulée)
+    private final Map<Commande, Long> montantsComptes;
+    private final Set<Commande> enCours;
+    private long totalDepense; // En centimes
+    private long pointsGagnes; // En centièmes de point
+    private Date derniereCommande;
+
+    SyntheseClient() {
+        this.montantsComptes = new HashMap<>();
+        this.enCours = new LinkedHashSet<>();
+        this.totalDepense = Montant.ZERO;
+    }
+
+    synchronized void ajouter(Commande commande) {
+        if (montantsComptes.containsKey(commande)) {
+            return;
+        }
+        montantsComptes.put(commande, 0L);
+        Date date = commande.getDateCommande();
+        if (date != null && (derniereCommande == null || date.after(derniereCommande))) {
+            derniereCommande = date;
+        }
+        actualiser(commande);
+    }
+
+    /**
+     * Retire la commande des agrégats.
+     *
+     * @return true si c'était la plus récente : la date de la dernière commande est à recalculer.
+     */
+    synchronized boolean retirer(Commande commande) {
+        Long montant = montantsComptes.remove(commande);
+        if (montant == null) {
+            return false;
+        }
+        compter(montant, 0);
+        enCours.remove(commande);
+        return derniereCommande != null && derniereCommande.equals(commande.getDateCommande());
+    }
+
+    /**
+     * Prend en compte l'état et le total courants d'une commande suivie.
+     */
+    synchronized void actualiser(Commande commande) {
+        Long ancien = montantsComptes.get(commande);
+        if (ancien == null) {
+            return;
+        }
+        EtatCommande etat = commande.getEtat();
+        long montant = etat == EtatCommande.ANNULEE ? 0 : commande.getTotalCentimes();
+        if (montant != ancien) {
+            montantsComptes.put(commande, montant);
+            compter(ancien, montant);
+        }
+        if (etat != null && etat.estFinal()) {
+            enCours.remove(commande);
+        } else {
+            enCours.add(commande);
+        }
+    }
+
+    private void compter(long ancien, long nouveau) {
+        totalDepense = Montant.ajouter(Montant.soustraire(totalDepense, ancien), nouveau);
+        pointsGagnes += points(nouveau) - points(ancien);
+    }
+
+    // 10 % du montant, en centièmes de point
+    static long points(long montant) {
+        return Montant.appliquerTaux(montant, 1000);
+    }
+
+    synchronized boolean suit(Commande commande) {
+        return montantsComptes.containsKey(commande);
+    }
+
+    synchronized void setDerniereCommande(Date date) {
+        derniereCommande = date;
+    }
+
+    synchronized long getTotalDepense() {
+        return totalDepense;
+    }
+
+    synchronized long getPointsGagnes() {
+        return pointsGagnes;
+    }
+
+    synchronized List<Commande> getCommandesEnCours() {
+        return new ArrayList<>(enCours);
+    }
+
+    synchronized boolean aCommandeEnCours() {
+        return !enCours.isEmpty();
+    }
+
+    synchronized int getNombreCommandes() {
+        return montantsComptes.size();
+    }
+
+    synchronized Date getDerniereCommande() {
+        return derniereCommande;
+    }
+}
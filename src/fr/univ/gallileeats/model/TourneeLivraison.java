@@ -0,0 +1,299 @@
+package fr.univ.gallileeats.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tournée planifiée d'un livreur : ordre de passage chez les clients à partir du point de
+ * retrait, et heure d'arrivée estimée à chaque arrêt. Distances et durées viennent de
+ * {@link MatriceDistancesCampus}.
+ * L'ordre est construit par insertion au moindre détour, puis amélioré par 2-opt
+ * (inversion de segments) et par déplacement d'arrêts, tant que la tournée raccourcit. Une commande dont la position
+ * de livraison est inconnue est placée au point de retrait.
+ * Une tournée ne change plus une fois calculée ; le livreur la recalcule quand ses
+ * commandes changent.
+ */
+public final class TourneeLivraison {
+    // Gain minimal pour accepter une amélioration, contre les boucles dues aux arrondis
+    private static final double EPSILON = 1e-12;
+
+    private final Livreur.Position depart;
+    private final List<Commande> arrets;
+    // Minutes écoulées depuis le départ à l'arrivée à chaque arrêt
+    private final int[] etasMinutes;
+    // Kilomètres parcourus depuis le départ jusqu'à chaque arrêt
+    private final double[] distancesKm;
+
+    private TourneeLivraison(Livreur.Position depart, List<Commande> arrets, int[] etasMinutes, double[] distancesKm) {
+        this.depart = depart;
+        this.arrets = arrets;
+        this.etasMinutes = etasMinutes;
+        this.distancesKm = distancesKm;
+    }
+
+    /**
+     * Planifie la tournée qui livre les commandes en partant du point de départ.
+     */
+    public static TourneeLivraison planifier(Livreur.Position depart, Collection<Commande> commandes,
+                                             double vitesseKmh) {
+        if (depart == null || commandes == null || !(vitesseKmh > 0)) {
+            throw new IllegalArgumentException("Départ, commandes ou vitesse invalides");
+        }
+        List<Commande> ordre = new ArrayList<>(commandes.size());
+        for (Commande commande : commandes) {
+            ordre.add(meilleureInsertion(depart, ordre, position(commande, depart)), commande);
+        }
+        ameliorer(depart, ordre);
+
+        MatriceDistancesCampus matrice = MatriceDistancesCampus.getInstance();
+        int[] etas = new int[ordre.size()];
+        double[] distances = new double[ordre.size()];
+        double parcouru = 0;
+        double minutes = 0;
+        Livreur.Position precedente = depart;
+        for (int i = 0; i < ordre.size(); i++) {
+            Livreur.Position suivante = position(ordre.get(i), depart);
+            parcouru += matrice.distanceKm(precedente, suivante);
+            minutes += matrice.dureeMinutes(precedente, suivante, vitesseKmh);
+            etas[i] = (int) Math.ceil(minutes);
+            distances[i] = parcouru;
+            precedente = suivante;
+        }
+        return new TourneeLivraison(depart, Collections.unmodifiableList(ordre), etas, distances);
+    }
+
+    public static TourneeLivraison vide(Livreur.Position depart) {
+        return new TourneeLivraison(depart, Collections.emptyList(), new int[0], new double[0]);
+    }
+
+    /**
+     * Allongement de la tournée si l'on y insère un arrêt à la position donnée, au meilleur endroit.
+     */
+    public double detour(Livreur.Position position) {
+        return coutInsertion(depart, arrets, position, meilleureInsertion(depart, arrets, position));
+    }
+
+    /**
+     * Arrêt qu'occuperait une livraison à la position donnée, insérée au même endroit que pour
+     * {@link #detour} : trajet planifié jusqu'à lui et retard imposé aux arrêts suivants.
+     */
+    public Insertion inserer(Livreur.Position position, double vitesseKmh) {
+        if (position == null || !(vitesseKmh > 0)) {
+            throw new IllegalArgumentException("Position ou vitesse invalide");
+        }
+        int rang = meilleureInsertion(depart, arrets, position);
+        MatriceDistancesCampus matrice = MatriceDistancesCampus.getInstance();
+        Livreur.Position avant = rang == 0 ? depart : position(arrets.get(rang - 1), depart);
+        double minutes = (rang == 0 ? 0 : etasMinutes[rang - 1]) + matrice.dureeMinutes(avant, position, vitesseKmh);
+        double distance = (rang == 0 ? 0 : distancesKm[rang - 1]) + matrice.distanceKm(avant, position);
+        double retard = 0;
+        if (rang < arrets.size()) {
+            Livreur.Position apres = position(arrets.get(rang), depart);
+            retard = matrice.dureeMinutes(avant, position, vitesseKmh) + matrice.dureeMinutes(position, apres, vitesseKmh)
+                    - matrice.dureeMinutes(avant, apres, vitesseKmh);
+        }
+        return new Insertion(rang, minutes, distance, Math.max(0, retard), arrets.size() - rang);
+    }
+
+    /**
+     * Arrêt calculé par {@link #inserer} ; le rang est aussi le nombre d'arrêts qui le précèdent.
+     */
+    public static final class Insertion {
+        private final int rang;
+        private final double trajetMinutes;
+        private final double distanceKm;
+        private final double retardMinutes;
+        private final int arretsSuivants;
+
+        private Insertion(int rang, double trajetMinutes, double distanceKm, double retardMinutes, int arretsSuivants) {
+            this.rang = rang;
+            this.trajetMinutes = trajetMinutes;
+            this.distanceKm = distanceKm;
+            this.retardMinutes = retardMinutes;
+            this.arretsSuivants = arretsSuivants;
+        }
+
+        public int getRang() { return rang; }
+        public double getTrajetMinutes() { return trajetMinutes; }
+        public double getDistanceKm() { return distanceKm; }
+        // Retard de chacun des arrêts suivants
+        public double getRetardMinutes() { return retardMinutes; }
+        public int getArretsSuivants() { return arretsSuivants; }
+    }
+
+    // Rang où l'insertion allonge le moins la tournée
+    private static int meilleureInsertion(Livreur.Position depart, List<Commande> ordre, Livreur.Position position) {
+        int meilleur = ordre.size();
+        double meilleurCout = coutInsertion(depart, ordre, position, meilleur);
+        for (int i = 0; i < ordre.size(); i++) {
+            double cout = coutInsertion(depart, ordre, position, i);
+            if (cout < meilleurCout) {
+                meilleur = i;
+                meilleurCout = cout;
+            }
+        }
+        return meilleur;
+    }
+
+    private static double coutInsertion(Livreur.Position depart, List<Commande> ordre,
+                                        Livreur.Position position, int rang) {
+        Livreur.Position avant = rang == 0 ? depart : position(ordre.get(rang - 1), depart);
+        if (rang == ordre.size()) {
+            // Nouvel arrêt en fin de tournée
+            return avant.calculateDistance(position);
+        }
+        Livreur.Position apres = position(ordre.get(rang), depart);
+        return avant.calculateDistance(position) + position.calculateDistance(apres)
+                - avant.calculateDistance(apres);
+    }
+
+    // 2-opt et déplacement d'arrêts sur un chemin ouvert : le départ est fixe, la fin est libre
+    private static void ameliorer(Livreur.Position depart, List<Commande> ordre) {
+        int n = ordre.size();
+        if (n < 2) {
+            return;
+        }
+        Commande[] commandes = ordre.toArray(new Commande[0]);
+        Livreur.Position[] points = new Livreur.Position[n + 1];
+        points[0] = depart;
+        for (int i = 0; i < n; i++) {
+            points[i + 1] = position(commandes[i], depart);
+        }
+        boolean ameliore = true;
+        while (ameliore) {
+            ameliore = deuxOpt(points, commandes) | deplacerArrets(points, commandes);
+        }
+        for (int i = 0; i < n; i++) {
+            ordre.set(i, commandes[i]);
+        }
+    }
+
+    // Inverse le segment [i, j] quand cela raccourcit la tournée
+    private static boolean deuxOpt(Livreur.Position[] points, Commande[] commandes) {
+        int n = commandes.length;
+        boolean ameliore = false;
+        for (int i = 1; i < n; i++) {
+            for (int j = i + 1; j <= n; j++) {
+                double avant = points[i - 1].calculateDistance(points[i]);
+                double apres = points[i - 1].calculateDistance(points[j]);
+                if (j < n) {
+                    avant += points[j].calculateDistance(points[j + 1]);
+                    apres += points[i].calculateDistance(points[j + 1]);
+                }
+                if (apres < avant - EPSILON) {
+                    inverser(points, commandes, i, j);
+                    ameliore = true;
+                }
+            }
+        }
+        return ameliore;
+    }
+
+    // Retire un arrêt et le réinsère au meilleur endroit quand cela raccourcit la tournée
+    private static boolean deplacerArrets(Livreur.Position[] points, Commande[] commandes) {
+        int n = commandes.length;
+        boolean ameliore = false;
+        for (int i = 1; i <= n; i++) {
+            Livreur.Position arret = points[i];
+            double gain = points[i - 1].calculateDistance(arret);
+            if (i < n) {
+                gain += arret.calculateDistance(points[i + 1]) - points[i - 1].calculateDistance(points[i + 1]);
+            }
+            // Sur le chemin privé de l'arrêt (n points), insertion après le point de rang k
+            int meilleur = -1;
+            double meilleurCout = gain - EPSILON;
+            for (int k = 0; k < n; k++) {
+                if (k == i - 1) {
+                    continue;
+                }
+                Livreur.Position avant = points[k < i ? k : k + 1];
+                double cout = avant.calculateDistance(arret);
+                if (k + 1 < n) {
+                    Livreur.Position apres = points[k + 1 < i ? k + 1 : k + 2];
+                    cout += arret.calculateDistance(apres) - avant.calculateDistance(apres);
+                }
+                if (cout < meilleurCout) {
+                    meilleur = k;
+                    meilleurCout = cout;
+                }
+            }
+            if (meilleur >= 0) {
+                deplacer(points, commandes, i, meilleur + 1);
+                ameliore = true;
+            }
+        }
+        return ameliore;
+    }
+
+    private static void inverser(Livreur.Position[] points, Commande[] commandes, int i, int j) {
+        while (i < j) {
+            echanger(points, commandes, i++, j--);
+        }
+    }
+
+    // Amène l'élément du rang source au rang cible en décalant ceux qui sont entre les deux
+    private static void deplacer(Livreur.Position[] points, Commande[] commandes, int source, int cible) {
+        int pas = source < cible ? 1 : -1;
+        for (int i = source; i != cible; i += pas) {
+            echanger(points, commandes, i, i + pas);
+        }
+    }
+
+    // Les rangs sont ceux du tableau des points, décalés d'un cran par le départ
+    private static void echanger(Livreur.Position[] points, Commande[] commandes, int i, int j) {
+        Livreur.Position point = points[i];
+        points[i] = points[j];
+        points[j] = point;
+        Commande commande = commandes[i - 1];
+        commandes[i - 1] = commandes[j - 1];
+        commandes[j - 1] = commande;
+    }
+
+    private static Livreur.Position position(Commande commande, Livreur.Position depart) {
+        Livreur.Position position = commande.getPositionLivraison();
+        return position != null ? position : depart;
+    }
+
+    // Getters
+    public Livreur.Position getDepart() {
+        return depart;
+    }
+
+    public List<Commande> getArrets() {
+        return arrets;
+    }
+
+    public int getNombreArrets() {
+        return arrets.size();
+    }
+
+    public boolean estVide() {
+        return arrets.isEmpty();
+    }
+
+    public int getEtaMinutes(int arret) {
+        return etasMinutes[arret];
+    }
+
+    /**
+     * @return Minutes entre le départ et la livraison de la commande, ou -1 si elle n'est pas dans la tournée.
+     */
+    public int getEtaMinutes(Commande commande) {
+        int arret = arrets.indexOf(commande);
+        return arret < 0 ? -1 : etasMinutes[arret];
+    }
+
+    public double getDistanceKm(int arret) {
+        return distancesKm[arret];
+    }
+
+    public double getDistanceKm() {
+        return distancesKm.length == 0 ? 0 : distancesKm[distancesKm.length - 1];
+    }
+
+    public int getDureeMinutes() {
+        return etasMinutes.length == 0 ? 0 : etasMinutes[etasMinutes.length - 1];
+    }
+}
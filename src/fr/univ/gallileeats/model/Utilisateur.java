@@ -13,7 +13,7 @@ public abstract class Utilisateur {
     protected Date dateInscription;
     protected Date dernierConnexion;
     protected boolean estActif;
-    protected List<String> notifications;
+    protected final BoiteNotifications notifications;
     protected String telephone;
     protected List<String> preferences;
     protected String langue;
@@ -33,7 +33,7 @@ public abstract class Utilisateur {
         this.dateInscription = new Date();
         this.dernierConnexion = new Date();
         this.estActif = true;
-        this.notifications = new ArrayList<>();
+        this.notifications = new BoiteNotifications();
         this.preferences = new ArrayList<>();
         this.langue = "FR";
     }
@@ -52,15 +52,27 @@ public abstract class Utilisateur {
         preferences.remove(preference);
     }
 
-    // Méthodes de gestion des notifications
+    // Méthodes de gestion des notifications (jamais bloquantes ; perdues si la boîte est pleine)
     public void ajouterNotification(String notification) {
-        notifications.add(notification);
+        notifications.deposer(notification);
     }
 
+    // Le texte n'est construit qu'à la lecture, dans la langue de l'utilisateur
+    public void ajouterNotification(Notification notification) {
+        notifications.deposer(notification);
+    }
+
+    // Les notifications retournées sont marquées comme lues
     public List<String> getNotificationsNonLues() {
-        List<String> nonLues = new ArrayList<>(notifications);
-        notifications.clear(); // Marquer comme lues
-        return nonLues;
+        return notifications.lire(langue);
+    }
+
+    public int getNombreNotificationsNonLues() {
+        return notifications.getNombreNonLues();
+    }
+
+    public long getNombreNotificationsPerdues() {
+        return notifications.getNombrePerdues();
     }
 
     // Méthodes de connexion/déconnexion
@@ -159,7 +171,7 @@ public abstract class Utilisateur {
 
     // Méthodes utilitaires
     public boolean aDesNotifications() {
-        return !notifications.isEmpty();
+        return !notifications.estVide();
     }
 
     public boolean estConnecte() {
@@ -1,6 +1,7 @@
 package fr.univ.gallileeats.strategie;
 
 import fr.univ.gallileeats.interfaces.StrategyPaiement;
+import fr.univ.gallileeats.model.Montant;
 
 /**
  * Classe représentant une stratégie de paiement par carte bancaire.
@@ -27,13 +28,13 @@ public class PaiementCarteBancaire implements StrategyPaiement {
     /**
      * Effectue un paiement du montant spécifié en utilisant les informations de la carte bancaire.
      *
-     * @param montant le montant à payer.
+     * @param montant le montant à payer, en centimes.
      */
     @Override
-    public void payer(double montant) {
+    public void payer(long montant) {
         // Simulation de paiement par carte bancaire
         System.out.println("Paiement par carte bancaire en cours...");
-        System.out.println("Montant: " + montant + "€");
+        System.out.println("Montant: " + Montant.formater(montant));
         System.out.println("Carte: XXXX XXXX XXXX " + numeroCarte.substring(numeroCarte.length() - 4));
         System.out.println("Paiement accepté!");
     }
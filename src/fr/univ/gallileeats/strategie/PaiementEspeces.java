@@ -1,39 +1,40 @@
 package fr.univ.gallileeats.strategie;
 
 import fr.univ.gallileeats.interfaces.StrategyPaiement;
+import fr.univ.gallileeats.model.Montant;
 
 /**
  * Classe représentant une stratégie de paiement en espèces.
  * Implémente l'interface {@link StrategyPaiement} et gère le paiement en argent liquide.
  */
 public class PaiementEspeces implements StrategyPaiement {
-    private double montantFourni;
+    private long montantFourni; // En centimes
 
     /**
      * Constructeur permettant d'initialiser le montant fourni par le client.
      *
-     * @param montantFourni le montant donné par le client pour effectuer le paiement.
+     * @param montantFourni le montant donné par le client pour effectuer le paiement, en centimes.
      */
-    public PaiementEspeces(double montantFourni) {
+    public PaiementEspeces(long montantFourni) {
         this.montantFourni = montantFourni;
     }
 
     /**
      * Effectue un paiement en espèces et calcule la monnaie à rendre si nécessaire.
      *
-     * @param montant le montant à payer.
+     * @param montant le montant à payer, en centimes.
      * @throws IllegalStateException si le montant fourni est insuffisant.
      */
     @Override
-    public void payer(double montant) {
+    public void payer(long montant) {
         if (montantFourni < montant) {
             throw new IllegalStateException("Montant insuffisant");
         }
 
-        double monnaie = montantFourni - montant;
+        long monnaie = Montant.soustraire(montantFourni, montant);
         System.out.println("Paiement en espèces");
-        System.out.println("Montant à payer: " + montant + "€");
-        System.out.println("Montant fourni: " + montantFourni + "€");
-        System.out.println("Monnaie à rendre: " + monnaie + "€");
+        System.out.println("Montant à payer: " + Montant.formater(montant));
+        System.out.println("Montant fourni: " + Montant.formater(montantFourni));
+        System.out.println("Monnaie à rendre: " + Montant.formater(monnaie));
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package fr.univ.gallileeats.strategie;
 
 import fr.univ.gallileeats.interfaces.StrategyPaiement;
+import fr.univ.gallileeats.model.Montant;
 
 /**
  * Classe représentant une stratégie de paiement via Izly.
@@ -24,14 +25,14 @@ public class PaiementIzly implements StrategyPaiement {
     /**
      * Effectue un paiement du montant spécifié en utilisant le compte Izly.
      *
-     * @param montant le montant à payer.
+     * @param montant le montant à payer, en centimes.
      */
     @Override
-    public void payer(double montant) {
+    public void payer(long montant) {
         // Simulation de paiement Izly
         System.out.println("Paiement par carte Izly en cours...");
         System.out.println("Numéro étudiant: " + numeroEtudiant);
-        System.out.println("Montant: " + montant + "€");
+        System.out.println("Montant: " + Montant.formater(montant));
         System.out.println("Paiement Izly accepté!");
     }
 }
\ No newline at end of file
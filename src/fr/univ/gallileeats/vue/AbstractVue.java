@@ -1,6 +1,7 @@
 package fr.univ.gallileeats.vue;
 
 import fr.univ.gallileeats.interfaces.*;
+import fr.univ.gallileeats.model.Utilisateur;
 
 import java.util.Scanner;
 import java.util.List;
@@ -115,7 +116,16 @@ public abstract class AbstractVue implements IVue, Observateur {
     }
 
     /**
-     * Affiche les notifications reçues et les efface après affichage.
+     * Affiche les notifications reçues par la vue, puis celles de la boîte de réception
+     * de l'utilisateur, et les efface après affichage.
+     */
+    protected void afficherNotifications(Utilisateur utilisateur) {
+        notifications.addAll(utilisateur.getNotificationsNonLues());
+        afficherNotifications();
+    }
+
+    /**
+     * Affiche les notifications reçues par la vue et les efface après affichage.
      */
     protected void afficherNotifications() {
         if (!notifications.isEmpty()) {
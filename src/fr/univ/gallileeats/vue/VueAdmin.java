@@ -284,6 +284,7 @@ public class VueAdmin extends AbstractVue implements IVueAdmin {
         // effacerEcran();
         System.out.println("🎓 Type: " + (client.estEtudiant() ? "Étudiant" : "Standard"));
         System.out.println("📍 Adresse: " + client.getAdresseLivraison());
+        System.out.printf("📦 Commandes: %d%n", client.getNombreCommandes());
         System.out.printf("💰 Total dépensé: %.2f€%n", client.getTotalDepense());
         System.out.printf("🎯 Points fidélité: %.2f%n", client.getSoldePoints());
     }
@@ -4,7 +4,6 @@ import fr.univ.gallileeats.interfaces.IControleur;
 import fr.univ.gallileeats.interfaces.IVueClient;
 import fr.univ.gallileeats.model.*;
 
-import java.util.ArrayList;
 import java.util.List;
 
 
@@ -70,7 +69,7 @@ public class VueClient extends AbstractVue implements IVueClient {
     @Override
     public void afficher() {
         effacerEcran();
-        afficherNotifications();
+        afficherNotifications(client);
         afficherEntete();
         afficherMenu();
         traiterChoix();
@@ -91,9 +90,8 @@ public class VueClient extends AbstractVue implements IVueClient {
         System.out.printf("🎯 Points fidélité : %.2f points%n", client.getSoldePoints());
 
         // Afficher les commandes en cours s'il y en a
-        List<Commande> commandesEnCours = client.getCommandesEnCours();
-        if (!commandesEnCours.isEmpty()) {
-            System.out.printf("\n📦 Commandes en cours : %d%n", commandesEnCours.size());
+        if (client.aCommandeEnCours()) {
+            System.out.printf("\n📦 Commandes en cours : %d%n", client.getCommandesEnCours().size());
         }
 
         afficherSeparateur();
@@ -246,7 +244,10 @@ public class VueClient extends AbstractVue implements IVueClient {
         commandes.forEach(this::afficherCommande);
 
         System.out.println("\nStatistiques :");
+        System.out.printf("📦 Commandes passées : %d (dernière le %s)%n",
+                client.getNombreCommandes(), client.getDateDerniereCommande());
         System.out.printf("💰 Total dépensé : %.2f€%n", client.getTotalDepense());
+        System.out.printf("🏅 Points gagnés : %.2f points%n", client.getPointsGagnes());
         System.out.printf("🎯 Points fidélité : %.2f points%n", client.getSoldePoints());
         afficherSeparateur();
     }
@@ -266,7 +267,7 @@ public class VueClient extends AbstractVue implements IVueClient {
         );
 
         // Affichage des suppléments si présents
-        afficherSupplementsRecap(commande.getMenu());
+        afficherSupplementsRecap(commande.getLigne());
 
         // Affichage des réductions
         if (!commande.getReductionsAppliquees().isEmpty()) {
@@ -286,28 +287,15 @@ public class VueClient extends AbstractVue implements IVueClient {
 
     /**
      * Affiche les suppléments ajoutés à un menu dans une commande.
-     * @param menu Le menu concerné.
+     * @param ligne La ligne compilée de la commande.
      */
-    private void afficherSupplementsRecap(MenuComponent menu) {
-        if (menu instanceof PlatDecore) {
-            PlatDecore platDecore = (PlatDecore) menu;
-            List<OptionSupplement> supplements = new ArrayList<>();
-            MenuComponent current = menu;
-
-            while (current instanceof PlatDecore) {
-                if (current instanceof OptionSupplement) {
-                    supplements.add((OptionSupplement) current);
-                }
-                current = ((PlatDecore) current).getPlatDeBase();
-            }
-
-            if (!supplements.isEmpty()) {
-                System.out.println("\nSuppléments ajoutés :");
-                supplements.forEach(supplement ->
-                        System.out.printf("- %s (+%.2f€)%n",
-                                supplement.getNomSupplement(),
-                                supplement.getPrixSupplementaire())
-                );
+    private void afficherSupplementsRecap(LigneCommande ligne) {
+        if (ligne.aDesSupplements()) {
+            System.out.println("\nSuppléments ajoutés :");
+            for (int i = 0; i < ligne.getNombreSupplements(); i++) {
+                System.out.printf("- %s (+%.2f€)%n",
+                        ligne.getNomSupplement(i),
+                        Montant.enEuros(ligne.getPrixSupplementCentimes(i)));
             }
         }
     }
@@ -5,6 +5,7 @@ import fr.univ.gallileeats.interfaces.IVueCuisinier;
 import fr.univ.gallileeats.model.*;
 
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -39,7 +40,7 @@ public class VueCuisinier extends AbstractVue implements IVueCuisinier {
     @Override
     public void afficher() {
         effacerEcran();
-        afficherNotifications();
+        afficherNotifications(cuisinier);
         afficherEntete();
         afficherMenu();
         traiterChoix();
@@ -85,6 +86,8 @@ public class VueCuisinier extends AbstractVue implements IVueCuisinier {
             return;
         }
 
+        afficherLots("Lots à préparer", cuisinier.getLotsEnAttente());
+
         for (Commande commande : commandes) {
             afficherDetailsCommande(commande);
         }
@@ -100,11 +103,20 @@ public class VueCuisinier extends AbstractVue implements IVueCuisinier {
             return;
         }
 
+        afficherLots("Lots en cours", cuisinier.getLotsEnCours());
+
         for (Commande commande : commandes) {
             afficherDetailsCommande(commande);
         }
     }
 
+    private void afficherLots(String titre, List<OrdonnanceurCuisine.Ticket> tickets) {
+        System.out.println(titre + " :");
+        for (OrdonnanceurCuisine.Ticket ticket : tickets) {
+            System.out.println("🍳 " + ticket.getLot());
+        }
+    }
+
     /**
      * Affiche les détails d'une commande spécifique.
      *
@@ -123,10 +135,10 @@ public class VueCuisinier extends AbstractVue implements IVueCuisinier {
         }
 
         // Afficher les options spéciales si présentes
-        if (menu instanceof PlatDecore) {
+        LigneCommande ligne = commande.getLigne();
+        if (ligne.aDesSupplements()) {
             System.out.println("\nOptions :");
-            PlatDecore platDecore = (PlatDecore) menu;
-            afficherOptions(platDecore);
+            afficherOptions(ligne);
         }
 
         if (commande.getModeLivraison() == Commande.ModeLivraison.LIVRAISON) {
@@ -139,18 +151,14 @@ public class VueCuisinier extends AbstractVue implements IVueCuisinier {
     /**
      * Affiche les options spéciales associées à une commande.
      *
-     * @param platDecore L'objet représentant un plat décoré contenant des options.
+     * @param ligne La ligne compilée de la commande, contenant les options.
      */
-    private void afficherOptions(PlatDecore platDecore) {
-        if (platDecore instanceof OptionSupplement) {
-            OptionSupplement option = (OptionSupplement) platDecore;
-            System.out.printf("- %s (%s)%n",
-                    option.getNomSupplement(),
-                    option.getTypeSupplement().getLibelle());
-        }
-
-        if (platDecore.getPlatDeBase() instanceof PlatDecore) {
-            afficherOptions((PlatDecore) platDecore.getPlatDeBase());
+    private void afficherOptions(LigneCommande ligne) {
+        for (int i = 0; i < ligne.getNombreSupplements(); i++) {
+            System.out.printf("- %s (%s)%s%n",
+                    ligne.getNomSupplement(i),
+                    ligne.getTypeSupplement(i).getLibelle(),
+                    ligne.getQuantite(i) > 1 ? " x" + ligne.getQuantite(i) : "");
         }
     }
 
@@ -203,9 +211,49 @@ public class VueCuisinier extends AbstractVue implements IVueCuisinier {
         System.out.println("\n=== Statistiques ===");
         System.out.printf("Commandes préparées aujourd'hui : %d%n",
                 cuisinier.getCommandesPrepareesDuJour());
-        System.out.printf("Temps moyen de préparation : %d minutes%n",
-                cuisinier.getTempsPreparationMoyen());
         System.out.printf("Taux de satisfaction : %.1f%%%n",
                 cuisinier.getTauxSatisfaction());
+        System.out.println("Temps de préparation des commandes :");
+        afficherDurees(cuisinier.getTempsPreparation());
+
+        Map<String, HistogrammeDurees> tempsParPlat = OrdonnanceurCuisine.getInstance().getTempsParPlat();
+        if (!tempsParPlat.isEmpty()) {
+            System.out.println("\n=== Temps de préparation par plat (lots) ===");
+            for (Map.Entry<String, HistogrammeDurees> plat : tempsParPlat.entrySet()) {
+                System.out.println(plat.getKey() + " :");
+                afficherDurees(plat.getValue());
+            }
+        }
+
+        RegroupementProduction regroupement = OrdonnanceurCuisine.getInstance().getRegroupement();
+        System.out.println("\n=== Regroupement de la production ===");
+        System.out.printf("Lots transmis à la cuisine : %d (%d portions, %.1f portions par lot)%n",
+                regroupement.getNombreLots(), regroupement.getNombrePortions(),
+                regroupement.getTailleMoyenneLots());
+        System.out.printf("Cycles de préparation économisés : %d%n", regroupement.getCyclesEconomises());
+        long[] lotsParTaille = regroupement.getLotsParTaille();
+        for (int taille = 1; taille < lotsParTaille.length; taille++) {
+            if (lotsParTaille[taille] > 0) {
+                System.out.printf("  %2d portion(s) : %d lot(s)%n", taille, lotsParTaille[taille]);
+            }
+        }
+    }
+
+    private void afficherDurees(HistogrammeDurees durees) {
+        if (durees.getNombre() == 0) {
+            System.out.println("  Aucune mesure");
+            return;
+        }
+        System.out.printf("  %d mesure(s) - moyenne %s, médiane %s, p95 %s, p99 %s%n",
+                durees.getNombre(),
+                formaterDuree(Math.round(durees.getMoyenneMs())),
+                formaterDuree(durees.centileMs(0.50)),
+                formaterDuree(durees.centileMs(0.95)),
+                formaterDuree(durees.centileMs(0.99)));
+    }
+
+    private static String formaterDuree(long dureeMs) {
+        long secondes = Math.round(dureeMs / 1000.0);
+        return String.format("%d min %02d s", secondes / 60, secondes % 60);
     }
 }
\ No newline at end of file
@@ -40,7 +40,7 @@ public class VueLivreur extends AbstractVue implements IVueLivreur {
     @Override
     public void afficher() {
         effacerEcran();
-        afficherNotifications();
+        afficherNotifications(livreur);
         afficherStatusLivreur();
         afficherMenu();
         traiterChoix();
@@ -85,16 +85,18 @@ public class VueLivreur extends AbstractVue implements IVueLivreur {
      * Affiche la liste des commandes disponibles à livrer.
      */
     public void afficherCommandesALivrer() {
-        List<Commande> commandes = livreur.getCommandesALivrer();
-        if (commandes.isEmpty()) {
+        TourneeLivraison tournee = livreur.getTournee();
+        if (tournee.estVide()) {
             afficherInfo("Aucune commande à livrer pour le moment.");
             return;
         }
 
-        System.out.println("\n=== Commandes à livrer ===");
-        for (int i = 0; i < commandes.size(); i++) {
-            System.out.println("\n" + (i + 1) + ".");
-            afficherDetailsCommande(commandes.get(i));
+        System.out.printf("%n=== Tournée : %d arrêt(s), %.1f km, %d min ===%n",
+                tournee.getNombreArrets(), tournee.getDistanceKm(), tournee.getDureeMinutes());
+        for (int i = 0; i < tournee.getNombreArrets(); i++) {
+            System.out.printf("%nArrêt %d - arrivée estimée %d min après le départ%n",
+                    i + 1, tournee.getEtaMinutes(i));
+            afficherDetailsCommande(tournee.getArrets().get(i));
         }
     }
 
@@ -41,7 +41,7 @@ public class VueResponsableCampus extends AbstractVue implements IVueResponsable
     @Override
     public void afficher() {
         effacerEcran();
-        afficherNotifications();
+        afficherNotifications(responsable);
         afficherEntete();
         afficherMenu();
         traiterChoix();
@@ -154,7 +154,7 @@ public class VueResponsableCampus extends AbstractVue implements IVueResponsable
 
         System.out.println("\n📈 Dépenses par événement :");
         responsable.getBudgetParEvenement().forEach((evenement, montant) ->
-                System.out.printf("- %s : %.2f€%n", evenement, montant));
+                System.out.printf("- %s : %s%n", evenement, Montant.formater(montant)));
 
         afficherSeparateur();
     }
@@ -0,0 +1,207 @@
+package fr.univ.gallileeats.model;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vérification sous contention des transitions sans verrou de {@link Commande} :
+ * plusieurs threads se disputent les mêmes transitions sur les mêmes commandes, puis
+ * l'on contrôle qu'un seul jeton a été émis par transition et que l'index par état
+ * du dépôt correspond à l'état final de chaque commande.
+ * <p>
+ * Lancement, après compilation des sources dans {@code out} :
+ * <pre>
+ * javac -encoding UTF-8 -cp out -d out-test test/fr/univ/gallileeats/model/VerificationTransitionsConcurrentes.java
+ * java -cp out:out-test fr.univ.gallileeats.model.VerificationTransitionsConcurrentes [threads] [commandes]
+ * </pre>
+ * Le code de sortie est non nul si une vérification échoue.
+ */
+public class VerificationTransitionsConcurrentes {
+    private static final EtatCommande[] CHEMIN = {
+            EtatCommande.NOUVELLE, EtatCommande.EN_PREPARATION, EtatCommande.PRETE,
+            EtatCommande.EN_LIVRAISON, EtatCommande.LIVREE
+    };
+
+    private final int nombreThreads;
+    private final int nombreCommandes;
+    private final List<String> echecs;
+
+    VerificationTransitionsConcurrentes(int nombreThreads, int nombreCommandes) {
+        this.nombreThreads = nombreThreads;
+        this.nombreCommandes = nombreCommandes;
+        this.echecs = new ArrayList<>();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int commandes = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        VerificationTransitionsConcurrentes verification = new VerificationTransitionsConcurrentes(threads, commandes);
+        verification.verifierJetonUnique();
+        verification.verifierAnnulationConcurrente();
+        verification.verifierChangementsEtat();
+
+        if (verification.echecs.isEmpty()) {
+            System.out.println("Transitions concurrentes : toutes les vérifications ont réussi");
+            System.exit(0);
+        }
+        for (String echec : verification.echecs) {
+            System.err.println("ÉCHEC : " + echec);
+        }
+        System.exit(1);
+    }
+
+    /**
+     * Tous les threads revendiquent chaque étape du chemin de livraison : chaque étape doit
+     * être remportée par exactement un thread.
+     */
+    void verifierJetonUnique() throws Exception {
+        List<Commande> commandes = creerCommandes(Commande.ModeLivraison.SUR_PLACE);
+        Map<EtatCommande, AtomicInteger> jetons = new EnumMap<>(EtatCommande.class);
+        for (EtatCommande etat : CHEMIN) {
+            jetons.put(etat, new AtomicInteger());
+        }
+
+        executerEnConcurrence(() -> {
+            for (Commande commande : commandes) {
+                for (int i = 1; i < CHEMIN.length; i++) {
+                    // Attend que l'étape précédente ait été remportée, par ce thread ou un autre
+                    while (commande.getEtat() == CHEMIN[i - 1]) {
+                        Commande.JetonTransition jeton = commande.revendiquer(CHEMIN[i - 1], CHEMIN[i]);
+                        if (jeton != null) {
+                            verifier(jeton.getCommande() == commande && jeton.getNouvelEtat() == CHEMIN[i],
+                                    "jeton incohérent pour " + commande.getNumeroCommande());
+                            jetons.get(CHEMIN[i]).incrementAndGet();
+                        }
+                    }
+                }
+            }
+        });
+
+        for (int i = 1; i < CHEMIN.length; i++) {
+            int emis = jetons.get(CHEMIN[i]).get();
+            verifier(emis == nombreCommandes,
+                    String.format("%d jetons vers %s pour %d commandes", emis, CHEMIN[i], nombreCommandes));
+        }
+        verifierIndex(commandes);
+    }
+
+    /**
+     * Une annulation par {@link Commande#changerEtat} entre en concurrence avec la progression
+     * par jetons : la commande finit annulée quel que soit l'ordre d'arrivée.
+     */
+    void verifierAnnulationConcurrente() throws Exception {
+        List<Commande> commandes = creerCommandes(Commande.ModeLivraison.A_EMPORTER);
+        AtomicInteger annulations = new AtomicInteger();
+
+        executerEnConcurrence(new Runnable() {
+            private final AtomicInteger rang = new AtomicInteger();
+
+            @Override
+            public void run() {
+                boolean annuleur = rang.getAndIncrement() == 0;
+                for (Commande commande : commandes) {
+                    if (annuleur) {
+                        commande.changerEtat(EtatCommande.ANNULEE);
+                        annulations.incrementAndGet();
+                        continue;
+                    }
+                    if (commande.revendiquer(EtatCommande.NOUVELLE, EtatCommande.EN_PREPARATION) == null) {
+                        commande.revendiquer(EtatCommande.EN_PREPARATION, EtatCommande.PRETE);
+                    }
+                }
+            }
+        });
+
+        verifier(annulations.get() == nombreCommandes,
+                annulations.get() + " annulations sur " + nombreCommandes + " commandes");
+        for (Commande commande : commandes) {
+            verifier(commande.getEtat() == EtatCommande.ANNULEE,
+                    commande.getNumeroCommande() + " finit à l'état " + commande.getEtat());
+        }
+        verifierIndex(commandes);
+    }
+
+    /**
+     * {@link Commande#changerEtat} appelé par tous les threads vers le même état : une seule
+     * transition a lieu, les appels suivants sont refusés comme transitions invalides.
+     */
+    void verifierChangementsEtat() throws Exception {
+        List<Commande> commandes = creerCommandes(Commande.ModeLivraison.SUR_PLACE);
+        AtomicInteger reussites = new AtomicInteger();
+        AtomicInteger refus = new AtomicInteger();
+
+        executerEnConcurrence(() -> {
+            for (Commande commande : commandes) {
+                try {
+                    commande.changerEtat(EtatCommande.EN_PREPARATION);
+                    reussites.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    refus.incrementAndGet();
+                }
+            }
+        });
+
+        verifier(reussites.get() == nombreCommandes,
+                reussites.get() + " passages en préparation pour " + nombreCommandes + " commandes");
+        verifier(refus.get() == nombreCommandes * (nombreThreads - 1),
+                refus.get() + " refus au lieu de " + nombreCommandes * (nombreThreads - 1));
+        verifierIndex(commandes);
+    }
+
+    private List<Commande> creerCommandes(Commande.ModeLivraison mode) {
+        Client client = new Client("VERIF-" + mode, "Vérification", "verif@galilee.fr", "verif", "Campus");
+        Menu menu = new Menu("Menu vérification", "Menu des vérifications", "STANDARD");
+        menu.ajouter(new Plat("Plat vérification", "", 5.0, "PLAT"));
+        List<Commande> commandes = new ArrayList<>(nombreCommandes);
+        for (int i = 0; i < nombreCommandes; i++) {
+            Commande commande = new Commande(client, menu, 1, mode);
+            commande.changerEtat(EtatCommande.NOUVELLE);
+            OrderRepository.getInstance().enregistrer(commande);
+            commandes.add(commande);
+        }
+        return commandes;
+    }
+
+    // Chaque commande doit figurer dans l'index du dépôt sous son état final, et sous lui seul
+    private void verifierIndex(List<Commande> commandes) {
+        OrderRepository depot = OrderRepository.getInstance();
+        for (Commande commande : commandes) {
+            for (EtatCommande etat : EtatCommande.values()) {
+                boolean indexee = depot.getCommandesParEtat(etat).contains(commande);
+                verifier(indexee == (etat == commande.getEtat()), String.format("%s %s indexée sous %s",
+                        commande.getNumeroCommande(), indexee ? "" : "non", etat));
+            }
+        }
+    }
+
+    private void executerEnConcurrence(Runnable tache) throws Exception {
+        ExecutorService executeur = Executors.newFixedThreadPool(nombreThreads);
+        CyclicBarrier depart = new CyclicBarrier(nombreThreads);
+        List<Future<?>> resultats = new ArrayList<>();
+        for (int i = 0; i < nombreThreads; i++) {
+            resultats.add(executeur.submit(() -> {
+                depart.await();
+                tache.run();
+                return null;
+            }));
+        }
+        for (Future<?> resultat : resultats) {
+            resultat.get(60, TimeUnit.SECONDS);
+        }
+        executeur.shutdown();
+    }
+
+    private synchronized void verifier(boolean condition, String message) {
+        if (!condition) {
+            echecs.add(message);
+        }
+    }
+}